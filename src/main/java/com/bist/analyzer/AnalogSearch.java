@@ -0,0 +1,407 @@
+package com.bist.analyzer;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.IntStream;
+
+/**
+ * Universe-wide analog search: "when did any stock last look like SYMBOL does now, and what happened next?"
+ * Every symbol-day is one row of a columnar index (one float[] per feature: RSI, ADX, MACD histogram,
+ * Bollinger position, volume ratio), z-score normalised over the whole universe. A query is a parallel
+ * k-nearest-neighbour scan over these arrays, limited to rows that pass the BacktestValidator similarity
+ * conditions (same SMA20/SMA50 trend, RSI and ADX within tolerance) and whose next 10 bars are known.
+ */
+public final class AnalogSearch {
+
+    // Outcome horizon (bars after the analog day), the longest BacktestValidator test period
+    private static final int HORIZON = 10;
+
+    // First bar with every indicator warmed up (SMA50, MACD 26+9)
+    private static final int FIRST_BAR = 50;
+
+    // Rows scanned by one parallel chunk
+    private static final int CHUNK_SIZE = 16384;
+
+    private static final int RSI = 0;
+    private static final int ADX = 1;
+    private static final int MACD_HISTOGRAM = 2;
+    private static final int BB_POSITION = 3;
+    private static final int VOLUME_RATIO = 4;
+    private static final int FEATURES = 5;
+
+    private AnalogSearch() {
+    }
+
+    /**
+     * Columnar feature index of a universe; rows of one symbol are contiguous and in bar order
+     */
+    public static final class Index {
+        final String[] symbols;
+        final int[] symbolStart;          // First row of each symbol (bar FIRST_BAR), plus the end sentinel
+        final int size;
+        final int[] symbolId;
+        final long[] time;
+        final float[] close;
+        final float[][] columns;          // [feature][row], normalised
+        final float[] rawRsi;
+        final float[] rawAdx;
+        final boolean[] uptrend;          // SMA20 > SMA50
+        final boolean[] valid;            // Every feature known
+        final boolean[] matured;          // The next HORIZON bars are known
+        final float[] return5;            // Close-to-close return after 5 bars
+        final float[] return10;           // Close-to-close return after 10 bars
+        final float[] maxGain;            // Highest high of the next 10 bars vs close
+        final float[] maxLoss;            // Lowest low of the next 10 bars vs close (as a positive drop)
+        long elapsedMillis;
+
+        private Index(String[] symbols, int size) {
+            this.symbols = symbols;
+            this.symbolStart = new int[symbols.length + 1];
+            this.size = size;
+            this.symbolId = new int[size];
+            this.time = new long[size];
+            this.close = new float[size];
+            this.columns = new float[FEATURES][size];
+            this.rawRsi = new float[size];
+            this.rawAdx = new float[size];
+            this.uptrend = new boolean[size];
+            this.valid = new boolean[size];
+            this.matured = new boolean[size];
+            this.return5 = new float[size];
+            this.return10 = new float[size];
+            this.maxGain = new float[size];
+            this.maxLoss = new float[size];
+        }
+
+        public int size() {
+            return size;
+        }
+
+        // Symbols are sorted (TreeMap order)
+        int lastRow(String symbol) {
+            int s = Arrays.binarySearch(symbols, symbol);
+            return s < 0 || symbolStart[s + 1] == symbolStart[s] ? -1 : symbolStart[s + 1] - 1;
+        }
+    }
+
+    /**
+     * One analog: a past symbol-day close to the query and what followed it
+     */
+    public static class Match {
+        public final String symbol;
+        public final long time;
+        public final double distance;
+        public final double close;
+        public final double return5;
+        public final double return10;
+        public final double maxGain;
+        public final double maxLoss;
+
+        Match(Index index, int row, double distance) {
+            this.symbol = index.symbols[index.symbolId[row]];
+            this.time = index.time[row];
+            this.distance = distance;
+            this.close = index.close[row];
+            this.return5 = index.return5[row];
+            this.return10 = index.return10[row];
+            this.maxGain = index.maxGain[row];
+            this.maxLoss = index.maxLoss[row];
+        }
+    }
+
+    /**
+     * Analogs of one query plus the summary of their outcomes
+     */
+    public static class Result {
+        public final String symbol;
+        public final long time;
+        public final List<Match> matches = new ArrayList<>();
+        public int candidates;             // Rows passing the similarity conditions
+        public double averageReturn10;
+        public double upRate;              // Share of analogs higher after 10 bars
+        public double buyHitRate;          // %5+ rise within 10 bars (BacktestValidator AL criterion)
+        public double sellHitRate;         // %5+ drop within 10 bars (BacktestValidator SAT criterion)
+        public long elapsedMicros;
+
+        Result(String symbol, long time) {
+            this.symbol = symbol;
+            this.time = time;
+        }
+    }
+
+    /**
+     * Build the index of dailyData (daily bars, oldest first); symbols are processed in parallel
+     */
+    public static Index build(Map<String, List<StockData>> dailyData) {
+        long start = System.currentTimeMillis();
+        List<String> names = new ArrayList<>();
+        List<List<StockData>> series = new ArrayList<>();
+        for (Map.Entry<String, List<StockData>> entry : new TreeMap<>(dailyData).entrySet()) {
+            if (entry.getValue() == null) continue;
+            names.add(entry.getKey());
+            series.add(entry.getValue());
+        }
+        String[] symbols = names.toArray(new String[0]);
+        int[] symbolStart = new int[symbols.length + 1];
+        for (int s = 0; s < symbols.length; s++) {
+            symbolStart[s + 1] = symbolStart[s] + Math.max(0, series.get(s).size() - FIRST_BAR);
+        }
+        Index index = new Index(symbols, symbolStart[symbols.length]);
+        System.arraycopy(symbolStart, 0, index.symbolStart, 0, symbolStart.length);
+
+        IntStream.range(0, symbols.length).parallel().forEach(s -> fillSymbol(index, s, series.get(s)));
+        normalize(index);
+        index.elapsedMillis = System.currentTimeMillis() - start;
+        return index;
+    }
+
+    /**
+     * k analogs of the symbol's last bar (at most one per symbol within HORIZON bars of another)
+     */
+    public static Result query(Index index, String symbol, int k) {
+        int row = index.lastRow(symbol);
+        return row < 0 ? null : query(index, row, k);
+    }
+
+    static Result query(Index index, int queryRow, int k) {
+        long start = System.nanoTime();
+        Result result = new Result(index.symbols[index.symbolId[queryRow]], index.time[queryRow]);
+        if (!index.valid[queryRow]) {
+            return result;
+        }
+
+        float[] query = new float[FEATURES];
+        for (int f = 0; f < FEATURES; f++) {
+            query[f] = index.columns[f][queryRow];
+        }
+
+        // More candidates than k, so near-duplicate days of one episode can be dropped afterwards
+        // (never more than there are rows: a huge k must not overflow or size the heaps beyond the index)
+        int wanted = (int) Math.min((long) k * 4, index.size);
+        int chunks = (index.size + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        TopK[] partial = new TopK[chunks];
+        int[] candidates = new int[chunks];
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            TopK top = new TopK(wanted);
+            int count = 0;
+            int end = Math.min(index.size, (c + 1) * CHUNK_SIZE);
+            for (int row = c * CHUNK_SIZE; row < end; row++) {
+                if (!isCandidate(index, row, queryRow)) continue;
+                count++;
+                double distance = 0;
+                for (int f = 0; f < FEATURES && distance < top.worst(); f++) {
+                    double d = index.columns[f][row] - query[f];
+                    distance += d * d;
+                }
+                top.offer(row, distance);
+            }
+            partial[c] = top;
+            candidates[c] = count;
+        });
+
+        TopK merged = new TopK(wanted);
+        for (int c = 0; c < chunks; c++) {
+            result.candidates += candidates[c];
+            for (int i = 0; i < partial[c].size; i++) {
+                merged.offer(partial[c].rows[i], partial[c].distances[i]);
+            }
+        }
+
+        // Nearest first, skipping days within HORIZON bars of an already accepted analog of the same symbol
+        List<Integer> accepted = new ArrayList<>();
+        for (int i = 0; i < merged.size && accepted.size() < k; i++) {
+            int row = merged.rows[i];
+            boolean duplicate = false;
+            for (int other : accepted) {
+                if (index.symbolId[other] == index.symbolId[row] && Math.abs(other - row) <= HORIZON) {
+                    duplicate = true;
+                    break;
+                }
+            }
+            if (duplicate) continue;
+            accepted.add(row);
+            result.matches.add(new Match(index, row, Math.sqrt(merged.distances[i])));
+        }
+        summarize(result);
+        result.elapsedMicros = (System.nanoTime() - start) / 1000;
+        return result;
+    }
+
+    public static void printResult(Result result) {
+        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
+        if (result.matches.isEmpty()) {
+            System.out.println("🔎 " + result.symbol + ": benzer geçmiş durum bulunamadı");
+            return;
+        }
+        System.out.println(String.format(Locale.US,
+            "🔎 %s (%s) benzerleri: %d aday içinden %d, %d µs | 10 gün sonra ort. %+.2f%% | yükselen %.0f%% | %%5+ yükseliş %.0f%% | %%5+ düşüş %.0f%%",
+            result.symbol, sdf.format(new Date(result.time)), result.candidates, result.matches.size(),
+            result.elapsedMicros, result.averageReturn10 * 100, result.upRate * 100,
+            result.buyHitRate * 100, result.sellHitRate * 100));
+        for (Match match : result.matches) {
+            System.out.println(String.format(Locale.US,
+                "  %-8s %s @ %9.2f₺ | uzaklık %.2f | 5g %+6.2f%% | 10g %+6.2f%% | max %+6.2f%% / %+6.2f%%",
+                match.symbol, sdf.format(new Date(match.time)), match.close, match.distance,
+                match.return5 * 100, match.return10 * 100, match.maxGain * 100, -match.maxLoss * 100));
+        }
+    }
+
+    /**
+     * Analogs of several queries as CSV
+     */
+    public static void writeCsv(List<Result> results, Path file) throws IOException {
+        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            out.println("query,query_date,rank,symbol,date,distance,close,return_5,return_10,max_gain,max_loss");
+            for (Result result : results) {
+                for (int i = 0; i < result.matches.size(); i++) {
+                    Match match = result.matches.get(i);
+                    out.println(String.format(Locale.US, "%s,%s,%d,%s,%s,%.4f,%.2f,%.5f,%.5f,%.5f,%.5f",
+                        result.symbol, sdf.format(new Date(result.time)), i + 1, match.symbol,
+                        sdf.format(new Date(match.time)), match.distance, match.close, match.return5,
+                        match.return10, match.maxGain, match.maxLoss));
+                }
+            }
+        }
+    }
+
+    private static void fillSymbol(Index index, int s, List<StockData> data) {
+        int first = index.symbolStart[s];
+        int rows = index.symbolStart[s + 1] - first;
+        if (rows == 0) return;
+
+        double[] sma20 = TechnicalIndicators.calculateSMA(data, 20);
+        double[] sma50 = TechnicalIndicators.calculateSMA(data, 50);
+        double[] rsi = TechnicalIndicators.calculateRSI(data, 14);
+        double[] adx = TechnicalIndicators.calculateADX(data, 14).adx;
+        double[] histogram = TechnicalIndicators.calculateMACD(data, 12, 26, 9).histogram;
+        TechnicalIndicators.BollingerBands bb = TechnicalIndicators.calculateBollingerBands(data, 20, 2.0);
+        ForwardWindowIndex window = ForwardWindowIndex.build(data, FIRST_BAR, data.size(), new int[] {HORIZON});
+
+        int n = data.size();
+        for (int r = 0; r < rows; r++) {
+            int i = FIRST_BAR + r;
+            int row = first + r;
+            double close = data.get(i).getClose();
+            double averageVolume = TechnicalIndicators.getAverageVolume(data, i, 20);
+            double band = bb.upper[i] - bb.lower[i];
+
+            index.symbolId[row] = s;
+            index.time[row] = data.get(i).getTimestamp();
+            index.close[row] = (float) close;
+            index.rawRsi[row] = (float) rsi[i];
+            index.rawAdx[row] = (float) adx[i];
+            index.uptrend[row] = sma20[i] > sma50[i];
+            index.columns[RSI][row] = (float) rsi[i];
+            index.columns[ADX][row] = (float) adx[i];
+            index.columns[MACD_HISTOGRAM][row] = (float) (histogram[i] / close);   // Scale-free across prices
+            index.columns[BB_POSITION][row] = band > 0 ? (float) ((close - bb.lower[i]) / band) : 0.5f;
+            index.columns[VOLUME_RATIO][row] = averageVolume > 0
+                ? (float) Math.log(Math.max(data.get(i).getVolume(), 1) / averageVolume) : 0f;
+
+            boolean valid = close > 0;
+            for (int f = 0; f < FEATURES; f++) {
+                valid &= !Float.isNaN(index.columns[f][row]) && !Float.isInfinite(index.columns[f][row]);
+            }
+            index.valid[row] = valid;
+
+            if (valid && i + HORIZON < n) {
+                index.matured[row] = true;
+                index.return5[row] = (float) (data.get(i + 5).getClose() / close - 1);
+                index.return10[row] = (float) (data.get(i + HORIZON).getClose() / close - 1);
+                index.maxGain[row] = (float) Math.max(0, window.maxHigh(i, HORIZON) / close - 1);
+                index.maxLoss[row] = (float) Math.max(0, 1 - window.minLow(i, HORIZON) / close);
+            }
+        }
+    }
+
+    // z-score every feature column over the valid rows of the universe
+    private static void normalize(Index index) {
+        for (int f = 0; f < FEATURES; f++) {
+            float[] column = index.columns[f];
+            double sum = 0;
+            double sumSquares = 0;
+            int count = 0;
+            for (int row = 0; row < index.size; row++) {
+                if (!index.valid[row]) continue;
+                sum += column[row];
+                sumSquares += (double) column[row] * column[row];
+                count++;
+            }
+            double mean = count > 0 ? sum / count : 0;
+            double std = count > 1 ? Math.sqrt(Math.max(0, sumSquares / count - mean * mean)) : 1;
+            float scale = std > 0 ? (float) (1 / std) : 1f;
+            for (int row = 0; row < index.size; row++) {
+                column[row] = (float) ((column[row] - mean) * scale);
+            }
+        }
+    }
+
+    // BacktestValidator similarity conditions (trend, RSI, ADX) on a matured row
+    private static boolean isCandidate(Index index, int row, int queryRow) {
+        return index.matured[row]
+            && index.uptrend[row] == index.uptrend[queryRow]
+            && Math.abs(index.rawRsi[row] - index.rawRsi[queryRow]) <= MarketConditionIndex.RSI_TOLERANCE
+            && Math.abs(index.rawAdx[row] - index.rawAdx[queryRow]) <= MarketConditionIndex.ADX_TOLERANCE;
+    }
+
+    private static void summarize(Result result) {
+        int count = result.matches.size();
+        if (count == 0) return;
+        int up = 0;
+        int buyHits = 0;
+        int sellHits = 0;
+        double sum = 0;
+        for (Match match : result.matches) {
+            sum += match.return10;
+            if (match.return10 > 0) up++;
+            if (match.maxGain >= BacktestValidator.SUCCESS_THRESHOLD) buyHits++;
+            if (match.maxLoss >= BacktestValidator.SUCCESS_THRESHOLD) sellHits++;
+        }
+        result.averageReturn10 = sum / count;
+        result.upRate = (double) up / count;
+        result.buyHitRate = (double) buyHits / count;
+        result.sellHitRate = (double) sellHits / count;
+    }
+
+    /**
+     * Bounded list of the nearest rows, kept sorted by distance (k is small, insertion is cheapest)
+     */
+    private static final class TopK {
+        final int[] rows;
+        final double[] distances;
+        int size;
+
+        TopK(int capacity) {
+            this.rows = new int[capacity];
+            this.distances = new double[capacity];
+        }
+
+        double worst() {
+            return size < rows.length ? Double.POSITIVE_INFINITY : distances[size - 1];
+        }
+
+        void offer(int row, double distance) {
+            if (distance >= worst()) return;
+            int i = size < rows.length ? size++ : size - 1;
+            while (i > 0 && distances[i - 1] > distance) {
+                rows[i] = rows[i - 1];
+                distances[i] = distances[i - 1];
+                i--;
+            }
+            rows[i] = row;
+            distances[i] = distance;
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.bist.analyzer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Content fingerprints of generated artifacts (charts, report) from the previous run
+ * An artifact whose input fingerprint (bars + signal + parameters) is unchanged and whose
+ * output files still exist is not rendered again - off-hours runs become almost free
+ *
+ * Stored as a properties file: artifact key -> fingerprint
+ */
+public class ArtifactManifest {
+
+    // Bump when the generated output changes for the same inputs (forces a full rebuild once)
+    private static final String FORMAT_VERSION = "2";
+
+    private final Path file;
+    private final Properties entries = new Properties();
+    private int skipped;
+    private int rebuilt;
+
+    private ArtifactManifest(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Load the manifest of the previous run; a missing or unreadable file means "rebuild everything"
+     */
+    public static ArtifactManifest load(Path file) {
+        ArtifactManifest manifest = new ArtifactManifest(file);
+        if (Files.exists(file)) {
+            try (InputStream in = Files.newInputStream(file)) {
+                manifest.entries.load(in);
+            } catch (IOException e) {
+                System.err.println("⚠️  Artifact manifest okunamadı, tüm dosyalar yeniden oluşturulacak: " + e.getMessage());
+                manifest.entries.clear();
+            }
+        }
+        return manifest;
+    }
+
+    /**
+     * True when the artifact was built from the same fingerprint and all its output files exist
+     */
+    public synchronized boolean isUnchanged(String key, String fingerprint, Path... outputs) {
+        if (!fingerprint.equals(entries.getProperty(key))) {
+            rebuilt++;
+            return false;
+        }
+        for (Path output : outputs) {
+            if (!Files.exists(output)) {
+                rebuilt++;
+                return false;
+            }
+        }
+        skipped++;
+        return true;
+    }
+
+    /**
+     * Record the fingerprint of an artifact that has just been written successfully
+     */
+    public synchronized void update(String key, String fingerprint) {
+        entries.setProperty(key, fingerprint);
+    }
+
+    /**
+     * Forget an artifact (e.g. its generation failed half way)
+     */
+    public synchronized void invalidate(String key) {
+        entries.remove(key);
+    }
+
+    public synchronized void save() {
+        try (OutputStream out = Files.newOutputStream(file)) {
+            entries.store(out, "BIST artifact fingerprints");
+        } catch (IOException e) {
+            System.err.println("⚠️  Artifact manifest kaydedilemedi: " + e.getMessage());
+        }
+    }
+
+    public synchronized int getSkippedCount() {
+        return skipped;
+    }
+
+    public synchronized int getRebuiltCount() {
+        return rebuilt;
+    }
+
+    public static Fingerprint fingerprint() {
+        return new Fingerprint();
+    }
+
+    /**
+     * SHA-256 over the inputs of an artifact
+     */
+    public static class Fingerprint {
+        private final MessageDigest digest;
+        private final byte[] scratch = new byte[8];
+
+        private Fingerprint() {
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 not available", e);
+            }
+            add(FORMAT_VERSION);
+        }
+
+        public Fingerprint add(long value) {
+            for (int i = 0; i < 8; i++) {
+                scratch[i] = (byte) (value >>> (56 - 8 * i));
+            }
+            digest.update(scratch, 0, 8);
+            return this;
+        }
+
+        public Fingerprint add(double value) {
+            return add(Double.doubleToLongBits(value));
+        }
+
+        public Fingerprint add(boolean value) {
+            return add(value ? 1L : 0L);
+        }
+
+        public Fingerprint add(String value) {
+            if (value == null) {
+                return add(-1L);
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            add((long) bytes.length);
+            digest.update(bytes);
+            return this;
+        }
+
+        /**
+         * All bars (timestamp + OHLCV) of a series
+         */
+        public Fingerprint addBars(List<StockData> bars) {
+            add((long) bars.size());
+            for (StockData bar : bars) {
+                add(bar.getTimestamp());
+                add(bar.getOpen());
+                add(bar.getHigh());
+                add(bar.getLow());
+                add(bar.getClose());
+                add(bar.getVolume());
+            }
+            return this;
+        }
+
+        /**
+         * Bar count and the last bar (timestamp + OHLCV) - a constant-cost stand-in for addBars when the
+         * artifact only changes with a new or updated last bar
+         */
+        public Fingerprint addLastBar(List<StockData> bars) {
+            add((long) bars.size());
+            if (bars.isEmpty()) {
+                return this;
+            }
+            StockData bar = bars.get(bars.size() - 1);
+            add(bar.getTimestamp());
+            add(bar.getOpen());
+            add(bar.getHigh());
+            add(bar.getLow());
+            add(bar.getClose());
+            return add(bar.getVolume());
+        }
+
+        public Fingerprint addSignal(SignalGenerator.SignalResult signal) {
+            if (signal == null) {
+                return add(-1L);
+            }
+            add(signal.symbol);
+            add(signal.timestamp);
+            add(signal.price);
+            add(signal.signal);
+            add(signal.confidence);
+            add(signal.details);
+            return add((long) signal.score);
+        }
+
+        /**
+         * File contents (missing file hashes as absent)
+         */
+        public Fingerprint addFile(Path path) {
+            try {
+                if (Files.exists(path)) {
+                    byte[] bytes = Files.readAllBytes(path);
+                    add((long) bytes.length);
+                    digest.update(bytes);
+                    return this;
+                }
+            } catch (IOException e) {
+                // Unreadable file: fall through, treated like a missing one
+            }
+            return add(-1L);
+        }
+
+        /**
+         * Hex digest - completes the fingerprint, call once
+         */
+        public String build() {
+            byte[] hash = digest.digest();
+            StringBuilder hex = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        }
+    }
+}
@@ -0,0 +1,466 @@
+package com.bist.analyzer;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Walk-forward backtest over the whole universe
+ * Replays the findHistoricalSignals scan on the full daily history of every symbol and simulates the trades:
+ * entry at the signal day's close (BUY = long, SELL = short), exit at the stop, the target or after
+ * holdingDays - whichever comes first. One open position per symbol, signals while in a trade are skipped.
+ *
+ * Symbols are simulated in parallel on the primitive price arrays of their IndicatorCache
+ */
+public class BacktestEngine {
+
+    private static final int MAX_THREADS = 8;
+
+    private BacktestEngine() {
+    }
+
+    /**
+     * Trade rules
+     */
+    public static class Settings {
+        public final int holdingDays;      // Maksimum pozisyon süresi (gün)
+        public final double stopLoss;      // 0.05 = %5 zarar kes (0 = yok)
+        public final double takeProfit;    // 0.10 = %10 kar al (0 = yok)
+        public final double costPerTrade;  // Komisyon + kayma, gidiş-dönüş (0.002 = %0.2)
+
+        public Settings(int holdingDays, double stopLoss, double takeProfit, double costPerTrade) {
+            if (holdingDays < 1) {
+                throw new IllegalArgumentException("holdingDays must be >= 1: " + holdingDays);
+            }
+            this.holdingDays = holdingDays;
+            this.stopLoss = stopLoss;
+            this.takeProfit = takeProfit;
+            this.costPerTrade = costPerTrade;
+        }
+
+        /**
+         * -Dbist.backtest.hold / .stop / .target / .cost, defaults: 10 days, %5 stop, %5 target (BacktestValidator), no cost
+         */
+        public static Settings fromSystemProperties() {
+            return new Settings(
+                Integer.getInteger("bist.backtest.hold", 10),
+                Double.parseDouble(System.getProperty("bist.backtest.stop", "0.05")),
+                Double.parseDouble(System.getProperty("bist.backtest.target", "0.05")),
+                Double.parseDouble(System.getProperty("bist.backtest.cost", "0")));
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "tutma %d gün, stop %.1f%%, hedef %.1f%%, maliyet %.2f%%",
+                holdingDays, stopLoss * 100, takeProfit * 100, costPerTrade * 100);
+        }
+    }
+
+    public static final int EXIT_TIME = 0;
+    public static final int EXIT_STOP = 1;
+    public static final int EXIT_TARGET = 2;
+    public static final int EXIT_SIGNAL = 3;   // Ters sinyal ile kapanış (sadece PortfolioSimulator)
+
+    /**
+     * One simulated trade
+     */
+    public static class Trade {
+        public final String symbol;
+        public final boolean isLong;
+        public final long entryTime;
+        public final long exitTime;
+        public final double entryPrice;
+        public final double exitPrice;
+        public final double returnPct;     // Net getiri (0.03 = %3), maliyet düşülmüş
+        public final int barsHeld;
+        public final int exitReason;       // EXIT_TIME, EXIT_STOP, EXIT_TARGET, EXIT_SIGNAL
+
+        Trade(String symbol, boolean isLong, long entryTime, long exitTime, double entryPrice,
+              double exitPrice, double returnPct, int barsHeld, int exitReason) {
+            this.symbol = symbol;
+            this.isLong = isLong;
+            this.entryTime = entryTime;
+            this.exitTime = exitTime;
+            this.entryPrice = entryPrice;
+            this.exitPrice = exitPrice;
+            this.returnPct = returnPct;
+            this.barsHeld = barsHeld;
+            this.exitReason = exitReason;
+        }
+    }
+
+    /**
+     * Hit rate, expectancy and drawdown of a list of trades
+     */
+    public static class Stats {
+        public int trades;
+        public int wins;
+        public double hitRate;             // Kazanan işlem oranı (0-1)
+        public double averageWin;
+        public double averageLoss;         // Negatif
+        public double expectancy;          // İşlem başına ortalama net getiri
+        public double totalReturn;         // Portföy getirisi (eşit ağırlıklı hisse dilimleri, bileşik)
+        public double maxDrawdown;         // En büyük tepe-dip düşüş (0.2 = %20)
+
+        /**
+         * Trades must be in exit order. Capital is split equally into one sleeve per symbol, each sleeve
+         * compounds the trades of its symbol (they never overlap), equity is marked at every exit
+         */
+        static Stats of(List<Trade> trades, int sleeves) {
+            Stats stats = new Stats();
+            double winSum = 0;
+            double lossSum = 0;
+            Map<String, double[]> sleeveEquity = new HashMap<>();
+            double total = sleeves;
+            double equity = 1.0;
+            double peak = 1.0;
+            for (Trade trade : trades) {
+                stats.trades++;
+                if (trade.returnPct > 0) {
+                    stats.wins++;
+                    winSum += trade.returnPct;
+                } else {
+                    lossSum += trade.returnPct;
+                }
+                double[] sleeve = sleeveEquity.computeIfAbsent(trade.symbol, k -> new double[] {1.0});
+                total += sleeve[0] * trade.returnPct;
+                sleeve[0] *= 1 + trade.returnPct;
+                equity = total / sleeves;
+                peak = Math.max(peak, equity);
+                stats.maxDrawdown = Math.max(stats.maxDrawdown, 1 - equity / peak);
+            }
+            if (stats.trades > 0) {
+                stats.hitRate = (double) stats.wins / stats.trades;
+                stats.averageWin = stats.wins > 0 ? winSum / stats.wins : 0;
+                stats.averageLoss = stats.trades > stats.wins ? lossSum / (stats.trades - stats.wins) : 0;
+                stats.expectancy = (winSum + lossSum) / stats.trades;
+            }
+            stats.totalReturn = equity - 1;
+            return stats;
+        }
+    }
+
+    /**
+     * Backtest of the universe: per-symbol stats plus the pooled trades of all symbols
+     */
+    public static class Result {
+        public final Settings settings;
+        public final Map<String, Stats> bySymbol = new TreeMap<>();
+        public final List<Trade> trades = new ArrayList<>();
+        public Stats overall;
+        public Stats longs;
+        public Stats shorts;
+        public int skippedSignals;         // Açık pozisyon varken gelen sinyaller
+        public int storedTrades;           // BacktestStore'dan okunan (yeniden hesaplanmayan) işlemler
+        public long elapsedMillis;
+
+        Result(Settings settings) {
+            this.settings = settings;
+        }
+    }
+
+    /**
+     * Backtest every symbol of dailyData (daily bars, oldest first)
+     */
+    public static Result run(Map<String, List<StockData>> dailyData, final Settings settings) {
+        return run(dailyData, settings, null);
+    }
+
+    /**
+     * Backtest resumed from a store of earlier runs (null = from scratch): per symbol, only the signals whose
+     * holding period has completed since the stored run are simulated, symbols without a new bar are not touched.
+     * With a store the last bar counts as still open (the running session's daily bar): a trade is reported once
+     * its holding period ends on a closed bar. The store is updated in memory, the caller saves it
+     */
+    public static Result run(Map<String, List<StockData>> dailyData, final Settings settings, final BacktestStore store) {
+        if (store != null && !store.isFor(settings)) {
+            throw new IllegalArgumentException("Backtest store was recorded with other settings: " + settings);
+        }
+        long start = System.currentTimeMillis();
+        Result result = new Result(settings);
+        int threads = Math.max(1, Math.min(MAX_THREADS, Runtime.getRuntime().availableProcessors()));
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<String> symbols = new ArrayList<>();
+            List<Future<SymbolRun>> futures = new ArrayList<>();
+            for (Map.Entry<String, List<StockData>> entry : new TreeMap<>(dailyData).entrySet()) {
+                final String symbol = entry.getKey();
+                final List<StockData> data = entry.getValue();
+                if (data == null || data.isEmpty()) continue;
+                symbols.add(symbol);
+                final SymbolRun stored = store != null ? store.get(symbol) : null;
+                futures.add(pool.submit(() -> store != null
+                    ? resumeSymbol(symbol, data, settings, stored) : runSymbol(symbol, data, settings)));
+            }
+
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    SymbolRun run = futures.get(i).get();
+                    if (store != null) {
+                        store.put(symbols.get(i), run);
+                        result.storedTrades += run.resumedTrades;
+                    }
+                    result.bySymbol.put(symbols.get(i), Stats.of(run.trades, 1));
+                    result.trades.addAll(run.trades);
+                    result.skippedSignals += run.skippedSignals;
+                } catch (Exception e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    System.err.println("  ✗ " + symbols.get(i) + " backtest hatası: " + cause.getMessage());
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        int sleeves = Math.max(1, result.bySymbol.size());
+        result.overall = pooledStats(result.trades, sleeves);
+        List<Trade> longs = new ArrayList<>();
+        List<Trade> shorts = new ArrayList<>();
+        for (Trade trade : result.trades) {
+            (trade.isLong ? longs : shorts).add(trade);
+        }
+        result.longs = Stats.of(longs, sleeves);
+        result.shorts = Stats.of(shorts, sleeves);
+        result.elapsedMillis = System.currentTimeMillis() - start;
+        return result;
+    }
+
+    /**
+     * Stats of the trades of several symbols (sorted in place into exit order, ties by symbol -
+     * deterministic regardless of thread timing)
+     */
+    static Stats pooledStats(List<Trade> trades, int sleeves) {
+        trades.sort((a, b) -> a.exitTime != b.exitTime
+            ? Long.compare(a.exitTime, b.exitTime) : a.symbol.compareTo(b.symbol));
+        return Stats.of(trades, sleeves);
+    }
+
+    /**
+     * Trades of one symbol, plus the scan position needed to continue them later (BacktestStore)
+     */
+    static class SymbolRun {
+        final List<Trade> trades = new ArrayList<>();
+        int skippedSignals;
+        long busyUntil = Long.MIN_VALUE;           // Son işlemin çıkış zamanı
+        long closedThrough = Long.MIN_VALUE;       // Sinyalleri değerlendirilmiş son bar (zaman)
+        double closedThroughClose;                 // O barın kapanışı (veri değişti mi kontrolü)
+        int resumedTrades;                         // Kayıttan devralınan işlem sayısı (bu çalıştırmada)
+
+        SymbolRun copy() {
+            SymbolRun copy = new SymbolRun();
+            copy.trades.addAll(trades);
+            copy.skippedSignals = skippedSignals;
+            copy.busyUntil = busyUntil;
+            copy.closedThrough = closedThrough;
+            copy.closedThroughClose = closedThroughClose;
+            return copy;
+        }
+    }
+
+    private static SymbolRun runSymbol(String symbol, List<StockData> data, Settings settings) {
+        IndicatorCache cache = IndicatorCache.build(data);
+        return simulateSignals(symbol, cache, SignalThresholds.DEFAULT, settings,
+            new int[cache.size()], new byte[cache.size()]);
+    }
+
+    /**
+     * Continue the stored run of a symbol with the signals that matured since (all of them without a usable
+     * stored run). Signals up to bar size-2-holdingDays are final: their holding period ends before the last bar
+     */
+    private static SymbolRun resumeSymbol(String symbol, List<StockData> data, Settings settings, SymbolRun stored) {
+        int lastFinal = data.size() - 2 - settings.holdingDays;
+        SymbolRun run = new SymbolRun();
+        int after = -1;
+        if (stored != null && stored.closedThrough != Long.MIN_VALUE) {
+            int storedBar = barAt(data, stored.closedThrough);
+            if (storedBar >= 0 && Double.compare(data.get(storedBar).getClose(), stored.closedThroughClose) == 0) {
+                run = stored.copy();
+                run.resumedTrades = stored.trades.size();
+                if (storedBar >= lastFinal) {
+                    return run;
+                }
+                after = storedBar;
+            } else {
+                // Bar gone or price adjusted (split, dividend): the stored outcomes no longer describe this series
+                System.err.println("  ⚠️  " + symbol + ": kayıtlı backtest verilerle uyuşmuyor, yeniden hesaplanıyor");
+            }
+        }
+        if (lastFinal < 0) {
+            return run;
+        }
+
+        IndicatorCache cache = IndicatorCache.build(data);
+        resumeSignals(run, symbol, cache, SignalThresholds.DEFAULT, settings,
+            new int[cache.size()], new byte[cache.size()], after, cache.size - 1);
+        run.closedThrough = cache.time[lastFinal];
+        run.closedThroughClose = cache.close[lastFinal];
+        return run;
+    }
+
+    // Index of the bar with exactly this timestamp (bars oldest first), -1 if there is none
+    private static int barAt(List<StockData> data, long time) {
+        int lo = 0;
+        int hi = data.size() - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            long t = data.get(mid).getTimestamp();
+            if (t < time) {
+                lo = mid + 1;
+            } else if (t > time) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Scan a precomputed series with the given thresholds (same scan as findHistoricalSignals) and trade it
+     * index/kind are scratch buffers of at least cache.size() entries
+     */
+    static SymbolRun simulateSignals(String symbol, IndicatorCache cache, SignalThresholds thresholds,
+                                     Settings settings, int[] index, byte[] kind) {
+        return resumeSignals(new SymbolRun(), symbol, cache, thresholds, settings, index, kind, -1, cache.size);
+    }
+
+    /**
+     * Add the trades of the signals after bar `after` to run, skipping signals while run's last trade is open
+     * Only the first closedBars bars are used: signals whose holding period runs past them are left for later
+     */
+    static SymbolRun resumeSignals(SymbolRun run, String symbol, IndicatorCache cache, SignalThresholds thresholds,
+                                   Settings settings, int[] index, byte[] kind, int after, int closedBars) {
+        int found = cache.scan(thresholds, index, kind, null, null);
+        for (int k = 0; k < found; k++) {
+            int entry = index[k];
+            if (entry <= after) continue;
+            // Not matured yet: the holding period runs past the last bar (checked first, so a resumed run
+            // never counts the same skipped signal twice)
+            if (entry + settings.holdingDays >= closedBars) {
+                break;
+            }
+            if (cache.time[entry] <= run.busyUntil) {
+                run.skippedSignals++;
+                continue;
+            }
+            Trade trade = simulate(symbol, kind[k] > 0, entry, cache, settings);
+            if (trade == null) continue;
+            run.trades.add(trade);
+            run.busyUntil = trade.exitTime;
+        }
+        return run;
+    }
+
+    /**
+     * Walk the bars after entry until stop, target or the end of the holding period
+     * Gaps through a level fill at the open; if stop and target are both inside one bar the stop is assumed (pessimistic)
+     */
+    static Trade simulate(String symbol, boolean isLong, int entry, IndicatorCache bars, Settings settings) {
+        double[] open = bars.open;
+        double[] high = bars.high;
+        double[] low = bars.low;
+        double[] close = bars.close;
+        double entryPrice = close[entry];
+        if (!(entryPrice > 0)) {
+            return null;
+        }
+        double stopPrice = settings.stopLoss > 0
+            ? entryPrice * (isLong ? 1 - settings.stopLoss : 1 + settings.stopLoss) : Double.NaN;
+        double targetPrice = settings.takeProfit > 0
+            ? entryPrice * (isLong ? 1 + settings.takeProfit : 1 - settings.takeProfit) : Double.NaN;
+
+        int last = entry + settings.holdingDays;
+        int exit = last;
+        double exitPrice = close[last];
+        int reason = EXIT_TIME;
+        for (int i = entry + 1; i <= last; i++) {
+            double barOpen = open[i] > 0 ? open[i] : close[i - 1];
+            if (!Double.isNaN(stopPrice) && (isLong ? low[i] <= stopPrice : high[i] >= stopPrice)) {
+                exit = i;
+                exitPrice = isLong ? Math.min(barOpen, stopPrice) : Math.max(barOpen, stopPrice);
+                reason = EXIT_STOP;
+                break;
+            }
+            if (!Double.isNaN(targetPrice) && (isLong ? high[i] >= targetPrice : low[i] <= targetPrice)) {
+                exit = i;
+                exitPrice = isLong ? Math.max(barOpen, targetPrice) : Math.min(barOpen, targetPrice);
+                reason = EXIT_TARGET;
+                break;
+            }
+        }
+
+        double gross = isLong ? exitPrice / entryPrice - 1 : 1 - exitPrice / entryPrice;
+        return new Trade(symbol, isLong, bars.time[entry], bars.time[exit], entryPrice, exitPrice,
+            gross - settings.costPerTrade, exit - entry, reason);
+    }
+
+    /**
+     * Console summary: pooled stats, long/short split and the best/worst symbols by expectancy
+     */
+    public static void printSummary(Result result) {
+        System.out.println("📈 Backtest (" + result.settings + "): " + result.bySymbol.size() + " hisse, "
+            + result.overall.trades + " işlem, " + result.elapsedMillis + " ms");
+        if (result.storedTrades > 0) {
+            System.out.println("  Kayıttan okunan işlem: " + result.storedTrades + ", yeni değerlendirilen: "
+                + (result.overall.trades - result.storedTrades));
+        }
+        printStats("  Tümü ", result.overall);
+        printStats("  AL   ", result.longs);
+        printStats("  SAT  ", result.shorts);
+        if (result.skippedSignals > 0) {
+            System.out.println("  Açık pozisyon nedeniyle atlanan sinyal: " + result.skippedSignals);
+        }
+
+        List<Map.Entry<String, Stats>> ranked = new ArrayList<>();
+        for (Map.Entry<String, Stats> entry : result.bySymbol.entrySet()) {
+            if (entry.getValue().trades >= 3) ranked.add(entry);
+        }
+        ranked.sort((a, b) -> Double.compare(b.getValue().expectancy, a.getValue().expectancy));
+        int shown = Math.min(5, ranked.size());
+        for (int i = 0; i < shown; i++) {
+            printStats("  ⬆️  " + ranked.get(i).getKey() + " ", ranked.get(i).getValue());
+        }
+        for (int i = Math.max(shown, ranked.size() - shown); i < ranked.size(); i++) {
+            printStats("  ⬇️  " + ranked.get(i).getKey() + " ", ranked.get(i).getValue());
+        }
+    }
+
+    private static void printStats(String label, Stats stats) {
+        System.out.println(String.format(Locale.US,
+            "%s işlem %4d | isabet %5.1f%% | beklenti %+6.2f%% | ort. kazanç %+6.2f%% | ort. kayıp %+6.2f%% | max DD %5.1f%%",
+            label, stats.trades, stats.hitRate * 100, stats.expectancy * 100,
+            stats.averageWin * 100, stats.averageLoss * 100, stats.maxDrawdown * 100));
+    }
+
+    /**
+     * Per-symbol statistics as CSV
+     */
+    public static void writeCsv(Result result, Path file) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            out.println("symbol,trades,wins,hit_rate,expectancy,avg_win,avg_loss,total_return,max_drawdown");
+            for (Map.Entry<String, Stats> entry : result.bySymbol.entrySet()) {
+                writeCsvRow(out, entry.getKey(), entry.getValue());
+            }
+            writeCsvRow(out, "ALL", result.overall);
+        }
+    }
+
+    private static void writeCsvRow(PrintWriter out, String name, Stats stats) {
+        out.println(String.join(",", Arrays.asList(name, Integer.toString(stats.trades), Integer.toString(stats.wins),
+            String.format(Locale.US, "%.4f", stats.hitRate), String.format(Locale.US, "%.5f", stats.expectancy),
+            String.format(Locale.US, "%.5f", stats.averageWin), String.format(Locale.US, "%.5f", stats.averageLoss),
+            String.format(Locale.US, "%.5f", stats.totalReturn), String.format(Locale.US, "%.5f", stats.maxDrawdown))));
+    }
+}
@@ -0,0 +1,179 @@
+package com.bist.analyzer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Backtest trades of earlier runs, so a run only simulates the signals that matured since the last one
+ * Per symbol: its trades plus the scan position (last evaluated bar, its close, exit time of the last trade).
+ * History before the last closed bar does not change, so stored outcomes are final; a symbol whose stored
+ * bar is gone or whose price was adjusted afterwards is recomputed from scratch (BacktestEngine.resumeSymbol).
+ * Symbols missing from a run (failed download) keep their entry.
+ *
+ * Binary file: header (magic, format version, backtest settings, signal thresholds), then per symbol
+ * name, scan position and its trades as fixed 45-byte records. A file recorded with other settings is ignored.
+ */
+public final class BacktestStore {
+
+    private static final int MAGIC = 0x42545354;   // "BTST"
+
+    // Bump when the scan or the trade simulation changes for the same settings (forces a full recompute once)
+    private static final int FORMAT_VERSION = 3;
+
+    private final Path file;
+    private final BacktestEngine.Settings settings;
+    private final Map<String, BacktestEngine.SymbolRun> symbols = new TreeMap<>();
+
+    private BacktestStore(Path file, BacktestEngine.Settings settings) {
+        this.file = file;
+        this.settings = settings;
+    }
+
+    /**
+     * Load the store of the previous run; a missing, unreadable or differently configured file starts empty
+     */
+    public static BacktestStore load(Path file, BacktestEngine.Settings settings) {
+        BacktestStore store = new BacktestStore(file, settings);
+        if (!Files.exists(file)) {
+            return store;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION || !readHeader(in, settings)) {
+                System.out.println("ℹ️  Backtest kaydı farklı ayarlarla oluşturulmuş, baştan hesaplanacak");
+                return store;
+            }
+            int count = in.readInt();
+            for (int s = 0; s < count; s++) {
+                String symbol = in.readUTF();
+                store.symbols.put(symbol, readRun(in, symbol));
+            }
+        } catch (IOException e) {
+            System.err.println("⚠️  Backtest kaydı okunamadı, baştan hesaplanacak: " + e.getMessage());
+            store.symbols.clear();
+        }
+        return store;
+    }
+
+    boolean isFor(BacktestEngine.Settings settings) {
+        return sameSettings(this.settings, settings);
+    }
+
+    synchronized BacktestEngine.SymbolRun get(String symbol) {
+        return symbols.get(symbol);
+    }
+
+    synchronized void put(String symbol, BacktestEngine.SymbolRun run) {
+        symbols.put(symbol, run);
+    }
+
+    public synchronized int getSymbolCount() {
+        return symbols.size();
+    }
+
+    /**
+     * Write the store (temp file + rename, a failed write keeps the previous store)
+     */
+    public synchronized void save() {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            writeHeader(out, settings);
+            out.writeInt(symbols.size());
+            for (Map.Entry<String, BacktestEngine.SymbolRun> entry : symbols.entrySet()) {
+                out.writeUTF(entry.getKey());
+                writeRun(out, entry.getValue());
+            }
+        } catch (IOException e) {
+            System.err.println("⚠️  Backtest kaydı yazılamadı: " + e.getMessage());
+            return;
+        }
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            System.err.println("⚠️  Backtest kaydı yazılamadı: " + e.getMessage());
+        }
+    }
+
+    // Everything the stored outcomes depend on: trade rules and the thresholds of the scan
+    private static void writeHeader(DataOutputStream out, BacktestEngine.Settings settings) throws IOException {
+        SignalThresholds t = SignalThresholds.DEFAULT;
+        out.writeInt(settings.holdingDays);
+        out.writeDouble(settings.stopLoss);
+        out.writeDouble(settings.takeProfit);
+        out.writeDouble(settings.costPerTrade);
+        out.writeInt(t.strongScore);
+        out.writeInt(t.minScore);
+        out.writeInt(t.strongConfluence);
+        out.writeInt(t.minConfluence);
+        out.writeDouble(t.minAdx);
+        out.writeDouble(t.adxThreshold);
+        out.writeDouble(t.volumeSpike);
+        out.writeDouble(t.strongVolumeSpike);
+    }
+
+    private static boolean readHeader(DataInputStream in, BacktestEngine.Settings settings) throws IOException {
+        SignalThresholds t = SignalThresholds.DEFAULT;
+        BacktestEngine.Settings stored = new BacktestEngine.Settings(
+            Math.max(1, in.readInt()), in.readDouble(), in.readDouble(), in.readDouble());
+        SignalThresholds storedThresholds = new SignalThresholds(in.readInt(), in.readInt(), in.readInt(),
+            in.readInt(), in.readDouble(), in.readDouble(), in.readDouble(), in.readDouble());
+        return sameSettings(stored, settings)
+            && storedThresholds.strongScore == t.strongScore
+            && storedThresholds.minScore == t.minScore
+            && storedThresholds.strongConfluence == t.strongConfluence
+            && storedThresholds.minConfluence == t.minConfluence
+            && Double.compare(storedThresholds.minAdx, t.minAdx) == 0
+            && Double.compare(storedThresholds.adxThreshold, t.adxThreshold) == 0
+            && Double.compare(storedThresholds.volumeSpike, t.volumeSpike) == 0
+            && Double.compare(storedThresholds.strongVolumeSpike, t.strongVolumeSpike) == 0;
+    }
+
+    private static boolean sameSettings(BacktestEngine.Settings a, BacktestEngine.Settings b) {
+        return a.holdingDays == b.holdingDays
+            && Double.compare(a.stopLoss, b.stopLoss) == 0
+            && Double.compare(a.takeProfit, b.takeProfit) == 0
+            && Double.compare(a.costPerTrade, b.costPerTrade) == 0;
+    }
+
+    private static void writeRun(DataOutputStream out, BacktestEngine.SymbolRun run) throws IOException {
+        out.writeLong(run.closedThrough);
+        out.writeDouble(run.closedThroughClose);
+        out.writeLong(run.busyUntil);
+        out.writeInt(run.skippedSignals);
+        out.writeInt(run.trades.size());
+        for (BacktestEngine.Trade trade : run.trades) {
+            // Bit 0: long, bits 1-2: exit reason
+            out.writeByte((trade.isLong ? 1 : 0) | trade.exitReason << 1);
+            out.writeLong(trade.entryTime);
+            out.writeLong(trade.exitTime);
+            out.writeDouble(trade.entryPrice);
+            out.writeDouble(trade.exitPrice);
+            out.writeDouble(trade.returnPct);
+            out.writeInt(trade.barsHeld);
+        }
+    }
+
+    private static BacktestEngine.SymbolRun readRun(DataInputStream in, String symbol) throws IOException {
+        BacktestEngine.SymbolRun run = new BacktestEngine.SymbolRun();
+        run.closedThrough = in.readLong();
+        run.closedThroughClose = in.readDouble();
+        run.busyUntil = in.readLong();
+        run.skippedSignals = in.readInt();
+        int trades = in.readInt();
+        for (int i = 0; i < trades; i++) {
+            int flags = in.readByte();
+            run.trades.add(new BacktestEngine.Trade(symbol, (flags & 1) != 0, in.readLong(), in.readLong(),
+                in.readDouble(), in.readDouble(), in.readDouble(), in.readInt(), flags >> 1 & 3));
+        }
+        return run;
+    }
+}
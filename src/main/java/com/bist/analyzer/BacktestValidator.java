@@ -12,8 +12,11 @@ import java.util.List;
  */
 public class BacktestValidator {
 
-    private static final double SUCCESS_THRESHOLD = 0.05; // %5 hareket
-    private static final int[] TEST_PERIODS = {1, 3, 5, 10}; // 1, 3, 5, 10 gün sonra kontrol
+    static final double SUCCESS_THRESHOLD = 0.05; // %5 hareket
+    static final int[] TEST_PERIODS = {1, 3, 5, 10}; // 1, 3, 5, 10 gün sonra kontrol
+    
+    // -Dbist.validatorHistory=full: benzer durumları son 100 gün yerine tüm geçmişte ara
+    private static final boolean FULL_HISTORY = "full".equalsIgnoreCase(System.getProperty("bist.validatorHistory", "100"));
 
     /**
      * Sinyal başarı oranını test et
@@ -41,6 +44,23 @@ public class BacktestValidator {
             double[] sma50,
             double[] rsi,
             TechnicalIndicators.ADXResult adx) {
+        return validateSignalWithBacktest(signal, data, currentIdx, sma20, sma50, rsi, adx, null, null);
+    }
+
+    /**
+     * Aynı seride çok sayıda bar test edilecekse indeksler bir kez (tüm seri için) kurulup verilebilir,
+     * null verilirse sadece gereken aralık için kurulur
+     */
+    static BacktestResult validateSignalWithBacktest(
+            String signal,
+            List<StockData> data,
+            int currentIdx,
+            double[] sma20,
+            double[] sma50,
+            double[] rsi,
+            TechnicalIndicators.ADXResult adx,
+            MarketConditionIndex conditions,
+            ForwardWindowIndex window) {
         
         BacktestResult result = new BacktestResult();
         
@@ -56,47 +76,42 @@ public class BacktestValidator {
         double currentRSI = rsi[currentIdx];
         double currentADX = adx.adx[currentIdx];
         
-        // Son 100 gün içinde benzer durumları bul
-        int lookback = Math.min(100, currentIdx - 20);
+        // Son 100 gün (veya tüm geçmiş) içinde benzer durumları bul - ilk 20 gün indikatörler için yetersiz
+        int lookback = FULL_HISTORY ? currentIdx - 20 : Math.min(100, currentIdx - 20);
+        int from = currentIdx - lookback;
+        int to = currentIdx - 10;
         
-        for (int i = currentIdx - lookback; i < currentIdx - 10; i++) {
-            if (i < 20) continue; // İndikatörler için yeterli veri yok
+        // Benzer durumlar grid indeksinden bulunur, ileri pencerelerin max/min fiyatları bir kez hesaplanır
+        if (conditions == null) conditions = MarketConditionIndex.build(data, from, to, sma20, sma50, rsi, adx);
+        if (window == null) window = ForwardWindowIndex.build(data, from, to, TEST_PERIODS);
+        
+        for (int i : conditions.findSimilar(data, currentIdx, from, to, sma20, sma50, rsi, adx)) {
+            result.totalSignals++;
             
-            // Benzer piyasa durumu mu?
-            boolean similarMarket = isSimilarMarketCondition(
-                data, i, currentIdx,
-                sma20, sma50, rsi, adx,
-                signal
-            );
+            // Bu noktadan sonraki 1-10 gün içinde hedef gerçekleşti mi?
+            boolean successful = checkIfTargetReached(data, window, i, signal);
             
-            if (similarMarket) {
-                result.totalSignals++;
-                
-                // Bu noktadan sonraki 1-10 gün içinde hedef gerçekleşti mi?
-                boolean successful = checkIfTargetReached(data, i, signal);
+            if (successful) {
+                result.successfulSignals++;
                 
-                if (successful) {
-                    result.successfulSignals++;
-                    
-                    // Örnek ekle
-                    if (result.examples.size() < 3) {
-                        double maxGain = calculateMaxMove(data, i, signal);
-                        result.examples.add(String.format(
-                            "✅ %s @ %.2f₺ → %.1f%% hareket (Gün %d)",
-                            signal, data.get(i).getClose(),
-                            maxGain * 100, i
-                        ));
-                    }
-                } else {
-                    // Başarısız örnek ekle
-                    if (result.examples.size() < 3) {
-                        double maxGain = calculateMaxMove(data, i, signal);
-                        result.examples.add(String.format(
-                            "❌ %s @ %.2f₺ → sadece %.1f%% (Gün %d)",
-                            signal, data.get(i).getClose(),
-                            maxGain * 100, i
-                        ));
-                    }
+                // Örnek ekle
+                if (result.examples.size() < 3) {
+                    double maxGain = calculateMaxMove(data, window, i, signal);
+                    result.examples.add(String.format(
+                        "✅ %s @ %.2f₺ → %.1f%% hareket (Gün %d)",
+                        signal, data.get(i).getClose(),
+                        maxGain * 100, i
+                    ));
+                }
+            } else {
+                // Başarısız örnek ekle
+                if (result.examples.size() < 3) {
+                    double maxGain = calculateMaxMove(data, window, i, signal);
+                    result.examples.add(String.format(
+                        "❌ %s @ %.2f₺ → sadece %.1f%% (Gün %d)",
+                        signal, data.get(i).getClose(),
+                        maxGain * 100, i
+                    ));
                 }
             }
         }
@@ -105,7 +120,8 @@ public class BacktestValidator {
         if (result.totalSignals > 0) {
             result.successRate = (double) result.successfulSignals / result.totalSignals;
             result.reason = String.format(
-                "Son 100 günde %d benzer %s sinyali, %d başarılı (%.0f%%)",
+                "Son %d günde %d benzer %s sinyali, %d başarılı (%.0f%%)",
+                FULL_HISTORY ? lookback : 100,
                 result.totalSignals, signal,
                 result.successfulSignals, result.successRate * 100
             );
@@ -117,48 +133,12 @@ public class BacktestValidator {
         return result;
     }
 
-    /**
-     * Benzer piyasa durumu mu? (RSI, ADX, MA alignment benzer mi)
-     * GEVŞEK KRİTERLER - Daha fazla benzer sinyal bulabilmek için
-     */
-    private static boolean isSimilarMarketCondition(
-            List<StockData> data,
-            int pastIdx,
-            int currentIdx,
-            double[] sma20,
-            double[] sma50,
-            double[] rsi,
-            TechnicalIndicators.ADXResult adx,
-            String signal) {
-        
-        // RSI benzerliği (±15 puan içinde) - GEVŞEK
-        double rsiDiff = Math.abs(rsi[pastIdx] - rsi[currentIdx]);
-        if (rsiDiff > 15) return false;
-        
-        // ADX benzerliği (±15 puan içinde) - GEVŞEK
-        double adxDiff = Math.abs(adx.adx[pastIdx] - adx.adx[currentIdx]);
-        if (adxDiff > 15) return false;
-        
-        // Trend yönü aynı mı?
-        boolean pastUptrend = sma20[pastIdx] > sma50[pastIdx];
-        boolean currentUptrend = sma20[currentIdx] > sma50[currentIdx];
-        
-        if (pastUptrend != currentUptrend) return false;
-        
-        // Fiyat pozisyonu benzer mi? (SMA20'ye göre) - GEVŞEK %5
-        double pastPricePos = (data.get(pastIdx).getClose() - sma20[pastIdx]) / sma20[pastIdx];
-        double currentPricePos = (data.get(currentIdx).getClose() - sma20[currentIdx]) / sma20[currentIdx];
-        
-        if (Math.abs(pastPricePos - currentPricePos) > 0.05) return false; // %5 fark
-        
-        return true;
-    }
-
     /**
      * Hedef fiyat hareketine ulaşıldı mı? (1-10 gün içinde %5+)
      */
     private static boolean checkIfTargetReached(
             List<StockData> data,
+            ForwardWindowIndex window,
             int signalIdx,
             String signal) {
         
@@ -171,14 +151,9 @@ public class BacktestValidator {
             // Veri yoksa atla
             if (checkIdx >= data.size()) continue;
             
-            // Bu dönem içindeki max/min fiyatı bul
-            double maxPrice = entryPrice;
-            double minPrice = entryPrice;
-            
-            for (int i = signalIdx + 1; i <= checkIdx && i < data.size(); i++) {
-                maxPrice = Math.max(maxPrice, data.get(i).getHigh());
-                minPrice = Math.min(minPrice, data.get(i).getLow());
-            }
+            // Bu dönem içindeki max/min fiyat (önceden hesaplanmış pencereden)
+            double maxPrice = Math.max(entryPrice, window.maxHigh(signalIdx, period));
+            double minPrice = Math.min(entryPrice, window.minLow(signalIdx, period));
             
             // AL sinyali: %5+ yükseliş oldu mu?
             if ("BUY".equals(signal)) {
@@ -205,24 +180,20 @@ public class BacktestValidator {
      */
     private static double calculateMaxMove(
             List<StockData> data,
+            ForwardWindowIndex window,
             int signalIdx,
             String signal) {
         
         double entryPrice = data.get(signalIdx).getClose();
-        double maxMove = 0;
         
-        // 10 gün sonrasına kadar kontrol et
-        for (int i = signalIdx + 1; i < Math.min(signalIdx + 11, data.size()); i++) {
-            if ("BUY".equals(signal)) {
-                double gain = (data.get(i).getHigh() - entryPrice) / entryPrice;
-                maxMove = Math.max(maxMove, gain);
-            } else {
-                double loss = (entryPrice - data.get(i).getLow()) / entryPrice;
-                maxMove = Math.max(maxMove, loss);
-            }
-        }
+        // En uzun test dönemi (10 gün) sonrasına kadar
+        int period = TEST_PERIODS[TEST_PERIODS.length - 1];
+        if (signalIdx + 1 >= data.size()) return 0;
         
-        return maxMove;
+        if ("BUY".equals(signal)) {
+            return Math.max(0, (window.maxHigh(signalIdx, period) - entryPrice) / entryPrice);
+        }
+        return Math.max(0, (entryPrice - window.minLow(signalIdx, period)) / entryPrice);
     }
 
     /**
@@ -7,11 +7,59 @@ import java.util.*;
 
 public class BistAnalyzerApp {
     
-    private static final String STOCK_LIST_FILE = "stock_list.txt";
+    private static final String STOCK_LIST_FILE = StockRegistry.STOCK_LIST_FILE;
     private static final String OUTPUT_DIR = "output";
     private static final String CHARTS_DIR = "output/charts";
     
+    // -Dbist.chartMode=shared: one shared viewer page + SYMBOL.json per stock instead of two HTML pages per stock
+    private static final boolean SHARED_CHART_VIEWER = "shared".equalsIgnoreCase(System.getProperty("bist.chartMode", "html"));
+    
+    // -Dbist.pngCharts=true: also render headless PNG thumbnails (SYMBOL_thumb.png) for every analyzed stock
+    private static final boolean PNG_CHARTS = Boolean.getBoolean("bist.pngCharts");
+    
+    // -Dbist.uploadMode=bundle: upload the whole output as one compressed archive (+ .gz siblings) instead of file by file
+    private static final boolean BUNDLE_UPLOAD = "bundle".equalsIgnoreCase(System.getProperty("bist.uploadMode", "files"));
+    
+    // -Dbist.reportMode=lazy: small report shell + signals.json index, rows rendered by the browser while scrolling
+    private static final boolean LAZY_REPORT = "lazy".equalsIgnoreCase(System.getProperty("bist.reportMode", "full"));
+    
+    // -Dbist.backtest=true: walk-forward backtest of the historical signals on the 5y daily data of every stock
+    private static final boolean BACKTEST = Boolean.getBoolean("bist.backtest");
+    private static final String BACKTEST_CSV_FILE = OUTPUT_DIR + "/backtest.csv";
+    // Trades of earlier runs, only newly matured signals are simulated (-Dbist.backtest.store=false: from scratch)
+    private static final boolean BACKTEST_STORE = !"false".equalsIgnoreCase(System.getProperty("bist.backtest.store", "true"));
+    private static final String BACKTEST_STORE_FILE = OUTPUT_DIR + "/.backtest-store";
+    
+    // -Dbist.sweep=true: grid search of the signal thresholds on the same daily data (ranked by expectancy)
+    private static final boolean SWEEP = Boolean.getBoolean("bist.sweep");
+    private static final String SWEEP_CSV_FILE = OUTPUT_DIR + "/sweep.csv";
+
+    // -Dbist.optimize=true: walk-forward optimization of the sweep grid in worker processes (bist.optimize.dir can be
+    // a shared directory, more workers: java -cp <jar> com.bist.analyzer.OptimizerWorker <dir>)
+    private static final boolean OPTIMIZE = Boolean.getBoolean("bist.optimize");
+    private static final String OPTIMIZE_DIR = System.getProperty("bist.optimize.dir", OUTPUT_DIR + "/optimize");
+    private static final String OPTIMIZE_CSV_FILE = OUTPUT_DIR + "/optimize.csv";
+    
+    // -Dbist.analogs=THYAO,ASELS: nearest past situations of these stocks across the whole universe (-Dbist.analogs.k=10)
+    private static final String ANALOG_SYMBOLS = System.getProperty("bist.analogs", "").trim();
+    private static final String ANALOGS_CSV_FILE = OUTPUT_DIR + "/analogs.csv";
+    
+    // -Dbist.portfolio=true: event-driven portfolio simulation of all signals on one cash account (equity curve CSV)
+    private static final boolean PORTFOLIO = Boolean.getBoolean("bist.portfolio");
+    private static final String EQUITY_CSV_FILE = OUTPUT_DIR + "/equity.csv";
+    
+    // -Dbist.montecarlo=true: bootstrap / entry-timing confidence intervals of hit rate and expectancy per signal type
+    private static final boolean MONTE_CARLO = Boolean.getBoolean("bist.montecarlo");
+    private static final String MONTE_CARLO_CSV_FILE = OUTPUT_DIR + "/montecarlo.csv";
+    
     private static Map<String, String> failedStocks = new LinkedHashMap<>();
+    
+    // Daily history of every analyzed stock (only kept for the backtest and the other research modes below)
+    private static Map<String, List<StockData>> dailyHistory = new HashMap<>();
+    
+    // Fingerprints of the previous run's charts/report - unchanged artifacts are not rendered again
+    private static final String ARTIFACT_MANIFEST_FILE = OUTPUT_DIR + "/.artifact-manifest";
+    private static ArtifactManifest artifactManifest;
 
     // BIST 100 Hisseleri
     private static final String[] BIST100_STOCKS = {
@@ -36,6 +84,10 @@ public class BistAnalyzerApp {
             // Create output directories
             Files.createDirectories(Paths.get(OUTPUT_DIR));
             Files.createDirectories(Paths.get(CHARTS_DIR));
+            artifactManifest = ArtifactManifest.load(Paths.get(ARTIFACT_MANIFEST_FILE));
+            if (SHARED_CHART_VIEWER) {
+                ChartGenerator.writeSharedViewer(CHARTS_DIR);
+            }
 
             // Read stock list
             List<String> stocks = readStockList();
@@ -76,12 +128,104 @@ public class BistAnalyzerApp {
             System.out.println("\n" + repeat("═", 50));
             System.out.println("📊 TOPLAM SONUÇ: " + totalAnalyzed + " hisse analiz edildi");
 
+            // Backtest of the historical signals (parallel across stocks)
+            if (BACKTEST && !dailyHistory.isEmpty()) {
+                System.out.println("\n" + repeat("═", 50));
+                BacktestEngine.Settings backtestSettings = BacktestEngine.Settings.fromSystemProperties();
+                BacktestStore backtestStore = BACKTEST_STORE
+                    ? BacktestStore.load(Paths.get(BACKTEST_STORE_FILE), backtestSettings) : null;
+                BacktestEngine.Result backtest = BacktestEngine.run(dailyHistory, backtestSettings, backtestStore);
+                if (backtestStore != null) backtestStore.save();
+                BacktestEngine.printSummary(backtest);
+                BacktestEngine.writeCsv(backtest, Paths.get(BACKTEST_CSV_FILE));
+                System.out.println("Backtest sonuçları kaydedildi: " + BACKTEST_CSV_FILE);
+            }
+
+            // Monte Carlo intervals of the signal statistics (all cores)
+            if (MONTE_CARLO && !dailyHistory.isEmpty()) {
+                System.out.println("\n" + repeat("═", 50));
+                MonteCarloAnalyzer.Result monteCarlo = MonteCarloAnalyzer.run(dailyHistory,
+                    BacktestEngine.Settings.fromSystemProperties());
+                MonteCarloAnalyzer.printSummary(monteCarlo);
+                MonteCarloAnalyzer.writeCsv(monteCarlo, Paths.get(MONTE_CARLO_CSV_FILE));
+                System.out.println("Monte Carlo sonuçları kaydedildi: " + MONTE_CARLO_CSV_FILE);
+            }
+
+            // Portfolio simulation (cash, slots and commission across all stocks)
+            if (PORTFOLIO && !dailyHistory.isEmpty()) {
+                System.out.println("\n" + repeat("═", 50));
+                PortfolioSimulator.Result portfolio = PortfolioSimulator.run(dailyHistory,
+                    PortfolioSimulator.Settings.fromSystemProperties());
+                PortfolioSimulator.printSummary(portfolio);
+                PortfolioSimulator.writeEquityCsv(portfolio, Paths.get(EQUITY_CSV_FILE));
+                System.out.println("Sermaye eğrisi kaydedildi: " + EQUITY_CSV_FILE);
+            }
+
+            // Threshold sweep (indicators computed once, combinations in parallel)
+            if (SWEEP && !dailyHistory.isEmpty()) {
+                System.out.println("\n" + repeat("═", 50));
+                List<ParameterSweep.Entry> sweep = ParameterSweep.run(dailyHistory, ParameterSweep.defaultGrid(),
+                    BacktestEngine.Settings.fromSystemProperties());
+                ParameterSweep.printTop(sweep, 10);
+                ParameterSweep.writeCsv(sweep, Paths.get(SWEEP_CSV_FILE));
+                System.out.println("Tarama sonuçları kaydedildi: " + SWEEP_CSV_FILE);
+            }
+
+            // Walk-forward optimization (symbol x grid shards in worker processes)
+            if (OPTIMIZE && !dailyHistory.isEmpty()) {
+                System.out.println("\n" + repeat("═", 50));
+                WalkForwardOptimizer.Result optimization = WalkForwardOptimizer.run(dailyHistory,
+                    ParameterSweep.defaultGrid(), BacktestEngine.Settings.fromSystemProperties(),
+                    WalkForwardOptimizer.Options.fromSystemProperties(), Paths.get(OPTIMIZE_DIR));
+                WalkForwardOptimizer.printSummary(optimization, 10);
+                WalkForwardOptimizer.writeCsv(optimization, Paths.get(OPTIMIZE_CSV_FILE));
+                System.out.println("Optimizasyon sonuçları kaydedildi: " + OPTIMIZE_CSV_FILE);
+            }
+
+            // Analog search over every symbol-day of the universe
+            if (!ANALOG_SYMBOLS.isEmpty() && !dailyHistory.isEmpty()) {
+                System.out.println("\n" + repeat("═", 50));
+                AnalogSearch.Index analogIndex = AnalogSearch.build(dailyHistory);
+                System.out.println("🗂️  Benzerlik indeksi: " + analogIndex.size() + " hisse-gün, " + analogIndex.elapsedMillis + " ms");
+                List<AnalogSearch.Result> analogs = new ArrayList<>();
+                for (String symbol : ANALOG_SYMBOLS.split(",")) {
+                    AnalogSearch.Result analog = AnalogSearch.query(analogIndex, symbol.trim().toUpperCase(Locale.ROOT),
+                        Math.max(1, Integer.getInteger("bist.analogs.k", 10)));
+                    if (analog == null) {
+                        System.out.println("🔎 " + symbol.trim() + ": günlük veri yok");
+                        continue;
+                    }
+                    AnalogSearch.printResult(analog);
+                    analogs.add(analog);
+                }
+                AnalogSearch.writeCsv(analogs, Paths.get(ANALOGS_CSV_FILE));
+                System.out.println("Benzer durumlar kaydedildi: " + ANALOGS_CSV_FILE);
+            }
+
+            // PNG thumbnails (parallel, headless)
+            if (PNG_CHARTS && !allData.isEmpty()) {
+                PngChartRenderer.renderAll(allData, CHARTS_DIR, artifactManifest);
+            }
+
             // Generate HTML report
             if (!userSignals.isEmpty() || !bist100Signals.isEmpty()) {
                 System.out.println("\n" + repeat("═", 50));
                 System.out.println("HTML rapor oluşturuluyor...");
-                HtmlReportGenerator.generateReport(userSignals, bist100Signals, allData, failedStocks, OUTPUT_DIR + "/report.html");
-                System.out.println("Rapor kaydedildi: " + OUTPUT_DIR + "/report.html");
+                String reportFingerprint = reportFingerprint(userSignals, bist100Signals, allData);
+                Path[] reportFiles = HtmlStreamWriter.outputFiles(LAZY_REPORT
+                    ? new Path[] { Paths.get(OUTPUT_DIR, "report.html"), Paths.get(OUTPUT_DIR, HtmlReportGenerator.SIGNAL_INDEX_FILE) }
+                    : new Path[] { Paths.get(OUTPUT_DIR, "report.html") });
+                if (artifactManifest.isUnchanged("report", reportFingerprint, reportFiles)) {
+                    System.out.println("Rapor girdileri değişmedi, mevcut rapor korunuyor: " + OUTPUT_DIR + "/report.html");
+                } else {
+                    if (LAZY_REPORT) {
+                        HtmlReportGenerator.generateLazyReport(userSignals, bist100Signals, allData, failedStocks, OUTPUT_DIR + "/report.html", SHARED_CHART_VIEWER);
+                    } else {
+                        HtmlReportGenerator.generateReport(userSignals, bist100Signals, allData, failedStocks, OUTPUT_DIR + "/report.html", SHARED_CHART_VIEWER);
+                    }
+                    artifactManifest.update("report", reportFingerprint);
+                    System.out.println("Rapor kaydedildi: " + OUTPUT_DIR + "/report.html");
+                }
                 if (!failedStocks.isEmpty()) {
                     System.out.println("\n⚠️  Veri alınamayan hisseler: " + failedStocks.size() + " adet (raporda detaylar var)");
                 }
@@ -89,11 +233,16 @@ public class BistAnalyzerApp {
                 System.out.println("\nSinyal oluşturulamadı. Geri dönüş raporu oluşturuluyor...");
                 // Create fallback HTML if no data
                 String fallbackHtml = generateFallbackReport();
-                try (FileWriter writer = new FileWriter(OUTPUT_DIR + "/report.html")) {
-                    writer.write(fallbackHtml);
+                try (HtmlStreamWriter writer = new HtmlStreamWriter(Paths.get(OUTPUT_DIR + "/report.html"))) {
+                    writer.append(fallbackHtml);
                 }
+                artifactManifest.invalidate("report");
                 System.out.println("Geri dönüş raporu kaydedildi: " + OUTPUT_DIR + "/report.html");
             }
+            
+            artifactManifest.save();
+            System.out.println("♻️  Değişmeyen dosyalar atlandı: " + artifactManifest.getSkippedCount()
+                + ", yeniden oluşturulan: " + artifactManifest.getRebuiltCount());
 
             // Upload report to FTP
             System.out.println("\n" + repeat("═", 50));
@@ -145,7 +294,8 @@ public class BistAnalyzerApp {
                     }
                     
                     allData.put(stock, dailyData);
-                    analyzeAndSignal(stock, dailyData, signals);
+                    if (keepDailyHistory()) dailyHistory.put(stock, dailyData);
+                    analyzeAndSignal(stock, dailyData, signals, false);
                 } else {
                     // For user stocks, use both hourly and daily data
                     System.out.println("  Saatlik veriler çekiliyor (1h)...");
@@ -161,9 +311,10 @@ public class BistAnalyzerApp {
                         continue;
                     }
 
+                    if (keepDailyHistory() && !dailyData.isEmpty()) dailyHistory.put(stock, dailyData);
                     List<StockData> analysisData = !hourlyData.isEmpty() ? hourlyData : dailyData;
                     allData.put(stock, analysisData);
-                    analyzeAndSignal(stock, analysisData, signals);
+                    IndicatorCache rules = analyzeAndSignal(stock, analysisData, signals, true);
                     
                     // Generate charts only for user stocks
                     if (!signals.isEmpty()) {
@@ -171,16 +322,29 @@ public class BistAnalyzerApp {
                         SignalGenerator.SignalResult lastSignal = signals.get(signals.size() - 1);
                         if (lastSignal.symbol.equals(stock)) {
                             List<StockData> data = allData.get(stock);
-                            double[] sma20 = TechnicalIndicators.calculateSMA(data, 20);
-                            double[] sma50 = TechnicalIndicators.calculateSMA(data, 50);
-                            double[] ema12 = TechnicalIndicators.calculateEMA(data, 12);
-                            double[] rsi = TechnicalIndicators.calculateRSI(data, 14);
+                            String chartKey = (SHARED_CHART_VIEWER ? "data:" : "chart:") + stock;
+                            String chartFingerprint = ChartGenerator.chartFingerprint(stock, data, lastSignal);
+                            Path[] chartFiles = HtmlStreamWriter.outputFiles(SHARED_CHART_VIEWER
+                                ? new Path[] { Paths.get(CHARTS_DIR, stock + ".json") }
+                                : new Path[] { Paths.get(CHARTS_DIR, stock + "_chart.html"), Paths.get(CHARTS_DIR, stock + "_chart_1m.html") });
+                            if (artifactManifest.isUnchanged(chartKey, chartFingerprint, chartFiles)) {
+                                System.out.println("  ♻️  Grafik girdileri değişmedi, atlanıyor");
+                            } else {
+                                double[] sma20 = TechnicalIndicators.calculateSMA(data, 20);
+                                double[] sma50 = TechnicalIndicators.calculateSMA(data, 50);
+                                double[] ema12 = TechnicalIndicators.calculateEMA(data, 12);
+                                double[] rsi = TechnicalIndicators.calculateRSI(data, 14);
                             
-                            // Generate full data chart
-                            ChartGenerator.generateTechnicalChart(stock, data, sma20, sma50, ema12, rsi, CHARTS_DIR + "/" + stock + "_chart.png", lastSignal);
-                            
-                            // Generate 1-month visual version for mobile (same calculations, last 30 days display)
-                            ChartGenerator.generateTechnicalChart1Month(stock, data, sma20, sma50, ema12, rsi, CHARTS_DIR + "/" + stock + "_chart.png", lastSignal);
+                                if (SHARED_CHART_VIEWER) {
+                                    // Only the data file - rendered by the shared viewer (full or 1-month view)
+                                    ChartGenerator.generateChartData(stock, data, sma20, sma50, ema12, rsi, CHARTS_DIR, lastSignal, rules);
+                                } else {
+                                    // Generate full data chart + 1-month visual version for mobile in one pass
+                                    // (signals and daily aggregates are computed once, last 30 days shown on mobile)
+                                    ChartGenerator.generateTechnicalCharts(stock, data, sma20, sma50, ema12, rsi, CHARTS_DIR + "/" + stock + "_chart.png", lastSignal, rules);
+                                }
+                                artifactManifest.update(chartKey, chartFingerprint);
+                            }
                         }
                     }
                 }
@@ -193,9 +357,39 @@ public class BistAnalyzerApp {
         }
     }
 
-    private static void analyzeAndSignal(String stock, List<StockData> data,
-                                        List<SignalGenerator.SignalResult> signals) {
-        if (data.isEmpty()) return;
+    /**
+     * Everything the report shows: signals, bars of every stock (count and last bar, as its rows see them),
+     * failures, stock names, chart and report mode, precompression
+     */
+    private static String reportFingerprint(List<SignalGenerator.SignalResult> userSignals,
+                                            List<SignalGenerator.SignalResult> bist100Signals,
+                                            Map<String, List<StockData>> allData) {
+        ArtifactManifest.Fingerprint fingerprint = ArtifactManifest.fingerprint();
+        fingerprint.add((long) userSignals.size());
+        for (SignalGenerator.SignalResult signal : userSignals) {
+            fingerprint.addSignal(signal);
+        }
+        fingerprint.add((long) bist100Signals.size());
+        for (SignalGenerator.SignalResult signal : bist100Signals) {
+            fingerprint.addSignal(signal);
+        }
+        for (Map.Entry<String, List<StockData>> entry : new TreeMap<>(allData).entrySet()) {
+            fingerprint.add(entry.getKey()).addLastBar(entry.getValue());
+        }
+        for (Map.Entry<String, String> entry : failedStocks.entrySet()) {
+            fingerprint.add(entry.getKey()).add(entry.getValue());
+        }
+        return fingerprint.addFile(Paths.get(STOCK_LIST_FILE)).add(SHARED_CHART_VIEWER).add(LAZY_REPORT)
+            .add(HtmlStreamWriter.PRECOMPRESS).build();
+    }
+
+    /**
+     * Live signal of the last bar; returns the compiled rules of the whole series when forCharts (the chart
+     * markers reuse them), otherwise only the last bar is compiled and null is returned
+     */
+    private static IndicatorCache analyzeAndSignal(String stock, List<StockData> data,
+                                        List<SignalGenerator.SignalResult> signals, boolean forCharts) {
+        if (data.isEmpty()) return null;
         
         System.out.println("  Teknik göstergeler hesaplanıyor...");
         double[] sma20 = TechnicalIndicators.calculateSMA(data, 20);
@@ -205,14 +399,19 @@ public class BistAnalyzerApp {
         
         TechnicalIndicators.MACDResult macd = TechnicalIndicators.calculateMACD(data, 12, 26, 9);
         TechnicalIndicators.BollingerBands bb = TechnicalIndicators.calculateBollingerBands(data, 20, 2.0);
+        TechnicalIndicators.ADXResult adx = TechnicalIndicators.calculateADX(data, 14);
+        IndicatorCache rules = forCharts
+            ? IndicatorCache.build(data, rsi, macd, bb, adx, true)
+            : IndicatorCache.buildLast(data, rsi, macd, bb, adx);
 
         System.out.println("  İşlem sinyalleri üretiliyor...");
         SignalGenerator.SignalResult signal = SignalGenerator.generateSignal(
-            stock, data, sma20, sma50, ema12, rsi, macd, bb);
+            stock, data, sma20, sma50, ema12, rsi, macd, bb, adx, rules);
         signals.add(signal);
         
         System.out.println("  ✓ " + getSignalTextTR(signal.signal) + " (Güven: " + 
                          String.format("%.1f%%", signal.confidence) + ")");
+        return forCharts ? rules : null;
     }
 
     private static String getSignalTextTR(String signal) {
@@ -262,32 +461,14 @@ public class BistAnalyzerApp {
         System.out.println("  ⬇️  GÜÇLÜ SAT:   " + strongSell);
     }
 
-    private static List<String> readStockList() throws IOException {
-        List<String> stocks = new ArrayList<>();
-        
-        Path path = Paths.get(STOCK_LIST_FILE);
-        if (Files.exists(path)) {
-            List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
-            for (String line : lines) {
-                line = line.trim();
-                // Skip empty lines, comments, and the --- separator
-                if (!line.isEmpty() && !line.startsWith("#") && !line.equals("---") && !line.equals("--")) {
-                    // Extract symbol from format: "SYMBOL - Full Name" or just "SYMBOL"
-                    String symbol = line;
-                    if (line.contains(" - ")) {
-                        symbol = line.split(" - ")[0].trim();
-                    }
-                    if (!symbol.isEmpty()) {
-                        stocks.add(symbol.toUpperCase());
-                    }
-                }
-            }
-        } else {
+    private static List<String> readStockList() {
+        // Shared with the report (names, priority groups); re-read only if the file changed since the last run
+        StockRegistry registry = StockRegistry.reloadIfChanged();
+        if (!registry.isFound()) {
             System.err.println("Warning: " + STOCK_LIST_FILE + " not found. Using default stocks.");
-            stocks.addAll(Arrays.asList("THYAO", "SOKM", "FROTO", "SISE"));
+            return new ArrayList<>(Arrays.asList("THYAO", "SOKM", "FROTO", "SISE"));
         }
-        
-        return stocks;
+        return new ArrayList<>(registry.getSymbols());
     }
 
     private static String generateFallbackReport() {
@@ -325,7 +506,11 @@ public class BistAnalyzerApp {
             
             System.out.println("📤 FTP'ye rapor yükleniyor...");
             FtpReportUploader uploader = new FtpReportUploader(ftpHost, ftpPort, username, password, remotePath);
-            uploader.uploadReports(OUTPUT_DIR);
+            if (BUNDLE_UPLOAD) {
+                uploader.uploadBundle(OUTPUT_DIR);
+            } else {
+                uploader.uploadReports(OUTPUT_DIR);
+            }
             System.out.println("✅ FTP yükleme tamamlandı\n");
         } catch (Exception ex) {
             System.err.println("⚠️  FTP yükleme başarısız: " + ex.getMessage());
@@ -333,6 +518,10 @@ public class BistAnalyzerApp {
         }
     }
 
+    private static boolean keepDailyHistory() {
+        return BACKTEST || SWEEP || OPTIMIZE || PORTFOLIO || MONTE_CARLO || !ANALOG_SYMBOLS.isEmpty();
+    }
+
     private static String repeat(String str, int count) {
         StringBuilder sb = new StringBuilder();
         for (int i = 0; i < count; i++) {
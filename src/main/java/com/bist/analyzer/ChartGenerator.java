@@ -1,17 +1,14 @@
 package com.bist.analyzer;
 
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
-import java.io.FileOutputStream;
-import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
 import java.util.LinkedHashMap;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.TimeZone;
 
 /**
@@ -22,6 +19,12 @@ public class ChartGenerator {
     
     private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd HH:mm");
     
+    // Shared chart mode: one cacheable viewer page for all symbols
+    public static final String SHARED_VIEWER_FILE = "viewer.html";
+    
+    // Point budget per chart view - longer daily series are downsampled (LTTB) before shipping
+    private static final int MAX_CHART_POINTS = 800;
+    
     // Inner class to hold daily OHLC data
     public static class DailyData {
         public String date;              // yyyy-MM-dd
@@ -32,6 +35,7 @@ public class ChartGenerator {
         public long volume;              // Daily total trading volume
         public String closingTime;       // HH:mm of last transaction
         public long timestamp;           // Timestamp of last transaction
+        public int lastIndex;            // Index of the day's last bar in the source data
         public SignalGenerator.TradePoint signal;  // Signal if occurred on this day
 
         public DailyData(String date, double open, double high, double low, double close) {
@@ -43,6 +47,7 @@ public class ChartGenerator {
             this.volume = 0;             // Initialize volume
             this.closingTime = "";
             this.timestamp = 0;
+            this.lastIndex = -1;
             this.signal = null;
         }
     }
@@ -78,15 +83,17 @@ public class ChartGenerator {
      * Aggregate hourly data to daily OHLC - ensures ONE point per day
      * Properly maintains: open=first hour, high=max, low=min, close=last hour, volume=sum
      * Uses Istanbul timezone (Europe/Istanbul) for consistent date reference
+     * Only bars from startIndex onwards are aggregated; lastIndex refers to the full list
      */
-    private static Map<String, DailyData> aggregateToDailyOHLC(List<StockData> hourlyData) {
+    private static Map<String, DailyData> aggregateToDailyOHLC(List<StockData> hourlyData, int startIndex) {
         Map<String, DailyData> dailyMap = new LinkedHashMap<>();
         SimpleDateFormat dateOnlyFormat = new SimpleDateFormat("yyyy-MM-dd");
         dateOnlyFormat.setTimeZone(TimeZone.getTimeZone("Europe/Istanbul"));
         SimpleDateFormat timeFormat = new SimpleDateFormat("HH:mm");
         timeFormat.setTimeZone(TimeZone.getTimeZone("Europe/Istanbul"));
         
-        for (StockData hourly : hourlyData) {
+        for (int i = startIndex; i < hourlyData.size(); i++) {
+            StockData hourly = hourlyData.get(i);
             String dateStr = dateOnlyFormat.format(new Date(hourly.getTimestamp()));
             String timeStr = timeFormat.format(new Date(hourly.getTimestamp()));
             
@@ -99,6 +106,7 @@ public class ChartGenerator {
                     hourly.getClose());                  // close = first hour's close (will be updated)
                 daily.closingTime = timeStr;
                 daily.timestamp = hourly.getTimestamp();
+                daily.lastIndex = i;
                 daily.volume = hourly.getVolume();       // Initialize with first hour's volume
                 dailyMap.put(dateStr, daily);
             } else {
@@ -109,6 +117,7 @@ public class ChartGenerator {
                 daily.close = hourly.getClose();         // close = last hour's close
                 daily.closingTime = timeStr;             // closingTime = last hour's time
                 daily.timestamp = hourly.getTimestamp(); // timestamp = last hour's timestamp
+                daily.lastIndex = i;                     // lastIndex = last hour's bar index
                 daily.volume += hourly.getVolume();      // Accumulate volume for the day
             }
         }
@@ -153,7 +162,12 @@ public class ChartGenerator {
     public static void generateTechnicalChart(String symbol, List<StockData> data, 
                                             double[] sma20, double[] sma50, double[] ema12,
                                             double[] rsi, String outputPath, SignalGenerator.SignalResult currentSignal) throws IOException {
-        generateTechnicalChartInternal(symbol, data, sma20, sma50, ema12, rsi, outputPath, currentSignal, false);
+        ChartModel model = buildChartModel(symbol, data, sma20, sma50, ema12, rsi, currentSignal, null);
+        if (model == null) return;
+        
+        String htmlPath = outputPath.replace(".png", ".html");
+        writeChartView(model, 0, htmlPath);
+        System.out.println("✅ İnteraktif grafik oluşturuldu: " + htmlPath);
     }
     
     /**
@@ -162,19 +176,74 @@ public class ChartGenerator {
     public static void generateTechnicalChart1Month(String symbol, List<StockData> data, 
                                             double[] sma20, double[] sma50, double[] ema12,
                                             double[] rsi, String outputPath, SignalGenerator.SignalResult currentSignal) throws IOException {
-        generateTechnicalChartInternal(symbol, data, sma20, sma50, ema12, rsi, outputPath, currentSignal, true);
+        ChartModel model = buildChartModel(symbol, data, sma20, sma50, ema12, rsi, currentSignal, null);
+        if (model == null) return;
+        
+        writeChartView(model, oneMonthStartDay(model), outputPath.replace(".png", "_1m.html"));
     }
     
     /**
-     * Internal method - if oneMonthOnly=true, displays only last 30 days visually (calculations remain full)
+     * Generate both the full-history chart and the 1-month mobile chart in a single pass:
+     * historical signals and daily aggregates are computed once and both pages are
+     * written from the same intermediate data
      */
-    private static void generateTechnicalChartInternal(String symbol, List<StockData> data, 
-                                            double[] sma20, double[] sma50, double[] ema12,
-                                            double[] rsi, String outputPath, SignalGenerator.SignalResult currentSignal,
-                                            boolean oneMonthOnly) throws IOException {
+    public static void generateTechnicalCharts(String symbol, List<StockData> data, 
+                                             double[] sma20, double[] sma50, double[] ema12,
+                                             double[] rsi, String outputPath, SignalGenerator.SignalResult currentSignal) throws IOException {
+        generateTechnicalCharts(symbol, data, sma20, sma50, ema12, rsi, outputPath, currentSignal, null);
+    }
+    
+    /**
+     * Same, with the rules already compiled for all of data (IndicatorCache.build, shared with the live signal);
+     * null compiles them here
+     */
+    public static void generateTechnicalCharts(String symbol, List<StockData> data, 
+                                             double[] sma20, double[] sma50, double[] ema12,
+                                             double[] rsi, String outputPath, SignalGenerator.SignalResult currentSignal,
+                                             IndicatorCache cache) throws IOException {
+        ChartModel model = buildChartModel(symbol, data, sma20, sma50, ema12, rsi, currentSignal, cache);
+        if (model == null) return;
+        
+        String htmlPath = outputPath.replace(".png", ".html");
+        writeChartView(model, 0, htmlPath);
+        writeChartView(model, oneMonthStartDay(model), outputPath.replace(".png", "_1m.html"));
+        System.out.println("✅ İnteraktif grafik oluşturuldu: " + htmlPath);
+    }
+    
+    /**
+     * Daily series of one symbol over the full history - shared by every chart view
+     */
+    private static class ChartModel {
+        String symbol;
+        int dayCount;
+        String[] dates;
+        long[] timestamps;           // Timestamp of each day's last bar
+        double[] opens;
+        double[] closes;
+        double[] highs;
+        double[] lows;
+        long[] volumes;
+        String[] closingTimes;
+        double[] changes;            // Daily change % vs previous day's close
+        String[] signalTexts;        // Signal reason ("" when no signal that day)
+        String[] signalTypes;        // AL, GÜÇLÜ_AL, SAT, GÜÇLÜ_SAT or null
+        double[] sma20;
+        double[] sma50;
+        double[] ema12;
+        double[] rsi;
+    }
+    
+    /**
+     * Run signal detection and daily aggregation once over the full data set
+     * (with the compiled rules of cache when given). Returns null when there is nothing to draw
+     */
+    private static ChartModel buildChartModel(String symbol, List<StockData> data, 
+                                              double[] sma20, double[] sma50, double[] ema12,
+                                              double[] rsi, SignalGenerator.SignalResult currentSignal,
+                                              IndicatorCache cache) {
         if (data.isEmpty()) {
             System.out.println("No data available for technical chart generation");
-            return;
+            return null;
         }
 
         // Calculate indicators if not provided
@@ -184,7 +253,9 @@ public class ChartGenerator {
         if (rsi[0] == 0.0) rsi = TechnicalIndicators.calculateRSI(data, 14);
         
         // Find historical BUY/SELL signals (use full hourly data)
-        List<SignalGenerator.TradePoint> tradeSignals = SignalGenerator.findHistoricalSignals(data, sma20, sma50, ema12, rsi);
+        List<SignalGenerator.TradePoint> tradeSignals = cache != null
+            ? SignalGenerator.findHistoricalSignals(cache, SignalThresholds.DEFAULT)
+            : SignalGenerator.findHistoricalSignals(data);
         
         // Add current signal if provided (last day's signal)
         if (currentSignal != null && !data.isEmpty()) {
@@ -233,67 +304,43 @@ public class ChartGenerator {
             }
         }
 
-        // For mobile 1-month view: filter display data to last 30 days
-        int startIndex = 0;
-        if (oneMonthOnly && data.size() > 0) {
-            long thirtyDaysAgo = System.currentTimeMillis() - (30L * 24 * 60 * 60 * 1000);
-            for (int i = data.size() - 1; i >= 0; i--) {
-                if (data.get(i).getTimestamp() < thirtyDaysAgo) {
-                    startIndex = i + 1;
-                    break;
-                }
-            }
-        }
+        // Aggregate hourly data to daily OHLC once for all views
+        List<DailyData> days = new ArrayList<>(aggregateToDailyOHLC(data, 0).values());
+        int dayCount = days.size();
+        
+        ChartModel model = new ChartModel();
+        model.symbol = symbol;
+        model.dayCount = dayCount;
+        model.dates = new String[dayCount];
+        model.timestamps = new long[dayCount];
+        model.opens = new double[dayCount];
+        model.closes = new double[dayCount];
+        model.highs = new double[dayCount];
+        model.lows = new double[dayCount];
+        model.volumes = new long[dayCount];
+        model.closingTimes = new String[dayCount];
+        model.changes = new double[dayCount];
+        model.signalTexts = new String[dayCount];
+        model.signalTypes = new String[dayCount];
+        model.sma20 = new double[dayCount];
+        model.sma50 = new double[dayCount];
+        model.ema12 = new double[dayCount];
+        model.rsi = new double[dayCount];
         
-        // Aggregate hourly data to daily OHLC for display
-        Map<String, DailyData> dailyMap = aggregateToDailyOHLC(data.subList(startIndex, data.size()));
-        
-        // Map signals to daily data and preserve signal timestamp
-        Map<String, SignalData> signalsByDay = new LinkedHashMap<>();
-        SimpleDateFormat dateOnlyFormat = new SimpleDateFormat("yyyy-MM-dd");
-        SimpleDateFormat timeOnlyFormat = new SimpleDateFormat("HH:mm");
-        
-        for (SignalGenerator.TradePoint signal : tradeSignals) {
-            if (signal.index >= startIndex && signal.index < data.size()) {
-                StockData signalData = data.get(signal.index);
-                String dateStr = dateOnlyFormat.format(new Date(signalData.getTimestamp()));
-                String timeStr = timeOnlyFormat.format(new Date(signalData.getTimestamp()));
-                signalsByDay.put(dateStr, new SignalData(signal.type, timeStr, signal));
-            }
-        }
-        
-        // Build daily data arrays with proper customdata
-        List<String> dailyDates = new ArrayList<>();
-        List<Double> dailyOpens = new ArrayList<>();
-        List<Double> dailyCloses = new ArrayList<>();
-        List<Double> dailyHighs = new ArrayList<>();
-        List<Double> dailyLows = new ArrayList<>();
-        List<Long> dailyVolumes = new ArrayList<>();    // Daily trading volume
-        List<String> closingTimes = new ArrayList<>();
-        List<Double> dailyChanges = new ArrayList<>();
-        List<String> signals = new ArrayList<>();
-        List<String> dayNames = new ArrayList<>();
-        SimpleDateFormat dayNameFormat = new SimpleDateFormat("EEEE", new Locale("tr", "TR"));
-        dayNameFormat.setTimeZone(TimeZone.getTimeZone("Europe/Istanbul"));
-        
-        // Initialize prevClose from the last data point before our range (if available)
         double prevClose = 0;
-        if (startIndex > 0) {
-            prevClose = data.get(startIndex - 1).getClose();
-        }
-        
-        for (DailyData daily : dailyMap.values()) {
-            dailyDates.add(daily.date);
-            dailyOpens.add(daily.open);
-            dailyCloses.add(daily.close);
-            dailyHighs.add(daily.high);
-            dailyLows.add(daily.low);
-            dailyVolumes.add(daily.volume);             // Add daily volume
-            closingTimes.add(daily.closingTime);
-            
-            // Get day name (Pazartesi, Salı, vb)
-            String dayName = dayNameFormat.format(new Date(daily.timestamp));
-            dayNames.add(dayName);
+        int[] lastIndexOfDay = new int[dayCount];
+        for (int d = 0; d < dayCount; d++) {
+            DailyData daily = days.get(d);
+            lastIndexOfDay[d] = daily.lastIndex;
+            model.dates[d] = daily.date;
+            model.timestamps[d] = daily.timestamp;
+            model.opens[d] = daily.open;
+            model.closes[d] = daily.close;
+            model.highs[d] = daily.high;
+            model.lows[d] = daily.low;
+            model.volumes[d] = daily.volume;
+            model.closingTimes[d] = daily.closingTime;
+            model.signalTexts[d] = "";
             
             // Calculate daily change % (vs previous day's close, or vs opening if first day)
             double change = 0;
@@ -306,28 +353,158 @@ public class ChartGenerator {
             if (Double.isNaN(change) || Double.isInfinite(change)) {
                 change = 0.0;
             }
-            dailyChanges.add(change);
+            model.changes[d] = change;
             
-            // Get signal info if available for this day
-            String signalText = "";
-            if (signalsByDay.containsKey(daily.date)) {
-                SignalData sig = signalsByDay.get(daily.date);
-                signalText = sig.source.reason;
-            }
-            signals.add(signalText);
+            // Indicators sampled at the day's last bar (daily downsampled from hourly)
+            model.sma20[d] = valueAt(sma20, daily.lastIndex);
+            model.sma50[d] = valueAt(sma50, daily.lastIndex);
+            model.ema12[d] = valueAt(ema12, daily.lastIndex);
+            model.rsi[d] = valueAt(rsi, daily.lastIndex);
             
             prevClose = daily.close;
         }
         
-        // Build HTML with Plotly.js
-        StringBuilder html = new StringBuilder();
+        // Map signals to the day containing their bar (later signals of the same day win)
+        for (SignalGenerator.TradePoint signal : tradeSignals) {
+            if (signal.index < 0 || signal.index >= data.size()) continue;
+            int day = Arrays.binarySearch(lastIndexOfDay, signal.index);
+            if (day < 0) day = -day - 1;
+            if (day >= dayCount) continue;
+            SignalData sig = new SignalData(signal.type, model.closingTimes[day], signal);
+            model.signalTexts[day] = sig.reason;
+            model.signalTypes[day] = sig.type;
+        }
         
+        return model;
+    }
+    
+    /**
+     * First day shown in the 1-month mobile view (days whose last bar is within the last 30 days)
+     */
+    private static int oneMonthStartDay(ChartModel model) {
+        long thirtyDaysAgo = System.currentTimeMillis() - (30L * 24 * 60 * 60 * 1000);
+        int fromDay = model.dayCount;
+        while (fromDay > 0 && model.timestamps[fromDay - 1] >= thirtyDaysAgo) {
+            fromDay--;
+        }
+        return fromDay;
+    }
+    
+    /**
+     * Fingerprint of everything a symbol's chart pages depend on: bars, current signal,
+     * first bar of the 1-month window, the chart parameters and precompression (see ArtifactManifest)
+     */
+    public static String chartFingerprint(String symbol, List<StockData> data,
+                                          SignalGenerator.SignalResult currentSignal) {
+        long thirtyDaysAgo = System.currentTimeMillis() - (30L * 24 * 60 * 60 * 1000);
+        int low = 0;
+        int high = data.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (data.get(mid).getTimestamp() < thirtyDaysAgo) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return ArtifactManifest.fingerprint()
+            .add(symbol)
+            .addBars(data)
+            .add(currentSignal != null ? currentSignal.signal : null)
+            .add((long) low)
+            .add((long) MAX_CHART_POINTS)
+            .add(HtmlStreamWriter.PRECOMPRESS)
+            .build();
+    }
+    
+    /**
+     * Write one chart page showing days [fromDay, dayCount) of the model
+     */
+    private static void writeChartView(ChartModel model, int fromDay, String htmlPath) throws IOException {
+        String symbol = model.symbol;
+        
+        // Stream HTML with Plotly.js straight to disk with UTF-8 encoding (fixes Turkish characters and ₺ symbol)
+        try (HtmlStreamWriter html = new HtmlStreamWriter(Paths.get(htmlPath))) {
+            writePageHead(html, symbol + " - Teknik Analiz", "📊 " + symbol + " - Teknik Analiz Grafiği");
+            html.append("    <script>\n");
+            html.append(getChartScript());
+            html.append("\n        var chartData = ");
+            writeChartJson(html, model, selectViewDays(model, fromDay, model.dayCount, model.dayCount), -1);
+            html.append(";\n");
+            html.append("        renderChart(chartData);\n");
+            html.append("    </script>\n");
+            html.append("</body>\n");
+            html.append("</html>");
+        }
+    }
+    
+    /**
+     * Shared chart mode: write only the per-symbol data file (chartsDir/SYMBOL.json)
+     * Both the full-history and the 1-month view are served from it by viewer.html
+     */
+    public static void generateChartData(String symbol, List<StockData> data, 
+                                         double[] sma20, double[] sma50, double[] ema12,
+                                         double[] rsi, String chartsDir, SignalGenerator.SignalResult currentSignal) throws IOException {
+        generateChartData(symbol, data, sma20, sma50, ema12, rsi, chartsDir, currentSignal, null);
+    }
+    
+    /**
+     * Same, with the rules already compiled for all of data (IndicatorCache.build, shared with the live signal);
+     * null compiles them here
+     */
+    public static void generateChartData(String symbol, List<StockData> data, 
+                                         double[] sma20, double[] sma50, double[] ema12,
+                                         double[] rsi, String chartsDir, SignalGenerator.SignalResult currentSignal,
+                                         IndicatorCache cache) throws IOException {
+        ChartModel model = buildChartModel(symbol, data, sma20, sma50, ema12, rsi, currentSignal, cache);
+        if (model == null) return;
+        
+        String jsonPath = chartsDir + "/" + symbol + ".json";
+        try (HtmlStreamWriter json = new HtmlStreamWriter(Paths.get(jsonPath))) {
+            // The 1-month view is sliced from this file, so its days are never downsampled
+            int monthStart = oneMonthStartDay(model);
+            writeChartJson(json, model, selectViewDays(model, 0, model.dayCount, monthStart), monthStart);
+        }
+        System.out.println("✅ Grafik verisi oluşturuldu: " + jsonPath);
+    }
+    
+    /**
+     * Shared chart mode: write the single cacheable viewer page (chartsDir/viewer.html)
+     * Usage: viewer.html?s=SYMBOL for full history, viewer.html?s=SYMBOL&v=1m for the mobile view
+     */
+    public static void writeSharedViewer(String chartsDir) throws IOException {
+        try (HtmlStreamWriter html = new HtmlStreamWriter(Paths.get(chartsDir, SHARED_VIEWER_FILE))) {
+            writePageHead(html, "Teknik Analiz", "📊 Teknik Analiz Grafiği");
+            html.append("    <script>\n");
+            html.append(getChartScript());
+            html.append("\n        var params = new URLSearchParams(location.search);\n");
+            html.append("        var symbol = (params.get('s') || '').toUpperCase().replace(/[^A-Z0-9.]/g, '');\n");
+            html.append("        fetch(symbol + '.json').then(function(r) {\n");
+            html.append("            if (!r.ok) throw new Error(r.status);\n");
+            html.append("            return r.json();\n");
+            html.append("        }).then(function(d) {\n");
+            html.append("            document.title = d.symbol + ' - Teknik Analiz';\n");
+            html.append("            document.getElementById('chartTitle').textContent = '📊 ' + d.symbol + ' - Teknik Analiz Grafiği';\n");
+            html.append("            renderChart(params.get('v') === '1m' ? sliceChartData(d, d.monthStart) : d);\n");
+            html.append("        }).catch(function() {\n");
+            html.append("            document.getElementById('chart').textContent = 'Grafik verisi yüklenemedi: ' + symbol;\n");
+            html.append("        });\n");
+            html.append("    </script>\n");
+            html.append("</body>\n");
+            html.append("</html>");
+        }
+    }
+    
+    /**
+     * Common page head: Plotly bootstrap, styles and the chart container
+     */
+    private static void writePageHead(HtmlStreamWriter html, String title, String heading) throws IOException {
         html.append("<!DOCTYPE html>\n");
         html.append("<html>\n");
         html.append("<head>\n");
         html.append("    <meta charset=\"UTF-8\">\n");
         html.append("    <meta name=\"viewport\" content=\"width=device-width, initial-scale=1.0\">\n");
-        html.append("    <title>").append(symbol).append(" - Teknik Analiz</title>\n");
+        html.append("    <title>").append(title).append("</title>\n");
         html.append("    <script src=\"https://cdn.plot.ly/plotly-2.27.0.min.js\"></script>\n");
         html.append("    <style>\n");
         html.append("        body { margin: 0; padding: 20px; background: #f5f5f5; font-family: 'Segoe UI', Arial, sans-serif; }\n");
@@ -337,455 +514,447 @@ public class ChartGenerator {
         html.append("</head>\n");
         html.append("<body>\n");
         html.append("    <div class=\"chart-container\">\n");
-        html.append("        <h2>📊 ").append(symbol).append(" - Teknik Analiz Grafiği</h2>\n");
+        html.append("        <h2 id=\"chartTitle\">").append(heading).append("</h2>\n");
         html.append("        <div id=\"chart\" style=\"width:100%; height:800px;\"></div>\n");
         html.append("    </div>\n");
-        html.append("    <script>\n");
-        
-        // Prepare data arrays for Plotly (daily aggregated)
-        html.append("        // Data preparation (daily aggregated)\n");
-        
-        // Daily dates
-        html.append("        var dates = [");
-        for (int i = 0; i < dailyDates.size(); i++) {
-            if (i > 0) html.append(", ");
-            html.append("'").append(dailyDates.get(i)).append("'");
-        }
-        html.append("]\n\n");
-        
-        // Daily closing prices (for main chart)
-        html.append("        var prices = [");
-        for (int i = 0; i < dailyCloses.size(); i++) {
-            if (i > 0) html.append(", ");
-            html.append(String.format(Locale.US, "%.2f", dailyCloses.get(i)));
-        }
-        html.append("];\n\n");
-        
-        // Opening prices
-        html.append("        var opens = [");
-        for (int i = 0; i < dailyOpens.size(); i++) {
-            if (i > 0) html.append(", ");
-            html.append(String.format(Locale.US, "%.2f", dailyOpens.get(i)));
-        }
-        html.append("];\n\n");
-        
-        // High prices
-        html.append("        var highs = [");
-        for (int i = 0; i < dailyHighs.size(); i++) {
-            if (i > 0) html.append(", ");
-            html.append(String.format(Locale.US, "%.2f", dailyHighs.get(i)));
-        }
-        html.append("];\n\n");
-        
-        // Low prices
-        html.append("        var lows = [");
-        for (int i = 0; i < dailyLows.size(); i++) {
-            if (i > 0) html.append(", ");
-            html.append(String.format(Locale.US, "%.2f", dailyLows.get(i)));
-        }
-        html.append("];\n\n");
-        
-        // Daily trading volumes
-        html.append("        var volumes = [");
-        for (int i = 0; i < dailyVolumes.size(); i++) {
-            if (i > 0) html.append(", ");
-            html.append(dailyVolumes.get(i));
-        }
-        html.append("];\n\n");
-        
-        // Daily changes
-        html.append("        var dailyChanges = [");
-        for (int i = 0; i < dailyChanges.size(); i++) {
-            if (i > 0) html.append(", ");
-            html.append(String.format(Locale.US, "%.2f", dailyChanges.get(i)));
+    }
+    
+    /**
+     * Days of the view [from, to) that are shipped to the browser
+     * Ranges longer than MAX_CHART_POINTS are reduced with Largest-Triangle-Three-Buckets on closing prices;
+     * signal days, the highest-high / lowest-low days and every day from keepFrom on are always kept
+     */
+    private static int[] selectViewDays(ChartModel model, int from, int to, int keepFrom) {
+        int count = to - from;
+        boolean[] keep = new boolean[model.dayCount];
+        if (count <= MAX_CHART_POINTS) {
+            Arrays.fill(keep, from, to, true);
+        } else {
+            int highDay = from;
+            int lowDay = from;
+            for (int d = from; d < to; d++) {
+                if (model.signalTypes[d] != null || d >= keepFrom) {
+                    keep[d] = true;
+                }
+                if (model.highs[d] > model.highs[highDay]) highDay = d;
+                if (model.lows[d] < model.lows[lowDay]) lowDay = d;
+            }
+            keep[highDay] = true;
+            keep[lowDay] = true;
+            
+            int forced = 0;
+            for (int d = from; d < to; d++) {
+                if (keep[d]) forced++;
+            }
+            markLargestTriangleThreeBuckets(model.closes, from, to, Math.max(MAX_CHART_POINTS - forced, 3), keep);
         }
-        html.append("];\n\n");
         
-        // Closing times
-        html.append("        var closingTimes = [");
-        for (int i = 0; i < closingTimes.size(); i++) {
-            if (i > 0) html.append(", ");
-            html.append("'").append(closingTimes.get(i)).append("'");
+        int kept = 0;
+        for (int d = from; d < to; d++) {
+            if (keep[d]) kept++;
         }
-        html.append("];\n\n");
-        
-        // Signal types
-        html.append("        var signalTypes = [");
-        for (int i = 0; i < signals.size(); i++) {
-            if (i > 0) html.append(", ");
-            html.append("'").append(signals.get(i)).append("'");
+        int[] days = new int[kept];
+        int n = 0;
+        for (int d = from; d < to; d++) {
+            if (keep[d]) days[n++] = d;
         }
-        html.append("];\n\n");
-        
-        // Day names (Pazartesi, Salı, etc)
-        html.append("        var dayNames = [");
-        for (int i = 0; i < dayNames.size(); i++) {
-            if (i > 0) html.append(", ");
-            html.append("'").append(dayNames.get(i)).append("'");
+        return days;
+    }
+    
+    /**
+     * LTTB: mark 'threshold' points of values[from, to) that best preserve the visual shape
+     * First and last points are always selected, one point per bucket in between
+     */
+    private static void markLargestTriangleThreeBuckets(double[] values, int from, int to, int threshold,
+                                                        boolean[] keep) {
+        int n = to - from;
+        if (threshold >= n) {
+            Arrays.fill(keep, from, to, true);
+            return;
         }
-        html.append("];\n\n");
         
-        // SMA20 (daily downsampled from hourly)
-        html.append("        var sma20 = [");
-        for (int i = 0; i < dailyDates.size(); i++) {
-            if (i > 0) html.append(", ");
-            String dateStr = dailyDates.get(i);
-            // Find last hourly index for this date
-            int hourlyIndex = startIndex;
-            for (int j = startIndex; j < data.size(); j++) {
-                if (dateOnlyFormat.format(new Date(data.get(j).getTimestamp())).equals(dateStr)) {
-                    hourlyIndex = j;
-                } else if (dateOnlyFormat.format(new Date(data.get(j).getTimestamp())).compareTo(dateStr) > 0) {
-                    break;
-                }
+        double bucketSize = (double) (n - 2) / (threshold - 2);
+        int a = from;
+        keep[from] = true;
+        for (int i = 0; i < threshold - 2; i++) {
+            int bucketStart = from + 1 + (int) (i * bucketSize);
+            int bucketEnd = from + 1 + (int) ((i + 1) * bucketSize);
+            
+            // Average point of the next bucket (the last point for the final bucket)
+            int nextEnd = Math.min(from + 1 + (int) ((i + 2) * bucketSize), to);
+            double avgX = 0;
+            double avgY = 0;
+            for (int j = bucketEnd; j < nextEnd; j++) {
+                avgX += j;
+                avgY += values[j];
             }
-            if (hourlyIndex < sma20.length && !Double.isNaN(sma20[hourlyIndex])) {
-                html.append(String.format(Locale.US, "%.2f", sma20[hourlyIndex]));
+            int nextLen = nextEnd - bucketEnd;
+            if (nextLen > 0) {
+                avgX /= nextLen;
+                avgY /= nextLen;
             } else {
-                html.append("null");
+                avgX = to - 1;
+                avgY = values[to - 1];
             }
-        }
-        html.append("];\n\n");
-        
-        // SMA50 (daily downsampled)
-        html.append("        var sma50 = [");
-        for (int i = 0; i < dailyDates.size(); i++) {
-            if (i > 0) html.append(", ");
-            String dateStr = dailyDates.get(i);
-            int hourlyIndex = startIndex;
-            for (int j = startIndex; j < data.size(); j++) {
-                if (dateOnlyFormat.format(new Date(data.get(j).getTimestamp())).equals(dateStr)) {
-                    hourlyIndex = j;
-                } else if (dateOnlyFormat.format(new Date(data.get(j).getTimestamp())).compareTo(dateStr) > 0) {
-                    break;
+            
+            // Point forming the largest triangle with the previous selection and the next average
+            double maxArea = -1;
+            int chosen = bucketStart;
+            for (int j = bucketStart; j < bucketEnd; j++) {
+                double area = Math.abs((a - avgX) * (values[j] - values[a]) - (a - j) * (avgY - values[a]));
+                if (area > maxArea) {
+                    maxArea = area;
+                    chosen = j;
                 }
             }
-            if (hourlyIndex < sma50.length && !Double.isNaN(sma50[hourlyIndex])) {
-                html.append(String.format(Locale.US, "%.2f", sma50[hourlyIndex]));
-            } else {
-                html.append("null");
-            }
+            keep[chosen] = true;
+            a = chosen;
         }
-        html.append("];\n\n");
-        
-        // EMA12 (daily downsampled)
-        html.append("        var ema12 = [");
-        for (int i = 0; i < dailyDates.size(); i++) {
-            if (i > 0) html.append(", ");
-            String dateStr = dailyDates.get(i);
-            int hourlyIndex = startIndex;
-            for (int j = startIndex; j < data.size(); j++) {
-                if (dateOnlyFormat.format(new Date(data.get(j).getTimestamp())).equals(dateStr)) {
-                    hourlyIndex = j;
-                } else if (dateOnlyFormat.format(new Date(data.get(j).getTimestamp())).compareTo(dateStr) > 0) {
-                    break;
-                }
-            }
-            if (hourlyIndex < ema12.length && !Double.isNaN(ema12[hourlyIndex])) {
-                html.append(String.format(Locale.US, "%.2f", ema12[hourlyIndex]));
-            } else {
-                html.append("null");
-            }
+        keep[to - 1] = true;
+    }
+    
+    /**
+     * Write the given days of the model as a chart data object (JSON)
+     * Signal markers are shipped as positions within 'days'
+     * monthStart (position where the 1-month view begins) is only written when >= 0
+     */
+    private static void writeChartJson(HtmlStreamWriter out, ChartModel model, int[] days,
+                                       int monthStart) throws IOException {
+        out.append("{\"symbol\":");
+        appendJsonString(out, model.symbol);
+        if (monthStart >= 0) {
+            int pos = 0;
+            while (pos < days.length && days[pos] < monthStart) pos++;
+            out.append(",\"monthStart\":").append(pos);
         }
-        html.append("];\n\n");
-        
-        // RSI (daily downsampled)
-        html.append("        var rsi = [");
-        for (int i = 0; i < dailyDates.size(); i++) {
-            if (i > 0) html.append(", ");
-            String dateStr = dailyDates.get(i);
-            int hourlyIndex = startIndex;
-            for (int j = startIndex; j < data.size(); j++) {
-                if (dateOnlyFormat.format(new Date(data.get(j).getTimestamp())).equals(dateStr)) {
-                    hourlyIndex = j;
-                } else if (dateOnlyFormat.format(new Date(data.get(j).getTimestamp())).compareTo(dateStr) > 0) {
-                    break;
-                }
-            }
-            if (hourlyIndex < rsi.length && !Double.isNaN(rsi[hourlyIndex])) {
-                html.append(String.format(Locale.US, "%.2f", rsi[hourlyIndex]));
+        appendStringArray(out, "dates", model.dates, days);
+        appendNumberArray(out, "prices", model.closes, days, 2);
+        appendNumberArray(out, "opens", model.opens, days, 2);
+        appendNumberArray(out, "highs", model.highs, days, 2);
+        appendNumberArray(out, "lows", model.lows, days, 2);
+        appendNumberArray(out, "volumes", model.volumes, days);
+        appendNumberArray(out, "dailyChanges", model.changes, days, 2);
+        appendStringArray(out, "closingTimes", model.closingTimes, days);
+        appendStringArray(out, "signalTypes", model.signalTexts, days);
+        appendNumberArray(out, "sma20", model.sma20, days, 2);
+        appendNumberArray(out, "sma50", model.sma50, days, 2);
+        appendNumberArray(out, "ema12", model.ema12, days, 2);
+        appendNumberArray(out, "rsi", model.rsi, days, 2);
+        appendIndexArray(out, "alIdx", model.signalTypes, days, "AL");
+        appendIndexArray(out, "strongAlIdx", model.signalTypes, days, "GÜÇLÜ_AL");
+        appendIndexArray(out, "satIdx", model.signalTypes, days, "SAT");
+        appendIndexArray(out, "strongSatIdx", model.signalTypes, days, "GÜÇLÜ_SAT");
+        out.append('}');
+    }
+    
+    /**
+     * Chart rendering script shared by standalone pages and the shared viewer
+     * renderChart(d) draws one chart from a chart data object (see writeChartJson)
+     */
+    private static String getChartScript() {
+        return "        function renderChart(d) {\n"
+            + "            // Data preparation (daily aggregated)\n"
+            + "            var dates = d.dates, prices = d.prices, opens = d.opens, highs = d.highs, lows = d.lows;\n"
+            + "            var volumes = d.volumes, dailyChanges = d.dailyChanges, closingTimes = d.closingTimes, signalTypes = d.signalTypes;\n"
+            + "            var sma20 = d.sma20, sma50 = d.sma50, ema12 = d.ema12, rsi = d.rsi;\n\n"
+            + "            // Day names (Pazartesi, Salı, etc) derived from the date instead of shipping one string per day\n"
+            + "            var trDayNames = ['Pazar', 'Pazartesi', 'Salı', 'Çarşamba', 'Perşembe', 'Cuma', 'Cumartesi'];\n"
+            + "            var dayNames = dates.map(function(x) { return trDayNames[new Date(x + 'T12:00:00Z').getUTCDay()]; });\n\n"
+            + "            // BUY/SELL signals (4 types) - marker dates, prices and hover texts rebuilt from day indices\n"
+            + "            function signalText(i) {\n"
+            + "                return '<b>Tarih: ' + dates[i] + ' (' + dayNames[i] + ')</b><br>Açılış: ' + opens[i].toFixed(2) + ' TL<br>Kapanış: ' + prices[i].toFixed(2) + ' TL<br>Günlük Değişim: ' + dailyChanges[i].toFixed(2) + '%<br>Kapanış Saati: ' + closingTimes[i] + '<br>Sinyal: ' + signalTypes[i];\n"
+            + "            }\n"
+            + "            function pick(arr, idx) { return idx.map(function(i) { return arr[i]; }); }\n"
+            + "            var alDates = pick(dates, d.alIdx), alPrices = pick(prices, d.alIdx), alTexts = d.alIdx.map(signalText);\n"
+            + "            var strongAlDates = pick(dates, d.strongAlIdx), strongAlPrices = pick(prices, d.strongAlIdx), strongAlTexts = d.strongAlIdx.map(signalText);\n"
+            + "            var satDates = pick(dates, d.satIdx), satPrices = pick(prices, d.satIdx), satTexts = d.satIdx.map(signalText);\n"
+            + "            var strongSatDates = pick(dates, d.strongSatIdx), strongSatPrices = pick(prices, d.strongSatIdx), strongSatTexts = d.strongSatIdx.map(signalText);\n\n"
+            + "            // Build custom data for hover template\n"
+            + "            var customdata = [];\n"
+            + "            for (let i = 0; i < dates.length; i++) {\n"
+            + "                customdata.push([opens[i], dailyChanges[i], closingTimes[i], signalTypes[i], dayNames[i], volumes[i]]);\n"
+            + "            }\n\n"
+            + "            // Price chart traces\n"
+            + "            var tracePrice = {\n"
+            + "                x: dates,\n"
+            + "                y: prices,\n"
+            + "                customdata: customdata,\n"
+            + "                type: 'scatter',\n"
+            + "                mode: 'lines',\n"
+            + "                name: 'Kapanış Fiyatı',\n"
+            + "                line: { color: '#1a1a1a', width: 2 },\n"
+            + "                hovertemplate: '<b>Tarih: %{x} (%{customdata[4]})</b><br>Açılış: %{customdata[0]:.2f} TL<br>Kapanış: %{y:.2f} TL<br>Günlük Değişim: %{customdata[1]:.2f}%<br>Kapanış Saati: %{customdata[2]}<br>Günlük Hacim: %{customdata[5]:,.0f}<br>Sinyal: %{customdata[3]}<extra></extra>',\n"
+            + "                yaxis: 'y'\n"
+            + "            };\n\n"
+            + "            var traceSMA20 = {\n"
+            + "                x: dates,\n"
+            + "                y: sma20,\n"
+            + "                type: 'scatter',\n"
+            + "                mode: 'lines',\n"
+            + "                name: 'SMA20',\n"
+            + "                line: { color: '#4285F4', width: 1.5, dash: 'dot' },\n"
+            + "                hovertemplate: '<b>%{x|%Y-%m-%d %H:%M}</b><br>SMA20: %{y:.2f} TL<extra></extra>',\n"
+            + "                visible: false,\n"
+            + "                yaxis: 'y'\n"
+            + "            };\n\n"
+            + "            var traceSMA50 = {\n"
+            + "                x: dates,\n"
+            + "                y: sma50,\n"
+            + "                type: 'scatter',\n"
+            + "                mode: 'lines',\n"
+            + "                name: 'SMA50',\n"
+            + "                line: { color: '#FBBC05', width: 1.5, dash: 'dot' },\n"
+            + "                hovertemplate: '<b>%{x|%Y-%m-%d %H:%M}</b><br>SMA50: %{y:.2f} TL<extra></extra>',\n"
+            + "                visible: false,\n"
+            + "                yaxis: 'y'\n"
+            + "            };\n\n"
+            + "            var traceEMA12 = {\n"
+            + "                x: dates,\n"
+            + "                y: ema12,\n"
+            + "                type: 'scatter',\n"
+            + "                mode: 'lines',\n"
+            + "                name: 'EMA12',\n"
+            + "                line: { color: '#34D399', width: 1.5, dash: 'dash' },\n"
+            + "                hovertemplate: '<b>%{x|%Y-%m-%d %H:%M}</b><br>EMA12: %{y:.2f} TL<extra></extra>',\n"
+            + "                visible: false,\n"
+            + "                yaxis: 'y'\n"
+            + "            };\n\n"
+            + "            var traceAlSignals = {\n"
+            + "                x: alDates,\n"
+            + "                y: alPrices,\n"
+            + "                text: alTexts,\n"
+            + "                type: 'scatter',\n"
+            + "                mode: 'markers',\n"
+            + "                name: 'AL Sinyali',\n"
+            + "                marker: { color: '#4ADE80', size: 12, symbol: 'triangle-up', line: { color: '#fff', width: 2 } },\n"
+            + "                hovertemplate: '%{text}<extra></extra>',\n"
+            + "                yaxis: 'y'\n"
+            + "            };\n\n"
+            + "            var traceStrongAlSignals = {\n"
+            + "                x: strongAlDates,\n"
+            + "                y: strongAlPrices,\n"
+            + "                text: strongAlTexts,\n"
+            + "                type: 'scatter',\n"
+            + "                mode: 'markers',\n"
+            + "                name: 'GÜÇLÜ AL Sinyali',\n"
+            + "                marker: { color: '#15803D', size: 13, symbol: 'triangle-up', line: { color: '#fff', width: 2 } },\n"
+            + "                hovertemplate: '%{text}<extra></extra>',\n"
+            + "                yaxis: 'y'\n"
+            + "            };\n\n"
+            + "            var traceSatSignals = {\n"
+            + "                x: satDates,\n"
+            + "                y: satPrices,\n"
+            + "                text: satTexts,\n"
+            + "                type: 'scatter',\n"
+            + "                mode: 'markers',\n"
+            + "                name: 'SAT Sinyali',\n"
+            + "                marker: { color: '#FB7185', size: 12, symbol: 'triangle-down', line: { color: '#fff', width: 2 } },\n"
+            + "                hovertemplate: '%{text}<extra></extra>',\n"
+            + "                yaxis: 'y'\n"
+            + "            };\n\n"
+            + "            var traceStrongSatSignals = {\n"
+            + "                x: strongSatDates,\n"
+            + "                y: strongSatPrices,\n"
+            + "                text: strongSatTexts,\n"
+            + "                type: 'scatter',\n"
+            + "                mode: 'markers',\n"
+            + "                name: 'GÜÇLÜ SAT Sinyali',\n"
+            + "                marker: { color: '#991B1B', size: 13, symbol: 'triangle-down', line: { color: '#fff', width: 2 } },\n"
+            + "                hovertemplate: '%{text}<extra></extra>',\n"
+            + "                yaxis: 'y'\n"
+            + "            };\n\n"
+            + "            // RSI chart trace (hidden)\n"
+            + "            var traceRSI = {\n"
+            + "                x: dates,\n"
+            + "                y: rsi,\n"
+            + "                type: 'scatter',\n"
+            + "                mode: 'lines',\n"
+            + "                name: 'RSI(14)',\n"
+            + "                line: { color: '#A855F7', width: 2 },\n"
+            + "                hovertemplate: '<b>%{x}</b><br>RSI: %{y:.1f}<extra></extra>',\n"
+            + "                visible: false,\n"
+            + "                showlegend: false,\n"
+            + "                yaxis: 'y2',\n"
+            + "                xaxis: 'x'\n"
+            + "            };\n\n"
+            + "            var traceVolume = {\n"
+            + "                x: dates,\n"
+            + "                y: volumes,\n"
+            + "                type: 'bar',\n"
+            + "                mode: 'markers',\n"
+            + "                name: 'Hacim',\n"
+            + "                marker: { color: 'rgba(68, 85, 102, 0.5)' },\n"
+            + "                hovertemplate: '<b>Tarih: %{x|%Y-%m-%d}</b><br>Hacim: %{y:,.0f}<extra></extra>',\n"
+            + "                visible: true,\n"
+            + "                yaxis: 'y2',\n"
+            + "                xaxis: 'x'\n"
+            + "            };\n\n"
+            + "            var traceRSI70 = {\n"
+            + "                x: dates,\n"
+            + "                y: Array(dates.length).fill(70),\n"
+            + "                type: 'scatter',\n"
+            + "                mode: 'lines',\n"
+            + "                name: 'RSI 70 (Aşırı Alım)',\n"
+            + "                line: { color: '#EF4444', width: 1, dash: 'dash' },\n"
+            + "                visible: false,\n"
+            + "                showlegend: false,\n"
+            + "                hoverinfo: 'skip',\n"
+            + "                yaxis: 'y2',\n"
+            + "                xaxis: 'x'\n"
+            + "            };\n\n"
+            + "            var traceRSI30 = {\n"
+            + "                x: dates,\n"
+            + "                y: Array(dates.length).fill(30),\n"
+            + "                type: 'scatter',\n"
+            + "                mode: 'lines',\n"
+            + "                name: 'RSI 30 (Aşırı Satış)',\n"
+            + "                line: { color: '#22C55E', width: 1, dash: 'dash' },\n"
+            + "                visible: false,\n"
+            + "                showlegend: false,\n"
+            + "                hoverinfo: 'skip',\n"
+            + "                yaxis: 'y2',\n"
+            + "                xaxis: 'x'\n"
+            + "            };\n\n"
+            + "            // Layout configuration\n"
+            + "            var layout = {\n"
+            + "                title: {\n"
+            + "                    text: d.symbol + ' - Teknik Analiz',\n"
+            + "                    font: { size: 18, color: '#1a1a1a' }\n"
+            + "                },\n"
+            + "                xaxis: {\n"
+            + "                    title: 'Tarih',\n"
+            + "                    type: 'date',\n"
+            + "                    tickformat: '%Y-%m',\n"
+            + "                    nticks: 12,\n"
+            + "                    showgrid: true,\n"
+            + "                    gridcolor: '#e5e5e5'\n"
+            + "                },\n"
+            + "                yaxis: {\n"
+            + "                    title: 'Fiyat (₺)',\n"
+            + "                    domain: [0.3, 1],\n"
+            + "                    showgrid: true,\n"
+            + "                    gridcolor: '#e5e5e5'\n"
+            + "                },\n"
+            + "                yaxis2: {\n"
+            + "                    title: 'Hacim',\n"
+            + "                    domain: [0, 0.25],\n"
+            + "                    showgrid: true,\n"
+            + "                    gridcolor: '#e5e5e5'\n"
+            + "                },\n"
+            + "                hovermode: 'closest',\n"
+            + "                plot_bgcolor: '#fafafa',\n"
+            + "                paper_bgcolor: '#ffffff',\n"
+            + "                font: { family: 'Segoe UI, Arial', size: 12 },\n"
+            + "                legend: {\n"
+            + "                    x: 0,\n"
+            + "                    y: 1.1,\n"
+            + "                    orientation: 'h',\n"
+            + "                    bgcolor: 'rgba(255,255,255,0.9)',\n"
+            + "                    bordercolor: '#e5e5e5',\n"
+            + "                    borderwidth: 1\n"
+            + "                },\n"
+            + "                margin: { t: 100, b: 80, l: 80, r: 50 }\n"
+            + "            };\n\n"
+            + "            var config = {\n"
+            + "                responsive: true,\n"
+            + "                displayModeBar: true,\n"
+            + "                displaylogo: false,\n"
+            + "                modeBarButtonsToRemove: ['toImage', 'sendDataToCloud'],\n"
+            + "                locale: 'tr'\n"
+            + "            };\n\n"
+            + "            // Render chart\n"
+            + "            var data = [tracePrice, traceSMA20, traceSMA50, traceEMA12, traceAlSignals, traceStrongAlSignals, traceSatSignals, traceStrongSatSignals, traceVolume, traceRSI, traceRSI70, traceRSI30];\n"
+            + "            Plotly.newPlot('chart', data, layout, config);\n"
+            + "        }\n\n"
+            + "        // Restrict chart data to days [from, end) - used by the shared viewer for the 1-month view\n"
+            + "        function sliceChartData(d, from) {\n"
+            + "            if (!from) return d;\n"
+            + "            var out = {};\n"
+            + "            Object.keys(d).forEach(function(k) {\n"
+            + "                var v = d[k];\n"
+            + "                if (!Array.isArray(v)) out[k] = v;\n"
+            + "                else if (/Idx$/.test(k)) out[k] = v.filter(function(i) { return i >= from; }).map(function(i) { return i - from; });\n"
+            + "                else out[k] = v.slice(from);\n"
+            + "            });\n"
+            + "            return out;\n"
+            + "        }\n";
+    }
+    
+    /**
+     * Indicator value at a bar index, NaN when the index is outside the array
+     */
+    private static double valueAt(double[] values, int index) {
+        return index >= 0 && index < values.length ? values[index] : Double.NaN;
+    }
+    
+    /**
+     * Write ,"name":[..] for values at the given days with fixed precision numbers, NaN/Infinity become null
+     */
+    private static void appendNumberArray(HtmlStreamWriter out, String name, double[] values,
+                                          int[] days, int decimals) throws IOException {
+        out.append(",\"").append(name).append("\":[");
+        for (int i = 0; i < days.length; i++) {
+            if (i > 0) out.append(',');
+            double v = values[days[i]];
+            if (Double.isNaN(v) || Double.isInfinite(v)) {
+                out.append("null");
             } else {
-                html.append("null");
+                out.appendFixed(v, decimals);
             }
         }
-        html.append("];\n\n");
-        
-        // Build BUY/SELL signals from daily data
-        html.append("        // BUY/SELL signals (4 types)\n");
-        html.append("        var alDates = [], alPrices = [], alTexts = [];\n");
-        html.append("        var strongAlDates = [], strongAlPrices = [], strongAlTexts = [];\n");
-        html.append("        var satDates = [], satPrices = [], satTexts = [];\n");
-        html.append("        var strongSatDates = [], strongSatPrices = [], strongSatTexts = [];\n");
-        
-        for (int i = 0; i < dailyDates.size(); i++) {
-            String dailyDate = dailyDates.get(i);
-            if (signalsByDay.containsKey(dailyDate)) {
-                SignalData sig = signalsByDay.get(dailyDate);
-                double price = dailyCloses.get(i);
-                double open = dailyOpens.get(i);
-                double change = dailyChanges.get(i);
-                String closingTime = closingTimes.get(i);
-                String dayName = dayNames.get(i);
-                // Build complete hover text with all fields (removed redundant Sinyal Saati)
-                String displayText = "<b>Tarih: "+dailyDate+" ("+dayName+")</b><br>Açılış: "+String.format(Locale.US, "%.2f", open)+" TL<br>Kapanış: "+String.format(Locale.US, "%.2f", price)+" TL<br>Günlük Değişim: "+String.format(Locale.US, "%.2f", change)+"%<br>Kapanış Saati: "+closingTime+"<br>Sinyal: "+sig.reason;
-                
-                if (sig.type.equals("AL")) {
-                    html.append("        alDates.push('").append(dailyDate).append("');\n");
-                    html.append("        alPrices.push(").append(String.format(Locale.US, "%.2f", price)).append(");\n");
-                    html.append("        alTexts.push('").append(displayText).append("');\n");
-                } else if (sig.type.equals("GÜÇLÜ_AL")) {
-                    html.append("        strongAlDates.push('").append(dailyDate).append("');\n");
-                    html.append("        strongAlPrices.push(").append(String.format(Locale.US, "%.2f", price)).append(");\n");
-                    html.append("        strongAlTexts.push('").append(displayText).append("');\n");
-                } else if (sig.type.equals("SAT")) {
-                    html.append("        satDates.push('").append(dailyDate).append("');\n");
-                    html.append("        satPrices.push(").append(String.format(Locale.US, "%.2f", price)).append(");\n");
-                    html.append("        satTexts.push('").append(displayText).append("');\n");
-                } else if (sig.type.equals("GÜÇLÜ_SAT")) {
-                    html.append("        strongSatDates.push('").append(dailyDate).append("');\n");
-                    html.append("        strongSatPrices.push(").append(String.format(Locale.US, "%.2f", price)).append(");\n");
-                    html.append("        strongSatTexts.push('").append(displayText).append("');\n");
-                }
-            }
+        out.append(']');
+    }
+    
+    private static void appendNumberArray(HtmlStreamWriter out, String name, long[] values,
+                                          int[] days) throws IOException {
+        out.append(",\"").append(name).append("\":[");
+        for (int i = 0; i < days.length; i++) {
+            if (i > 0) out.append(',');
+            out.append(values[days[i]]);
         }
-        html.append("\n");
-        
-        // Create Plotly traces
-        html.append("        // Build custom data for hover template\n");
-        html.append("        var customdata = [];\n");
-        html.append("        for (let i = 0; i < dates.length; i++) {\n");
-        html.append("            customdata.push([opens[i], dailyChanges[i], closingTimes[i], signalTypes[i], dayNames[i], volumes[i]]);\n");
-        html.append("        }\n\n");
-        
-        html.append("        // Price chart traces\n");
-        html.append("        var tracePrice = {\n");
-        html.append("            x: dates,\n");
-        html.append("            y: prices,\n");
-        html.append("            customdata: customdata,\n");
-        html.append("            type: 'scatter',\n");
-        html.append("            mode: 'lines',\n");
-        html.append("            name: 'Kapanış Fiyatı',\n");
-        html.append("            line: { color: '#1a1a1a', width: 2 },\n");
-        html.append("            hovertemplate: '<b>Tarih: %{x} (%{customdata[4]})</b><br>Açılış: %{customdata[0]:.2f} TL<br>Kapanış: %{y:.2f} TL<br>Günlük Değişim: %{customdata[1]:.2f}%<br>Kapanış Saati: %{customdata[2]}<br>Günlük Hacim: %{customdata[5]:,.0f}<br>Sinyal: %{customdata[3]}<extra></extra>',\n");
-        html.append("            yaxis: 'y'\n");
-        html.append("        };\n\n");
-        
-        html.append("        var traceSMA20 = {\n");
-        html.append("            x: dates,\n");
-        html.append("            y: sma20,\n");
-        html.append("            type: 'scatter',\n");
-        html.append("            mode: 'lines',\n");
-        html.append("            name: 'SMA20',\n");
-        html.append("            line: { color: '#4285F4', width: 1.5, dash: 'dot' },\n");
-        html.append("            hovertemplate: '<b>%{x|%Y-%m-%d %H:%M}</b><br>SMA20: %{y:.2f} TL<extra></extra>',\n");
-        html.append("            visible: false,\n");
-        html.append("            yaxis: 'y'\n");
-        html.append("        };\n\n");
-        
-        html.append("        var traceSMA50 = {\n");
-        html.append("            x: dates,\n");
-        html.append("            y: sma50,\n");
-        html.append("            type: 'scatter',\n");
-        html.append("            mode: 'lines',\n");
-        html.append("            name: 'SMA50',\n");
-        html.append("            line: { color: '#FBBC05', width: 1.5, dash: 'dot' },\n");
-        html.append("            hovertemplate: '<b>%{x|%Y-%m-%d %H:%M}</b><br>SMA50: %{y:.2f} TL<extra></extra>',\n");
-        html.append("            visible: false,\n");
-        html.append("            yaxis: 'y'\n");
-        html.append("        };\n\n");
-        
-        html.append("        var traceEMA12 = {\n");
-        html.append("            x: dates,\n");
-        html.append("            y: ema12,\n");
-        html.append("            type: 'scatter',\n");
-        html.append("            mode: 'lines',\n");
-        html.append("            name: 'EMA12',\n");
-        html.append("            line: { color: '#34D399', width: 1.5, dash: 'dash' },\n");
-        html.append("            hovertemplate: '<b>%{x|%Y-%m-%d %H:%M}</b><br>EMA12: %{y:.2f} TL<extra></extra>',\n");
-        html.append("            visible: false,\n");
-        html.append("            yaxis: 'y'\n");
-        html.append("        };\n\n");
-        
-        // AL signals (open green)
-        html.append("        var traceAlSignals = {\n");
-        html.append("            x: alDates,\n");
-        html.append("            y: alPrices,\n");
-        html.append("            text: alTexts,\n");
-        html.append("            type: 'scatter',\n");
-        html.append("            mode: 'markers',\n");
-        html.append("            name: 'AL Sinyali',\n");
-        html.append("            marker: { color: '#4ADE80', size: 12, symbol: 'triangle-up', line: { color: '#fff', width: 2 } },\n");
-        html.append("            hovertemplate: '%{text}<extra></extra>',\n");
-        html.append("            yaxis: 'y'\n");
-        html.append("        };\n\n");
-        
-        // GÜÇLÜ AL signals (dark green)
-        html.append("        var traceStrongAlSignals = {\n");
-        html.append("            x: strongAlDates,\n");
-        html.append("            y: strongAlPrices,\n");
-        html.append("            text: strongAlTexts,\n");
-        html.append("            type: 'scatter',\n");
-        html.append("            mode: 'markers',\n");
-        html.append("            name: 'GÜÇLÜ AL Sinyali',\n");
-        html.append("            marker: { color: '#15803D', size: 13, symbol: 'triangle-up', line: { color: '#fff', width: 2 } },\n");
-        html.append("            hovertemplate: '%{text}<extra></extra>',\n");
-        html.append("            yaxis: 'y'\n");
-        html.append("        };\n\n");
-        
-        // SAT signals (open red)
-        html.append("        var traceSatSignals = {\n");
-        html.append("            x: satDates,\n");
-        html.append("            y: satPrices,\n");
-        html.append("            text: satTexts,\n");
-        html.append("            type: 'scatter',\n");
-        html.append("            mode: 'markers',\n");
-        html.append("            name: 'SAT Sinyali',\n");
-        html.append("            marker: { color: '#FB7185', size: 12, symbol: 'triangle-down', line: { color: '#fff', width: 2 } },\n");
-        html.append("            hovertemplate: '%{text}<extra></extra>',\n");
-        html.append("            yaxis: 'y'\n");
-        html.append("        };\n\n");
-        
-        // GÜÇLÜ SAT signals (dark red)
-        html.append("        var traceStrongSatSignals = {\n");
-        html.append("            x: strongSatDates,\n");
-        html.append("            y: strongSatPrices,\n");
-        html.append("            text: strongSatTexts,\n");
-        html.append("            type: 'scatter',\n");
-        html.append("            mode: 'markers',\n");
-        html.append("            name: 'GÜÇLÜ SAT Sinyali',\n");
-        html.append("            marker: { color: '#991B1B', size: 13, symbol: 'triangle-down', line: { color: '#fff', width: 2 } },\n");
-        html.append("            hovertemplate: '%{text}<extra></extra>',\n");
-        html.append("            yaxis: 'y'\n");
-        html.append("        };\n\n");
-        
-        // RSI trace (hidden - replaced with volume)
-        html.append("        // RSI chart trace (hidden)\n");
-        html.append("        var traceRSI = {\n");
-        html.append("            x: dates,\n");
-        html.append("            y: rsi,\n");
-        html.append("            type: 'scatter',\n");
-        html.append("            mode: 'lines',\n");
-        html.append("            name: 'RSI(14)',\n");
-        html.append("            line: { color: '#A855F7', width: 2 },\n");
-        html.append("            hovertemplate: '<b>%{x}</b><br>RSI: %{y:.1f}<extra></extra>',\n");
-        html.append("            visible: false,\n");
-        html.append("            showlegend: false,\n");
-        html.append("            yaxis: 'y2',\n");
-        html.append("            xaxis: 'x'\n");
-        html.append("        };\n\n");
-        
-        // Volume bars trace
-        html.append("        var traceVolume = {\n");
-        html.append("            x: dates,\n");
-        html.append("            y: volumes,\n");
-        html.append("            type: 'bar',\n");
-        html.append("            mode: 'markers',\n");
-        html.append("            name: 'Hacim',\n");
-        html.append("            marker: { color: 'rgba(68, 85, 102, 0.5)' },\n");
-        html.append("            hovertemplate: '<b>Tarih: %{x|%Y-%m-%d}</b><br>Hacim: %{y:,.0f}<extra></extra>',\n");
-        html.append("            visible: true,\n");
-        html.append("            yaxis: 'y2',\n");
-        html.append("            xaxis: 'x'\n");
-        html.append("        };\n\n");
-        
-        // RSI reference lines (70=overbought, 30=oversold)
-        html.append("        var traceRSI70 = {\n");
-        html.append("            x: dates,\n");
-        html.append("            y: Array(dates.length).fill(70),\n");
-        html.append("            type: 'scatter',\n");
-        html.append("            mode: 'lines',\n");
-        html.append("            name: 'RSI 70 (Aşırı Alım)',\n");
-        html.append("            line: { color: '#EF4444', width: 1, dash: 'dash' },\n");
-        html.append("            visible: false,\n");
-        html.append("            showlegend: false,\n");
-        html.append("            hoverinfo: 'skip',\n");
-        html.append("            yaxis: 'y2',\n");
-        html.append("            xaxis: 'x'\n");
-        html.append("        };\n\n");
-        
-        html.append("        var traceRSI30 = {\n");
-        html.append("            x: dates,\n");
-        html.append("            y: Array(dates.length).fill(30),\n");
-        html.append("            type: 'scatter',\n");
-        html.append("            mode: 'lines',\n");
-        html.append("            name: 'RSI 30 (Aşırı Satış)',\n");
-        html.append("            line: { color: '#22C55E', width: 1, dash: 'dash' },\n");
-        html.append("            visible: false,\n");
-        html.append("            showlegend: false,\n");
-        html.append("            hoverinfo: 'skip',\n");
-        html.append("            yaxis: 'y2',\n");
-        html.append("            xaxis: 'x'\n");
-        html.append("        };\n\n");
-        
-        // Layout with subplots
-        html.append("        // Layout configuration\n");
-        html.append("        var layout = {\n");
-        html.append("            title: {\n");
-        html.append("                text: '").append(symbol).append(" - Teknik Analiz',\n");
-        html.append("                font: { size: 18, color: '#1a1a1a' }\n");
-        html.append("            },\n");
-        html.append("            xaxis: {\n");
-        html.append("                title: 'Tarih',\n");
-        html.append("                type: 'date',\n");
-        html.append("                tickformat: '%Y-%m',\n");
-        html.append("                nticks: 12,\n");
-        html.append("                showgrid: true,\n");
-        html.append("                gridcolor: '#e5e5e5'\n");
-        html.append("            },\n");
-        html.append("            yaxis: {\n");
-        html.append("                title: 'Fiyat (₺)',\n");
-        html.append("                domain: [0.3, 1],\n"); // Top 70% of chart
-        html.append("                showgrid: true,\n");
-        html.append("                gridcolor: '#e5e5e5'\n");
-        html.append("            },\n");
-        html.append("            yaxis2: {\n");
-        html.append("                title: 'Hacim',\n");
-        html.append("                domain: [0, 0.25],\n"); // Bottom 25% of chart
-        html.append("                showgrid: true,\n");
-        html.append("                gridcolor: '#e5e5e5'\n");
-        html.append("            },\n");
-        html.append("            hovermode: 'closest',\n");
-        html.append("            plot_bgcolor: '#fafafa',\n");
-        html.append("            paper_bgcolor: '#ffffff',\n");
-        html.append("            font: { family: 'Segoe UI, Arial', size: 12 },\n");
-        html.append("            legend: {\n");
-        html.append("                x: 0,\n");
-        html.append("                y: 1.1,\n");
-        html.append("                orientation: 'h',\n");
-        html.append("                bgcolor: 'rgba(255,255,255,0.9)',\n");
-        html.append("                bordercolor: '#e5e5e5',\n");
-        html.append("                borderwidth: 1\n");
-        html.append("            },\n");
-        html.append("            margin: { t: 100, b: 80, l: 80, r: 50 }\n");
-        html.append("        };\n\n");
-        
-        // Config
-        html.append("        var config = {\n");
-        html.append("            responsive: true,\n");
-        html.append("            displayModeBar: true,\n");
-        html.append("            displaylogo: false,\n");
-        html.append("            modeBarButtonsToRemove: ['toImage', 'sendDataToCloud'],\n");
-        html.append("            locale: 'tr'\n");
-        html.append("        };\n\n");
-        
-        // Plot
-        html.append("        // Render chart\n");
-        html.append("        var data = [tracePrice, traceSMA20, traceSMA50, traceEMA12, traceAlSignals, traceStrongAlSignals, traceSatSignals, traceStrongSatSignals, traceVolume, traceRSI, traceRSI70, traceRSI30];\n");
-        html.append("        Plotly.newPlot('chart', data, layout, config);\n");
-        
-        html.append("    </script>\n");
-        html.append("</body>\n");
-        html.append("</html>");
-        
-        // Write to file with UTF-8 encoding (fixes Turkish characters and ₺ symbol)
-        String htmlPath = outputPath.replace(".png", oneMonthOnly ? "_1m.html" : ".html");
-        try (OutputStreamWriter writer = new OutputStreamWriter(new FileOutputStream(htmlPath), StandardCharsets.UTF_8)) {
-            writer.write(html.toString());
+        out.append(']');
+    }
+    
+    // Positions within 'days' whose signal type is 'type'
+    private static void appendIndexArray(HtmlStreamWriter out, String name, String[] types, int[] days,
+                                         String type) throws IOException {
+        out.append(",\"").append(name).append("\":[");
+        boolean first = true;
+        for (int i = 0; i < days.length; i++) {
+            if (!type.equals(types[days[i]])) continue;
+            if (!first) out.append(',');
+            out.append(i);
+            first = false;
         }
-        
-        if (!oneMonthOnly) {
-            System.out.println("✅ İnteraktif grafik oluşturuldu: " + htmlPath);
+        out.append(']');
+    }
+    
+    private static void appendStringArray(HtmlStreamWriter out, String name, String[] values,
+                                          int[] days) throws IOException {
+        out.append(",\"").append(name).append("\":[");
+        for (int i = 0; i < days.length; i++) {
+            if (i > 0) out.append(',');
+            appendJsonString(out, values[days[i]]);
+        }
+        out.append(']');
+    }
+    
+    /**
+     * JSON string literal; '<' is escaped as well so the data can sit inside a <script> block
+     */
+    static void appendJsonString(Appendable out, String value) throws IOException {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.append('\\').append(c);
+            } else if (c < 0x20 || c == '<') {
+                out.append(String.format("\\u%04x", (int) c));
+            } else {
+                out.append(c);
+            }
         }
+        out.append('"');
     }
     
     /**
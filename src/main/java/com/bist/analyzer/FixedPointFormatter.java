@@ -0,0 +1,80 @@
+package com.bist.analyzer;
+
+import java.util.Locale;
+
+/**
+ * Fast fixed-precision double -> ASCII formatter for chart data arrays
+ * Replaces String.format(Locale.US, "%.2f", ...) in hot loops (no Formatter, no boxing)
+ * Writes into a caller supplied char[] so the same buffer can be reused for every value
+ *
+ * Not identical to String.format: value * 10^decimals is rounded half up as a double, so a decimal tie that
+ * is not exact in binary can round down (1.005 -> "1.00", String.format gives "1.01"), and a value that
+ * rounds to zero has no sign (-0.001 -> "0.00", String.format gives "-0.00"). Fine for chart data.
+ */
+final class FixedPointFormatter {
+
+    // Minimum buffer size needed for one value (sign, 20 integer digits, '.', 10 decimals)
+    static final int MAX_CHARS = 32;
+
+    // From this magnitude on the rare path switches to exponent notation, so one value always fits MAX_CHARS
+    private static final double MAX_FIXED = 1e20;
+    private static final int MAX_DECIMALS = 10;
+
+    private static final long[] POW10 = {1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L};
+
+    // Above this magnitude value * 10^decimals no longer fits comfortably in a long
+    private static final double FAST_PATH_LIMIT = 1e12;
+
+    private FixedPointFormatter() {
+    }
+
+    /**
+     * Format value with the given number of decimals into buf starting at pos
+     * Returns the position after the last written char
+     * Only finite values are supported - callers decide how NaN/Infinity is rendered
+     * Magnitudes of 1e20 and above are written in exponent notation ("%.Ne"); at most 10 decimals
+     */
+    static int format(double value, int decimals, char[] buf, int pos) {
+        if (decimals < 0 || decimals > MAX_DECIMALS) {
+            throw new IllegalArgumentException("Unsupported number of decimals: " + decimals);
+        }
+        double magnitude = Math.abs(value);
+        if (magnitude >= FAST_PATH_LIMIT || decimals >= POW10.length) {
+            // Rare path: very large numbers or many decimals, String.format bounded to MAX_CHARS
+            String s = String.format(Locale.US, "%." + decimals + (magnitude < MAX_FIXED ? "f" : "e"), value);
+            s.getChars(0, s.length(), buf, pos);
+            return pos + s.length();
+        }
+
+        long scale = POW10[decimals];
+        long scaled = Math.round(Math.abs(value) * scale);
+        if (value < 0 && scaled != 0) {
+            buf[pos++] = '-';
+        }
+
+        long intPart = scaled / scale;
+        long fracPart = scaled % scale;
+
+        // Integer digits (written backwards into a small scratch area, then reversed)
+        int start = pos;
+        do {
+            buf[pos++] = (char) ('0' + (intPart % 10));
+            intPart /= 10;
+        } while (intPart > 0);
+        for (int i = start, j = pos - 1; i < j; i++, j--) {
+            char tmp = buf[i];
+            buf[i] = buf[j];
+            buf[j] = tmp;
+        }
+
+        if (decimals > 0) {
+            buf[pos++] = '.';
+            for (int d = decimals - 1; d >= 0; d--) {
+                buf[pos + d] = (char) ('0' + (fracPart % 10));
+                fracPart /= 10;
+            }
+            pos += decimals;
+        }
+        return pos;
+    }
+}
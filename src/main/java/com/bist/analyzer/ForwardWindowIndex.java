@@ -0,0 +1,99 @@
+package com.bist.analyzer;
+
+import java.util.List;
+
+/**
+ * Highest high / lowest low of the next h bars for every bar, for a fixed set of horizons
+ * Each horizon is one right-to-left pass with a monotonic deque, so building is linear in bars
+ * and every (index, horizon) query is a single array read.
+ * The window of bar i is i+1 .. i+h, clipped at the last bar (NaN when empty).
+ * Can be limited to a range of bars [from, to) when only those are queried.
+ */
+final class ForwardWindowIndex {
+
+    private final int from;
+    private final double[][] maxHigh;   // [horizon][index - from], null for horizons that were not built
+    private final double[][] minLow;
+
+    private ForwardWindowIndex(int from, int maxHorizon) {
+        this.from = from;
+        this.maxHigh = new double[maxHorizon + 1][];
+        this.minLow = new double[maxHorizon + 1][];
+    }
+
+    static ForwardWindowIndex build(List<StockData> data, int... horizons) {
+        return build(data, 0, data.size(), horizons);
+    }
+
+    /**
+     * Index for the bars from .. to-1 only (their windows may still reach past to)
+     */
+    static ForwardWindowIndex build(List<StockData> data, int from, int to, int[] horizons) {
+        int maxHorizon = 0;
+        for (int h : horizons) {
+            maxHorizon = Math.max(maxHorizon, h);
+        }
+        from = Math.max(0, from);
+        to = Math.max(from, Math.min(to, data.size()));
+        ForwardWindowIndex index = new ForwardWindowIndex(from, maxHorizon);
+
+        // Bars from .. last are the only ones any window of the range can touch
+        int last = Math.min(data.size() - 1, to - 1 + maxHorizon);
+        int count = Math.max(0, last - from + 1);
+        double[] high = new double[count];
+        double[] low = new double[count];
+        for (int i = 0; i < count; i++) {
+            StockData bar = data.get(from + i);
+            high[i] = bar.getHigh();
+            low[i] = bar.getLow();
+        }
+
+        int[] deque = new int[count];
+        for (int h : horizons) {
+            if (h < 1 || index.maxHigh[h] != null) continue;
+            index.maxHigh[h] = forwardExtreme(high, to - from, h, true, deque);
+            index.minLow[h] = forwardExtreme(low, to - from, h, false, deque);
+        }
+        return index;
+    }
+
+    /**
+     * Highest high of bars index+1 .. index+horizon (NaN if index is the last bar)
+     */
+    double maxHigh(int index, int horizon) {
+        return maxHigh[horizon][index - from];
+    }
+
+    /**
+     * Lowest low of bars index+1 .. index+horizon (NaN if index is the last bar)
+     */
+    double minLow(int index, int horizon) {
+        return minLow[horizon][index - from];
+    }
+
+    // Sliding window extreme walking right to left; the deque holds bar indices, newest (smallest) at the tail
+    // Only the first `count` results are kept, the remaining values just fill the windows
+    private static double[] forwardExtreme(double[] values, int count, int horizon, boolean max, int[] deque) {
+        int n = values.length;
+        double[] result = new double[count];
+        int head = 0;
+        int tail = 0;
+        for (int i = n - 1; i >= 0; i--) {
+            int next = i + 1;
+            if (next < n) {
+                double value = values[next];
+                while (tail > head && (max ? values[deque[tail - 1]] <= value : values[deque[tail - 1]] >= value)) {
+                    tail--;
+                }
+                deque[tail++] = next;
+            }
+            while (tail > head && deque[head] > i + horizon) {
+                head++;
+            }
+            if (i < count) {
+                result[i] = tail > head ? values[deque[head]] : Double.NaN;
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,13 @@
+package com.bist.analyzer;
+
+import org.apache.commons.net.ftp.FTPClient;
+import java.io.IOException;
+
+/**
+ * Opens a logged-in FTP control connection positioned in the upload root directory
+ * Lets the uploader be pointed at a local FTP stand-in (or a fake client) in tests
+ */
+public interface FtpConnectionFactory {
+
+    FTPClient connect() throws IOException;
+}
@@ -2,21 +2,45 @@ package com.bist.analyzer;
 
 import org.apache.commons.net.ftp.FTP;
 import org.apache.commons.net.ftp.FTPClient;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.stream.Stream;
 
 public class FtpReportUploader {
     
+    // Manifest of uploaded files (relative path -> "sha256 size"), kept next to the report locally and on the server
+    static final String MANIFEST_FILE = ".upload-manifest";
+    private static final String STALE_ENTRY = "stale 0";
+    
+    // Files are uploaded under this suffix and renamed into place once everything has arrived
+    private static final String STAGING_SUFFIX = ".uploading";
+    
+    // Parallel control connections used for chart uploads
+    private static final int DEFAULT_CONNECTIONS = 4;
+    
     private String host;
     private int port;
     private String username;
     private String password;
     private String remotePath;
     private boolean useFtps;
+    private final FtpConnectionFactory connectionFactory;
+    private int parallelConnections = DEFAULT_CONNECTIONS;
     
     public FtpReportUploader(String host, int port, String username, String password, String remotePath) {
         this.host = host;
@@ -25,25 +49,36 @@ public class FtpReportUploader {
         this.password = password;
         this.remotePath = remotePath;
         this.useFtps = false;
+        this.connectionFactory = this::connect;
     }
     
     /**
-     * Upload report.html and all chart files to FTP server
+     * Uploader on top of a custom connection factory (e.g. a local FTP stand-in)
      */
-    public void uploadReports(String localReportDir) {
+    public FtpReportUploader(FtpConnectionFactory connectionFactory, String remotePath) {
+        this.remotePath = remotePath;
+        this.connectionFactory = connectionFactory;
+    }
+    
+    public void setParallelConnections(int parallelConnections) {
+        this.parallelConnections = parallelConnections;
+    }
+    
+    /**
+     * Default connection: connect, login, binary mode, cd into remotePath
+     */
+    private FTPClient connect() throws IOException {
         FTPClient ftpClient = new FTPClient();
+        
+        // Remove ftp:// prefix if exists
+        String cleanHost = host.replace("ftp://", "").replace("https://", "");
+        ftpClient.connect(cleanHost, port);
+        
         try {
-            // Remove ftp:// prefix if exists
-            String cleanHost = host.replace("ftp://", "").replace("https://", "");
-            
-            System.out.println("🔗 FTP Sunucusuna bağlanıyor: " + cleanHost + ":" + port);
-            ftpClient.connect(cleanHost, port);
-            
             // Login
             if (!ftpClient.login(username, password)) {
                 throw new IOException("FTP login başarısız: " + username);
             }
-            System.out.println("✅ FTP'ye giriş yapıldı");
             
             // Set file type to binary
             ftpClient.setFileType(FTP.BINARY_FILE_TYPE);
@@ -52,34 +87,133 @@ public class FtpReportUploader {
             if (!ftpClient.changeWorkingDirectory(remotePath)) {
                 throw new IOException("Klasöre erişilemiyor: " + remotePath);
             }
-            System.out.println("📂 Klasör değiştirildi: " + remotePath);
+        } catch (IOException ex) {
+            ftpClient.disconnect();
+            throw ex;
+        }
+        return ftpClient;
+    }
+    
+    /**
+     * Upload report.html and all chart files to FTP server
+     * Delta upload: only files whose hash/size differ from the server's manifest are transferred,
+     * files that were uploaded earlier but no longer exist locally are deleted from the server
+     *
+     * Publishing is staged: uploads go to temporary names first, then everything is renamed into place
+     * in one quick burst (report.html last). FTP has no multi-file atomic switch, but the window in which
+     * readers can see a mixed state shrinks from the whole upload to a few rename round trips
+     */
+    public void uploadReports(String localReportDir) {
+        FTPClient ftpClient = null;
+        try {
+            long start = System.currentTimeMillis();
+            
+            // Local state: relative path -> "hash size"
+            Map<String, String> localFiles = collectLocalFiles(localReportDir);
+            
+            // Control connection: manifest, directories, renames and deletes
+            System.out.println("🔗 FTP Sunucusuna bağlanıyor" + (host != null ? ": " + host + ":" + port : ""));
+            ftpClient = connectionFactory.connect();
+            System.out.println("✅ FTP'ye giriş yapıldı, klasör: " + remotePath);
             
-            // Upload report.html
-            String reportPath = localReportDir + "/report.html";
-            uploadFile(ftpClient, reportPath, "report.html");
+            Path localManifest = Paths.get(localReportDir, MANIFEST_FILE);
+            Map<String, String> remoteFiles = readRemoteManifest(ftpClient, localManifest);
             
             // Create charts subdirectory if not exists
             if (!ftpClient.changeWorkingDirectory("charts")) {
                 if (!ftpClient.makeDirectory("charts")) {
                     System.out.println("⚠️  charts klasörü oluşturulamadı, devam ediliyor...");
                 } else {
-                    ftpClient.changeWorkingDirectory("charts");
                     System.out.println("📁 charts klasörü oluşturuldu");
                 }
             } else {
-                System.out.println("📁 charts klasörüne giriliyor");
+                ftpClient.changeToParentDirectory();
             }
             
-            // Upload all chart files
-            Path chartsDir = Paths.get(localReportDir, "charts");
-            if (Files.exists(chartsDir)) {
-                try (Stream<Path> stream = Files.list(chartsDir)) {
-                    stream.filter(path -> path.toString().endsWith(".html"))
-                          .forEach(path -> uploadFile(ftpClient, path.toString(), path.getFileName().toString()));
+            // New/changed files, report.html always last so it never links a chart that is not there yet
+            Map<String, String> uploaded = new TreeMap<>(remoteFiles);
+            List<String> changed = new ArrayList<>();
+            for (Map.Entry<String, String> entry : localFiles.entrySet()) {
+                if (!entry.getValue().equals(remoteFiles.get(entry.getKey()))) {
+                    changed.add(entry.getKey());
                 }
-                System.out.println("✅ Tüm chart dosyaları yüklendi");
             }
+            changed.sort((a, b) -> Boolean.compare(a.startsWith("report.html"), b.startsWith("report.html")));
             
+            // 1) Stage: everything (report included) is uploaded in parallel under a temporary name -
+            //    readers keep seeing the previous, consistent site for the whole (slow) transfer
+            Map<String, String> stagedUploads = new LinkedHashMap<>();
+            for (String file : changed) {
+                stagedUploads.put(Paths.get(localReportDir, file).toString(), file + STAGING_SUFFIX);
+            }
+            FtpUploadPool.Result poolResult = new FtpUploadPool(connectionFactory, parallelConnections).upload(stagedUploads);
+            Set<String> staged = new HashSet<>(poolResult.uploaded);
+            
+            // 2) Publish: rename burst on the control connection, charts first, report.html last
+            //    The report only switches when every staged chart went live
+            long bytes = 0;
+            int failed = 0;
+            boolean chartsComplete = true;
+            boolean reportPublished = true;      // The report readers see is the new one (or did not change)
+            for (String file : changed) {
+                boolean isReport = file.startsWith("report.html");
+                boolean ok = staged.contains(file + STAGING_SUFFIX)
+                    && (!isReport || chartsComplete)
+                    && publish(ftpClient, file);
+                if (ok) {
+                    uploaded.put(file, localFiles.get(file));
+                    bytes += entrySize(localFiles.get(file));
+                    continue;
+                }
+                
+                failed++;
+                boolean heldBack = isReport && !chartsComplete;
+                if (heldBack) {
+                    System.err.println("⚠️  Eksik grafikler var, eski report.html yayında kalıyor");
+                }
+                if (heldBack || !staged.contains(file + STAGING_SUFFIX)) {
+                    // Drop a partial or held-back temporary copy
+                    ftpClient.deleteFile(file + STAGING_SUFFIX);
+                }
+                if (isReport) {
+                    reportPublished = false;
+                } else {
+                    chartsComplete = false;
+                }
+                if (uploaded.containsKey(file)) {
+                    // Keep tracking the (old) remote copy, but with an entry that never matches so it is retried
+                    uploaded.put(file, STALE_ENTRY);
+                }
+            }
+            
+            // 3) Clean up files that we uploaded before but that no longer exist locally
+            //    Only once the new report is live: while the previous one stays up it may still link them,
+            //    so they are kept (and stay in the manifest) until a later run publishes the report
+            int deleted = 0;
+            if (!reportPublished) {
+                System.err.println("⚠️  Yeni rapor yayınlanmadı, eski dosyaların silinmesi sonraki çalışmaya bırakıldı");
+            } else {
+                for (String file : remoteFiles.keySet()) {
+                    if (localFiles.containsKey(file)) continue;
+                    if (ftpClient.deleteFile(file)) {
+                        System.out.println("🗑️  Silindi: " + file);
+                        deleted++;
+                        uploaded.remove(file);
+                    } else if (ftpClient.getReplyCode() == 550) {
+                        // Already gone on the server
+                        uploaded.remove(file);
+                    } else {
+                        System.err.println("⚠️  Silinemedi: " + file + " (" + ftpClient.getReplyString().trim() + ")");
+                    }
+                }
+            }
+            
+            writeManifest(ftpClient, uploaded, localManifest, !uploaded.equals(remoteFiles));
+            
+            System.out.println("📊 Delta yükleme: " + (changed.size() - failed) + " yüklendi, "
+                + (localFiles.size() - changed.size()) + " değişmedi, " + deleted + " silindi"
+                + (failed > 0 ? ", " + failed + " başarısız" : "")
+                + " (" + (bytes / 1024) + " KB, " + (System.currentTimeMillis() - start) + " ms)");
             System.out.println("✅ FTP yükleme tamamlandı!");
             
         } catch (IOException ex) {
@@ -98,23 +232,199 @@ public class FtpReportUploader {
         }
     }
     
-    private void uploadFile(FTPClient ftpClient, String localPath, String remoteFileName) {
+    /**
+     * Bundle mode: the whole output (plus .gz siblings of the text files) is packed into one archive
+     * and sent in a single transfer instead of one round trip per file
+     * The archive is staged + renamed like any other file, then bist-bundle.manifest (content list with
+     * hashes) is published - the receiving side extracts the archive when the manifest changes
+     */
+    public void uploadBundle(String localReportDir) {
+        FTPClient ftpClient = null;
         try {
-            Path path = Paths.get(localPath);
-            if (!Files.exists(path)) {
-                System.out.println("⚠️  Dosya bulunamadı: " + localPath);
-                return;
+            long start = System.currentTimeMillis();
+            
+            int gzipped = OutputBundler.writeGzipSiblings(localReportDir);
+            Map<String, String> contents = OutputBundler.pack(localReportDir);
+            Path bundle = Paths.get(localReportDir, OutputBundler.BUNDLE_FILE);
+            System.out.println("📦 Paket hazır: " + contents.size() + " dosya, " + (Files.size(bundle) / 1024) + " KB"
+                + (gzipped > 0 ? " (" + gzipped + " yeni .gz)" : ""));
+            
+            System.out.println("🔗 FTP Sunucusuna bağlanıyor" + (host != null ? ": " + host + ":" + port : ""));
+            ftpClient = connectionFactory.connect();
+            System.out.println("✅ FTP'ye giriş yapıldı, klasör: " + remotePath);
+            
+            // Same content already published - nothing to send
+            Map<String, String> remoteContents = retrieveManifest(ftpClient, OutputBundler.BUNDLE_MANIFEST_FILE);
+            if (remoteContents != null) {
+                remoteContents.remove(OutputBundler.BUNDLE_FILE);
+                if (remoteContents.equals(contents)) {
+                    System.out.println("✅ Paket içeriği değişmedi, yükleme atlandı");
+                    return;
+                }
             }
             
-            try (FileInputStream inputStream = new FileInputStream(localPath)) {
-                if (ftpClient.storeFile(remoteFileName, inputStream)) {
-                    System.out.println("📤 Yüklendi: " + remoteFileName);
-                } else {
-                    System.err.println("❌ Yükleme başarısız: " + remoteFileName);
+            String stagedName = OutputBundler.BUNDLE_FILE + STAGING_SUFFIX;
+            try (FileInputStream in = new FileInputStream(bundle.toFile())) {
+                if (!ftpClient.storeFile(stagedName, in)) {
+                    throw new IOException("Paket yüklenemedi: " + String.valueOf(ftpClient.getReplyString()).trim());
                 }
             }
+            if (!publish(ftpClient, OutputBundler.BUNDLE_FILE)) {
+                throw new IOException("Paket yayınlanamadı");
+            }
+            
+            Map<String, String> manifest = new TreeMap<>(contents);
+            manifest.put(OutputBundler.BUNDLE_FILE, manifestEntry(bundle));
+            byte[] content = manifestBytes(manifest, "BIST bundle contents: path=sha256 size");
+            if (!ftpClient.storeFile(OutputBundler.BUNDLE_MANIFEST_FILE, new ByteArrayInputStream(content))) {
+                throw new IOException("Paket manifesti yazılamadı: " + String.valueOf(ftpClient.getReplyString()).trim());
+            }
+            
+            long elapsed = Math.max(1, System.currentTimeMillis() - start);
+            System.out.println("✅ Paket yüklendi: " + (Files.size(bundle) / 1024) + " KB, tek aktarım (" + elapsed + " ms)");
+            
         } catch (IOException ex) {
-            System.err.println("❌ Dosya yükleme hatası (" + remoteFileName + "): " + ex.getMessage());
+            System.err.println("❌ FTP paket yükleme hatası: " + ex.getMessage());
+            ex.printStackTrace();
+        } finally {
+            try {
+                if (ftpClient != null && ftpClient.isConnected()) {
+                    ftpClient.logout();
+                    ftpClient.disconnect();
+                    System.out.println("🔌 FTP bağlantısı kapatıldı");
+                }
+            } catch (IOException ex) {
+                ex.printStackTrace();
+            }
+        }
+    }
+    
+    /**
+     * Files to publish: report.html and the chart files, keyed by path relative to localReportDir
+     */
+    static Map<String, String> collectLocalFiles(String localReportDir) throws IOException {
+        Map<String, String> files = new TreeMap<>();
+        Path report = Paths.get(localReportDir, "report.html");
+        if (Files.exists(report)) {
+            files.put("report.html", manifestEntry(report));
+        } else {
+            System.out.println("⚠️  Dosya bulunamadı: " + report);
+        }
+        
+        // Precompressed variant written at generation time (-Dbist.precompress=true)
+        // and the signal index of the lazy report (-Dbist.reportMode=lazy)
+        for (String name : new String[] {"report.html.gz", HtmlReportGenerator.SIGNAL_INDEX_FILE, HtmlReportGenerator.SIGNAL_INDEX_FILE + ".gz"}) {
+            Path path = Paths.get(localReportDir, name);
+            if (Files.exists(path)) {
+                files.put(name, manifestEntry(path));
+            }
+        }
+        
+        Path chartsDir = Paths.get(localReportDir, "charts");
+        if (Files.exists(chartsDir)) {
+            try (Stream<Path> stream = Files.list(chartsDir)) {
+                for (Path path : (Iterable<Path>) stream::iterator) {
+                    String name = path.getFileName().toString();
+                    if (name.endsWith(".html") || name.endsWith(".json") || name.endsWith(".png")
+                        || name.endsWith(".html.gz") || name.endsWith(".json.gz")) {
+                        files.put("charts/" + name, manifestEntry(path));
+                    }
+                }
+            }
+        }
+        return files;
+    }
+    
+    private static String manifestEntry(Path path) throws IOException {
+        return ArtifactManifest.fingerprint().addFile(path).build() + " " + Files.size(path);
+    }
+    
+    private static long entrySize(String entry) {
+        return Long.parseLong(entry.substring(entry.indexOf(' ') + 1));
+    }
+    
+    /**
+     * Manifest of what is on the server; the local mirror is only used when the server can't be read
+     * No manifest at all means nothing is known to be uploaded (full upload)
+     */
+    private Map<String, String> readRemoteManifest(FTPClient ftpClient, Path localManifest) {
+        try {
+            Map<String, String> remote = retrieveManifest(ftpClient, MANIFEST_FILE);
+            if (remote != null) {
+                return remote;
+            }
+            System.out.println("ℹ️  Sunucuda yükleme manifesti yok, tüm dosyalar yüklenecek");
+        } catch (IOException ex) {
+            System.err.println("⚠️  Sunucu manifesti okunamadı (" + ex.getMessage() + "), yerel kopya kullanılıyor");
+            if (Files.exists(localManifest)) {
+                try (InputStream in = Files.newInputStream(localManifest)) {
+                    return parseManifest(in);
+                } catch (IOException localEx) {
+                    System.err.println("⚠️  Yerel manifest okunamadı: " + localEx.getMessage());
+                }
+            }
+        }
+        return new TreeMap<>();
+    }
+    
+    /**
+     * Download and parse a manifest file, null when it does not exist on the server
+     */
+    private static Map<String, String> retrieveManifest(FTPClient ftpClient, String name) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        if (!ftpClient.retrieveFile(name, buffer)) {
+            return null;
+        }
+        return parseManifest(new ByteArrayInputStream(buffer.toByteArray()));
+    }
+    
+    private static byte[] manifestBytes(Map<String, String> entries, String comment) throws IOException {
+        Properties properties = new Properties();
+        properties.putAll(entries);
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        properties.store(buffer, comment);
+        return buffer.toByteArray();
+    }
+    
+    private static Map<String, String> parseManifest(InputStream in) throws IOException {
+        Properties properties = new Properties();
+        properties.load(in);
+        Map<String, String> entries = new TreeMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            entries.put(key, properties.getProperty(key));
+        }
+        return entries;
+    }
+    
+    /**
+     * Store the manifest on the server (after all uploads, only if something changed) and mirror it locally
+     */
+    private void writeManifest(FTPClient ftpClient, Map<String, String> entries, Path localManifest,
+                               boolean storeRemote) throws IOException {
+        byte[] content = manifestBytes(entries, "BIST uploaded files: path=sha256 size");
+        
+        if (storeRemote && !ftpClient.storeFile(MANIFEST_FILE, new ByteArrayInputStream(content))) {
+            System.err.println("⚠️  Yükleme manifesti sunucuya yazılamadı: " + ftpClient.getReplyString().trim());
+        }
+        try (OutputStream out = Files.newOutputStream(localManifest)) {
+            out.write(content);
+        }
+    }
+    
+    /**
+     * Switch a staged file live: rename file.uploading -> file
+     * Servers that refuse to rename onto an existing file get a delete + rename instead
+     */
+    private boolean publish(FTPClient ftpClient, String file) throws IOException {
+        String stagedName = file + STAGING_SUFFIX;
+        if (ftpClient.rename(stagedName, file)) {
+            return true;
+        }
+        if (ftpClient.deleteFile(file) && ftpClient.rename(stagedName, file)) {
+            return true;
         }
+        System.err.println("❌ Yayınlanamadı: " + file + " (" + String.valueOf(ftpClient.getReplyString()).trim() + ")");
+        ftpClient.deleteFile(stagedName);
+        return false;
     }
 }
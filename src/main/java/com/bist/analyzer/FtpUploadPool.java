@@ -0,0 +1,203 @@
+package com.bist.analyzer;
+
+import org.apache.commons.net.ftp.FTPClient;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Parallel FTP upload over N pooled control connections
+ * Files are distributed through a shared work queue; a failed transfer is put back on the queue
+ * (so another, healthy connection can pick it up) and retried up to MAX_ATTEMPTS times
+ * A connection that stops answering is reconnected once, otherwise its worker retires
+ */
+public class FtpUploadPool {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final FtpConnectionFactory factory;
+    private final int connections;
+
+    /**
+     * Outcome of one upload batch
+     */
+    public static class Result {
+        public final List<String> uploaded = Collections.synchronizedList(new ArrayList<String>());
+        public final List<String> failed = Collections.synchronizedList(new ArrayList<String>());
+        public final AtomicLong bytes = new AtomicLong();
+        public long elapsedMillis;
+    }
+
+    private static class Task {
+        final String localPath;
+        final String remotePath;
+        int attempts;
+
+        Task(String localPath, String remotePath) {
+            this.localPath = localPath;
+            this.remotePath = remotePath;
+        }
+    }
+
+    public FtpUploadPool(FtpConnectionFactory factory, int connections) {
+        this.factory = factory;
+        this.connections = Math.max(1, connections);
+    }
+
+    /**
+     * Upload the given files (local path -> remote path relative to the upload root)
+     */
+    public Result upload(Map<String, String> files) {
+        Result result = new Result();
+        if (files.isEmpty()) {
+            return result;
+        }
+        long start = System.currentTimeMillis();
+
+        BlockingQueue<Task> queue = new LinkedBlockingQueue<>();
+        for (Map.Entry<String, String> file : files.entrySet()) {
+            queue.add(new Task(file.getKey(), file.getValue()));
+        }
+        AtomicInteger pending = new AtomicInteger(files.size());
+
+        // Open the connections up front (never more than there are files)
+        int poolSize = Math.min(connections, files.size());
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < poolSize; i++) {
+            FTPClient client = connectQuietly(i + 1);
+            if (client == null) continue;
+            final int id = i + 1;
+            workers.add(new Thread(() -> work(id, client, queue, pending, result), "ftp-upload-" + id));
+        }
+        System.out.println("🔀 " + workers.size() + "/" + poolSize + " FTP bağlantısı ile paralel yükleme: "
+            + files.size() + " dosya");
+        for (Thread worker : workers) {
+            worker.start();
+        }
+
+        for (Thread worker : workers) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        // Whatever is left had no live connection to go to
+        Task task;
+        while ((task = queue.poll()) != null) {
+            System.err.println("❌ Yükleme başarısız (bağlantı yok): " + task.remotePath);
+            result.failed.add(task.remotePath);
+        }
+
+        result.elapsedMillis = System.currentTimeMillis() - start;
+        long elapsed = Math.max(1, result.elapsedMillis);
+        System.out.println("📊 Paralel yükleme: " + result.uploaded.size() + " dosya, " + (result.bytes.get() / 1024)
+            + " KB, " + (result.bytes.get() * 1000 / 1024 / elapsed) + " KB/s toplam"
+            + (result.failed.isEmpty() ? "" : ", " + result.failed.size() + " başarısız"));
+        return result;
+    }
+
+    private void work(int id, FTPClient client, BlockingQueue<Task> queue, AtomicInteger pending, Result result) {
+        try {
+            while (pending.get() > 0) {
+                Task task = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (task == null) continue;
+
+                if (store(id, client, task, result)) {
+                    result.uploaded.add(task.remotePath);
+                    pending.decrementAndGet();
+                    continue;
+                }
+
+                task.attempts++;
+                if (task.attempts >= MAX_ATTEMPTS) {
+                    System.err.println("❌ Yükleme başarısız (" + task.attempts + " deneme): " + task.remotePath);
+                    result.failed.add(task.remotePath);
+                    pending.decrementAndGet();
+                } else {
+                    queue.add(task);
+                }
+
+                if (!isHealthy(client)) {
+                    disconnectQuietly(client);
+                    client = connectQuietly(id);
+                    if (client == null) {
+                        System.err.println("⚠️  FTP bağlantısı #" + id + " kapandı, işçi durduruluyor");
+                        return;
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            disconnectQuietly(client);
+        }
+    }
+
+    private boolean store(int id, FTPClient client, Task task, Result result) {
+        Path path = Paths.get(task.localPath);
+        long t0 = System.nanoTime();
+        try (InputStream in = new FileInputStream(task.localPath)) {
+            if (!client.storeFile(task.remotePath, in)) {
+                System.err.println("⚠️  Yükleme reddedildi (#" + id + "): " + task.remotePath + " - "
+                    + String.valueOf(client.getReplyString()).trim());
+                return false;
+            }
+            long size = Files.size(path);
+            long micros = Math.max(1, (System.nanoTime() - t0) / 1000);
+            result.bytes.addAndGet(size);
+            System.out.println("📤 Yüklendi (#" + id + "): " + task.remotePath + " - " + (size / 1024) + " KB, "
+                + (size * 1000000L / 1024 / micros) + " KB/s");
+            return true;
+        } catch (IOException | RuntimeException e) {
+            // Any failure of a single transfer goes back through the retry path, the task must never be lost
+            System.err.println("⚠️  Yükleme hatası (#" + id + "): " + task.remotePath + " - " + e);
+            return false;
+        }
+    }
+
+    private static boolean isHealthy(FTPClient client) {
+        try {
+            return client.isConnected() && client.sendNoOp();
+        } catch (IOException | RuntimeException e) {
+            return false;
+        }
+    }
+
+    private FTPClient connectQuietly(int id) {
+        try {
+            return factory.connect();
+        } catch (IOException | RuntimeException e) {
+            System.err.println("⚠️  FTP bağlantısı #" + id + " açılamadı: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static void disconnectQuietly(FTPClient client) {
+        if (client == null || !client.isConnected()) return;
+        try {
+            client.logout();
+        } catch (IOException | RuntimeException e) {
+            // Already broken - just close the socket below
+        }
+        try {
+            client.disconnect();
+        } catch (IOException | RuntimeException e) {
+            // Ignore
+        }
+    }
+}
@@ -3,7 +3,6 @@ package com.bist.analyzer;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.text.SimpleDateFormat;
@@ -15,13 +14,90 @@ import java.util.TimeZone;
 
 public class HtmlReportGenerator {
 
+    private static final String FRAGMENT_CACHE_DIR = ".report-fragments";
+
+    // Lazy report mode: signal index next to the shell page, rows rendered by the browser in pages of LAZY_PAGE_SIZE
+    public static final String SIGNAL_INDEX_FILE = "signals.json";
+    private static final int LAZY_PAGE_SIZE = 50;
+
+    // Bump when the row markup changes so cached fragments of the old format are not reused
+    private static final String ROW_FORMAT_VERSION = "1";
+
     public static void generateReport(List<SignalGenerator.SignalResult> userSignals,
                                       List<SignalGenerator.SignalResult> bist100Signals,
                                       Map<String, List<StockData>> allData,
                                       Map<String, String> failedStocks,
                                       String outputPath) throws IOException {
+        generateReport(userSignals, bist100Signals, allData, failedStocks, outputPath, false);
+    }
+
+    /**
+     * sharedChartViewer: charts are opened through charts/viewer.html?s=SYMBOL (per-symbol JSON data)
+     * instead of one standalone HTML page per symbol
+     */
+    public static void generateReport(List<SignalGenerator.SignalResult> userSignals,
+                                      List<SignalGenerator.SignalResult> bist100Signals,
+                                      Map<String, List<StockData>> allData,
+                                      Map<String, String> failedStocks,
+                                      String outputPath,
+                                      boolean sharedChartViewer) throws IOException {
+        
+        // Table rows of unchanged symbols are reused from the previous run (output/.report-fragments)
+        ReportFragmentCache fragments = new ReportFragmentCache(
+            Paths.get(outputPath).toAbsolutePath().resolveSibling(FRAGMENT_CACHE_DIR));
+        
+        // Stream the report straight to disk instead of building it as one String
+        try (HtmlStreamWriter html = new HtmlStreamWriter(Paths.get(outputPath))) {
+            writeReport(html, userSignals, bist100Signals, allData, failedStocks, sharedChartViewer, fragments, false);
+        }
+        fragments.pruneUnused();
+        
+        System.out.println("HTML rapor oluşturuldu: " + outputPath + " (satırlar: " + fragments.getMissCount()
+            + " yeniden oluşturuldu, " + fragments.getHitCount() + " önbellekten)");
+    }
+
+    /**
+     * Lazy report for large universes: report.html is a small shell page whose size does not depend on the
+     * number of symbols, the rows of both tables go to signals.json (already in table order) and are rendered
+     * by the browser page by page while scrolling or searching; charts are still loaded on click
+     */
+    public static void generateLazyReport(List<SignalGenerator.SignalResult> userSignals,
+                                          List<SignalGenerator.SignalResult> bist100Signals,
+                                          Map<String, List<StockData>> allData,
+                                          Map<String, String> failedStocks,
+                                          String outputPath,
+                                          boolean sharedChartViewer) throws IOException {
+        ReportFragmentCache fragments = new ReportFragmentCache(
+            Paths.get(outputPath).toAbsolutePath().resolveSibling(FRAGMENT_CACHE_DIR));
+        
+        // Index first: the shell fetches it as soon as it is loaded
+        Path indexPath = Paths.get(outputPath).resolveSibling(SIGNAL_INDEX_FILE);
+        try (HtmlStreamWriter json = new HtmlStreamWriter(indexPath)) {
+            json.append("{\"pageSize\":").append(LAZY_PAGE_SIZE).append(",\"tables\":{\"user\":");
+            writeIndexRows(json, orderSignals(userSignals), allData, fragments);
+            json.append(",\"strong\":");
+            writeIndexRows(json, orderSignals(strongSignals(bist100Signals)), allData, fragments);
+            json.append("}}");
+        }
+        
+        try (HtmlStreamWriter html = new HtmlStreamWriter(Paths.get(outputPath))) {
+            writeReport(html, userSignals, bist100Signals, allData, failedStocks, sharedChartViewer, fragments, true);
+        }
+        fragments.pruneUnused();
         
-        StringBuilder html = new StringBuilder();
+        System.out.println("HTML rapor oluşturuldu (lazy): " + outputPath + " + " + indexPath.getFileName()
+            + " (satırlar: " + fragments.getMissCount() + " yeniden oluşturuldu, "
+            + fragments.getHitCount() + " önbellekten)");
+    }
+
+    private static void writeReport(HtmlStreamWriter html,
+                                    List<SignalGenerator.SignalResult> userSignals,
+                                    List<SignalGenerator.SignalResult> bist100Signals,
+                                    Map<String, List<StockData>> allData,
+                                    Map<String, String> failedStocks,
+                                    boolean sharedChartViewer,
+                                    ReportFragmentCache fragments,
+                                    boolean lazy) throws IOException {
         ZonedDateTime now = ZonedDateTime.now(ZoneId.of("Europe/Istanbul"));
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss z");
         
@@ -43,7 +119,10 @@ public class HtmlReportGenerator {
         html.append("    <img class=\"modal-content\" id=\"modalImage\">\n");
         html.append("</div>\n");
         html.append("<script>\n");
-        html.append(getJavaScript());
+        html.append(getJavaScript(sharedChartViewer));
+        if (lazy) {
+            html.append(getLazyJavaScript());
+        }
         html.append("</script>\n");
         
         html.append("<div class=\"container\" id=\"top\">\n");
@@ -54,23 +133,26 @@ public class HtmlReportGenerator {
         if (!userSignals.isEmpty()) {
             html.append("    <section class=\"summary\">\n");
             html.append("        <h2>📋 İstenen Hisselerin Sinyalleri</h2>\n");
-            generateSignalTable(html, userSignals, allData);
+            if (lazy) {
+                appendLazySignalTable(html, "user");
+            } else {
+                generateSignalTable(html, userSignals, allData, fragments);
+            }
             html.append("    </section>\n");
         }
         
         // BIST 100 Strong Signals Summary table
         if (!bist100Signals.isEmpty()) {
-            List<SignalGenerator.SignalResult> strongBist100Signals = new ArrayList<>();
-            for (SignalGenerator.SignalResult signal : bist100Signals) {
-                if (signal.signal.equals("STRONG_BUY") || signal.signal.equals("STRONG_SELL")) {
-                    strongBist100Signals.add(signal);
-                }
-            }
+            List<SignalGenerator.SignalResult> strongBist100Signals = strongSignals(bist100Signals);
             
             if (!strongBist100Signals.isEmpty()) {
                 html.append("    <section class=\"summary\">\n");
                 html.append("        <h2>🎯 BIST 100'deki Güçlü Sinyaller</h2>\n");
-                generateSignalTable(html, strongBist100Signals, allData);
+                if (lazy) {
+                    appendLazySignalTable(html, "strong");
+                } else {
+                    generateSignalTable(html, strongBist100Signals, allData, fragments);
+                }
                 html.append("    </section>\n");
             }
         }
@@ -119,18 +201,45 @@ public class HtmlReportGenerator {
         html.append("<a href=\"#top\" class=\"back-to-top\" title=\"En Üste Dön\">⬆</a>\n");
         html.append("</body>\n");
         html.append("</html>\n");
-        
-        // Write to file with UTF-8 encoding
-        byte[] bytes = html.toString().getBytes(java.nio.charset.StandardCharsets.UTF_8);
-        java.nio.file.Files.write(java.nio.file.Paths.get(outputPath), bytes);
-        
-        System.out.println("HTML rapor oluşturuldu: " + outputPath);
     }
 
-    private static void generateSignalTable(StringBuilder html, List<SignalGenerator.SignalResult> signals,
-                                            Map<String, List<StockData>> allData) {
+    private static List<SignalGenerator.SignalResult> strongSignals(List<SignalGenerator.SignalResult> signals) {
+        List<SignalGenerator.SignalResult> strong = new ArrayList<>();
+        for (SignalGenerator.SignalResult signal : signals) {
+            if (signal.signal.equals("STRONG_BUY") || signal.signal.equals("STRONG_SELL")) {
+                strong.add(signal);
+            }
+        }
+        return strong;
+    }
+
+    private static void generateSignalTable(HtmlStreamWriter html, List<SignalGenerator.SignalResult> signals,
+                                            Map<String, List<StockData>> allData,
+                                            ReportFragmentCache fragments) throws IOException {
+        appendSignalTableStart(html, "id=\"stockSearch\"", "id=\"signalsTableBody\"");
+        for (SignalGenerator.SignalResult signal : orderSignals(signals)) {
+            addSignalRow(html, signal, allData, fragments);
+        }
+        html.append("            </tbody>\n");
+        html.append("        </table>\n");
+    }
+
+    /**
+     * Empty table of the lazy report, filled by the browser from the "table" list of signals.json
+     */
+    private static void appendLazySignalTable(HtmlStreamWriter html, String table) throws IOException {
+        appendSignalTableStart(html, "class=\"lazy-search\" data-table=\"" + table + "\"",
+            "data-table=\"" + table + "\"");
+        html.append("            </tbody>\n");
+        html.append("        </table>\n");
+        html.append("        <div class=\"lazy-more\" data-table=\"").append(table)
+            .append("\" style=\"text-align: center; padding: 15px; color: #666; cursor: pointer;\">Yükleniyor...</div>\n");
+    }
+
+    private static void appendSignalTableStart(HtmlStreamWriter html, String searchAttributes,
+                                               String bodyAttributes) throws IOException {
         html.append("        <div style=\"margin-bottom: 20px;\">\n");
-        html.append("            <input type=\"text\" id=\"stockSearch\" placeholder=\"Hisse sembolü veya adı ile ara (ör: SOKM, Soda)\" \n");
+        html.append("            <input type=\"text\" ").append(searchAttributes).append(" placeholder=\"Hisse sembolü veya adı ile ara (ör: SOKM, Soda)\" \n");
         html.append("                   style=\"width: 100%; padding: 12px; border: 2px solid #667eea; border-radius: 5px; font-size: 14px;\">\n");
         html.append("        </div>\n");
         
@@ -145,12 +254,17 @@ public class HtmlReportGenerator {
         html.append("                    <th>Fiyat Değişimleri</th>\n");
         html.append("                </tr>\n");
         html.append("            </thead>\n");
-        html.append("            <tbody id=\"signalsTableBody\">\n");
-        
-        // Read stock list groups from stock_list.txt (before and after --- separator)
-        Map<String, Set<String>> stockGroups = readStockListGroups();
-        Set<String> beforeSeparator = stockGroups.getOrDefault("before", new HashSet<>());
-        Set<String> afterSeparator = stockGroups.getOrDefault("after", new HashSet<>());
+        html.append("            <tbody ").append(bodyAttributes).append(">\n");
+    }
+
+    /**
+     * Table order: XU100 first, then the priority stocks (before --- in stock_list.txt), then the rest,
+     * each group by signal strength and confidence
+     */
+    private static List<SignalGenerator.SignalResult> orderSignals(List<SignalGenerator.SignalResult> signals) {
+        // Stock list groups from stock_list.txt (before and after --- separator)
+        StockRegistry registry = StockRegistry.get();
+        Set<String> beforeSeparator = registry.getPrioritySymbols();
         
         // Organize signals into groups: XU100, priority stocks (before ---), BIST100 stocks (after ---)
         SignalGenerator.SignalResult xu100Signal = null;
@@ -180,34 +294,149 @@ public class HtmlReportGenerator {
         prioritySignals.sort(signalComparator);
         bist100OnlySignals.sort(signalComparator);
         
-        // Add XU100 first if exists
+        List<SignalGenerator.SignalResult> ordered = new ArrayList<>(signals.size());
+        
+        // XU100 first if exists
         if (xu100Signal != null) {
-            addSignalRow(html, xu100Signal, allData);
+            ordered.add(xu100Signal);
         }
         
-        // Add priority signals (--- öncesi)
-        for (SignalGenerator.SignalResult signal : prioritySignals) {
-            addSignalRow(html, signal, allData);
-        }
+        // Priority signals (--- öncesi)
+        ordered.addAll(prioritySignals);
         
-        // Add BIST100 signals (--- sonrası)
-        for (SignalGenerator.SignalResult signal : bist100OnlySignals) {
-            addSignalRow(html, signal, allData);
+        // BIST100 signals (--- sonrası)
+        ordered.addAll(bist100OnlySignals);
+        return ordered;
+    }
+    
+    /**
+     * Write the table row of a signal, rendered only if the symbol's bars, signal or name changed
+     */
+    private static void addSignalRow(HtmlStreamWriter html, SignalGenerator.SignalResult signal,
+                                     Map<String, List<StockData>> allData,
+                                     ReportFragmentCache fragments) throws IOException {
+        String stockName = StockRegistry.get().getName(signal.symbol);
+        List<StockData> stockData = allData.get(signal.symbol);
+        String fingerprint = rowFingerprint(signal, stockName, stockData);
+        
+        byte[] row = fragments.get(signal.symbol, fingerprint);
+        if (row == null) {
+            StringBuilder rowHtml = new StringBuilder(1024);
+            renderSignalRow(rowHtml, signal, stockName, stockData);
+            row = rowHtml.toString().getBytes(StandardCharsets.UTF_8);
+            fragments.put(signal.symbol, fingerprint, row);
+        }
+        html.write(row, 0, row.length);
+    }
+    
+    /**
+     * Write the rows of a lazy report table as a JSON array, each row reused if the symbol did not change
+     * Row: [symbol, name, price, signal, confidence, [1g, 5g, 1a, 3a(, 1y)] or null, daily volume]
+     */
+    private static void writeIndexRows(HtmlStreamWriter json, List<SignalGenerator.SignalResult> signals,
+                                       Map<String, List<StockData>> allData,
+                                       ReportFragmentCache fragments) throws IOException {
+        json.append('[');
+        for (int i = 0; i < signals.size(); i++) {
+            SignalGenerator.SignalResult signal = signals.get(i);
+            String stockName = StockRegistry.get().getName(signal.symbol);
+            List<StockData> stockData = allData.get(signal.symbol);
+            String fingerprint = rowFingerprint(signal, stockName, stockData);
+            
+            String key = signal.symbol + ".json";
+            byte[] row = fragments.get(key, fingerprint);
+            if (row == null) {
+                StringBuilder rowJson = new StringBuilder(256);
+                renderIndexRow(rowJson, signal, stockName, stockData);
+                row = rowJson.toString().getBytes(StandardCharsets.UTF_8);
+                fragments.put(key, fingerprint, row);
+            }
+            if (i > 0) json.append(',');
+            json.write(row, 0, row.length);
+        }
+        json.append(']');
+    }
+    
+    /**
+     * Everything a row shows: the signal, the company name and the bars behind the price changes
+     * The bars enter through their count and the last bar only (constant cost per symbol): the price changes
+     * move with every new or updated bar, and the signal (price, score, details) changes with the history
+     */
+    private static String rowFingerprint(SignalGenerator.SignalResult signal, String stockName, List<StockData> stockData) {
+        ArtifactManifest.Fingerprint input = ArtifactManifest.fingerprint()
+            .add(ROW_FORMAT_VERSION).addSignal(signal).add(stockName);
+        if (stockData != null) {
+            input.addLastBar(stockData);
+        } else {
+            input.add(-1L);
+        }
+        return input.build();
+    }
+    
+    private static void renderIndexRow(StringBuilder json, SignalGenerator.SignalResult signal, String stockName,
+                                       List<StockData> stockData) throws IOException {
+        char[] number = new char[FixedPointFormatter.MAX_CHARS];
+        double displayPrice = signal.price;
+        if (stockData != null && !stockData.isEmpty()) {
+            displayPrice = stockData.get(stockData.size() - 1).getClose();
         }
         
-        html.append("            </tbody>\n");
-        html.append("        </table>\n");
+        json.append('[');
+        ChartGenerator.appendJsonString(json, signal.symbol);
+        json.append(',');
+        ChartGenerator.appendJsonString(json, stockName);
+        json.append(',').append(number, 0, FixedPointFormatter.format(displayPrice, 2, number, 0)).append(',');
+        ChartGenerator.appendJsonString(json, signal.signal);
+        json.append(',').append(number, 0, FixedPointFormatter.format(signal.confidence, 0, number, 0)).append(',');
+        
+        // Same daily-close changes as the compact price change cell of the full report
+        List<Double> dailyCloses = stockData != null ? extractDailyClosingPrices(stockData) : new ArrayList<>();
+        if (dailyCloses.isEmpty()) {
+            json.append("null,0]");
+            return;
+        }
+        List<Long> dailyVolumes = extractDailyVolumes(stockData);
+        int lastDayIdx = dailyCloses.size() - 1;
+        double[] changes = {
+            dailyChange(dailyCloses, lastDayIdx - 1, displayPrice),
+            dailyChange(dailyCloses, lastDayIdx - 5, displayPrice),
+            dailyChange(dailyCloses, lastDayIdx - 20, displayPrice),
+            // 3a falls back to the oldest available day
+            dailyChange(dailyCloses, lastDayIdx >= 60 ? lastDayIdx - 60 : (lastDayIdx > 0 ? 0 : -1), displayPrice),
+            // 1y only if available
+            lastDayIdx >= 252 ? dailyChange(dailyCloses, lastDayIdx - 252, displayPrice) : Double.NaN
+        };
+        int count = lastDayIdx >= 252 ? 5 : 4;
+        json.append('[');
+        for (int i = 0; i < count; i++) {
+            if (i > 0) json.append(',');
+            if (Double.isNaN(changes[i])) {
+                json.append("null");
+            } else {
+                json.append(number, 0, FixedPointFormatter.format(changes[i], 1, number, 0));
+            }
+        }
+        json.append("],").append(lastDayIdx < dailyVolumes.size() ? dailyVolumes.get(lastDayIdx) : 0L).append(']');
+    }
+    
+    /**
+     * Change in percent from the daily close at targetIdx, NaN if that day is not available
+     */
+    private static double dailyChange(List<Double> dailyCloses, int targetIdx, double currentPrice) {
+        if (targetIdx < 0 || targetIdx >= dailyCloses.size()) {
+            return Double.NaN;
+        }
+        double oldPrice = dailyCloses.get(targetIdx);
+        return oldPrice > 0 ? ((currentPrice - oldPrice) / oldPrice) * 100 : Double.NaN;
     }
     
-    private static void addSignalRow(StringBuilder html, SignalGenerator.SignalResult signal,
-                                     Map<String, List<StockData>> allData) {
+    private static void renderSignalRow(StringBuilder html, SignalGenerator.SignalResult signal, String stockName,
+                                        List<StockData> stockData) {
         String signalClass = signal.signal.toLowerCase().replace("_", "-");
         String signalText = getSignalTextTR(signal.signal);
-        String stockName = getStockName(signal.symbol);
         
         // Get latest price from allData instead of signal.price (for current market price)
         double displayPrice = signal.price;
-        List<StockData> stockData = allData.get(signal.symbol);
         if (stockData != null && !stockData.isEmpty()) {
             displayPrice = stockData.get(stockData.size() - 1).getClose();
         }
@@ -229,14 +458,14 @@ public class HtmlReportGenerator {
         
         // Price changes column
         html.append("                    <td class=\"price-changes\">");
-        appendCompactPriceChanges(html, signal.symbol, displayPrice, allData);
+        appendCompactPriceChanges(html, displayPrice, stockData);
         html.append("</td>\n");
         
         html.append("                </tr>\n");
     }
 
-    private static void generateStockDetail(StringBuilder html, SignalGenerator.SignalResult signal,
-                                           Map<String, List<StockData>> allData) {
+    private static void generateStockDetail(HtmlStreamWriter html, SignalGenerator.SignalResult signal,
+                                           Map<String, List<StockData>> allData) throws IOException {
         List<StockData> data = allData.get(signal.symbol);
         if (data == null || data.isEmpty()) return;
         
@@ -356,7 +585,7 @@ public class HtmlReportGenerator {
             "@media (max-width: 768px) {.container {padding: 10px;} h1 {font-size: 1.6em;} .charts {grid-template-columns: 1fr;} .chart-frame {height: 500px;} .signals-table {font-size: 0.85em;overflow-x: auto;display: block;} .signals-table td, .signals-table th {padding: 6px 4px;} .back-to-top {display: none;} .summary-cards {grid-template-columns: 1fr;gap: 10px;} .stock-info {grid-template-columns: 1fr;} .legend-items {grid-template-columns: 1fr;}} ";
     }
 
-    private static String getJavaScript() {
+    private static String getJavaScript(boolean sharedChartViewer) {
         return "document.addEventListener('DOMContentLoaded', function() {" +
             "    var modal = document.getElementById('imageModal');" +
             "    var modalImg = document.getElementById('modalImage');" +
@@ -401,15 +630,110 @@ public class HtmlReportGenerator {
             "    if (!chartViewer) return;" +
             "    var isMobile = /iPhone|iPad|iPod|Android/i.test(navigator.userAgent);" +
             "    var chartSuffix = isMobile ? '_1m' : '';" +
+            "    var chartUrl = " + (sharedChartViewer
+                ? "'charts/" + ChartGenerator.SHARED_VIEWER_FILE + "?s=' + symbol + (isMobile ? '&v=1m' : '');"
+                : "'charts/' + symbol + '_chart' + chartSuffix + '.html';") +
             "    var iframe = chartViewer.querySelector('iframe');" +
             "    if (iframe) {" +
-            "        iframe.src = 'charts/' + symbol + '_chart' + chartSuffix + '.html';" +
+            "        iframe.src = chartUrl;" +
             "        chartViewer.style.display = 'block';" +
             "        chartViewer.scrollIntoView({behavior: 'smooth'});" +
             "    }" +
             "}";
     }
 
+    /**
+     * Lazy report: fetch signals.json and render the rows of each table page by page
+     * (next page when the "lazy-more" marker scrolls into view or is clicked, search filters the whole index)
+     */
+    private static String getLazyJavaScript() {
+        return "var SIGNAL_TEXT = {STRONG_BUY: 'GÜÇLÜ AL', BUY: 'AL', HOLD: 'TUT', SELL: 'SAT', STRONG_SELL: 'GÜÇLÜ SAT'};" +
+            "var CHANGE_LABELS = ['1g', '5g', '1a', '3a', '1y'];" +
+            "document.addEventListener('DOMContentLoaded', function() {" +
+            "    var bodies = document.querySelectorAll('tbody[data-table]');" +
+            "    if (!bodies.length) return;" +
+            "    fetch('" + SIGNAL_INDEX_FILE + "', {cache: 'no-cache'}).then(function(response) {" +
+            "        if (!response.ok) throw new Error(response.status);" +
+            "        return response.json();" +
+            "    }).then(function(index) {" +
+            "        bodies.forEach(function(body) { setupLazyTable(body, index); });" +
+            "    }).catch(function() {" +
+            "        bodies.forEach(function(body) {" +
+            "            body.innerHTML = '<tr><td colspan=\"6\">Sinyal listesi yüklenemedi</td></tr>';" +
+            "        });" +
+            "        document.querySelectorAll('.lazy-more').forEach(function(more) { more.style.display = 'none'; });" +
+            "    });" +
+            "});" +
+            "function setupLazyTable(body, index) {" +
+            "    var name = body.getAttribute('data-table');" +
+            "    var table = {body: body, rows: index.tables[name] || [], shown: null, rendered: 0, pageSize: index.pageSize," +
+            "        more: document.querySelector('.lazy-more[data-table=\"' + name + '\"]')};" +
+            "    table.shown = table.rows;" +
+            "    body.addEventListener('click', function(e) {" +
+            "        var link = e.target.closest('a.stock-link');" +
+            "        if (!link) return;" +
+            "        e.preventDefault();" +
+            "        loadChart(link.closest('tr').getAttribute('data-symbol'));" +
+            "    });" +
+            "    var search = document.querySelector('.lazy-search[data-table=\"' + name + '\"]');" +
+            "    if (search) {" +
+            "        search.addEventListener('keyup', function() {" +
+            "            var query = search.value.toLowerCase();" +
+            "            table.shown = !query ? table.rows : table.rows.filter(function(row) {" +
+            "                return row[0].toLowerCase().includes(query) || row[1].toLowerCase().includes(query);" +
+            "            });" +
+            "            body.innerHTML = '';" +
+            "            table.rendered = 0;" +
+            "            renderLazyPage(table);" +
+            "        });" +
+            "    }" +
+            "    table.more.onclick = function() { renderLazyPage(table); };" +
+            "    if ('IntersectionObserver' in window) {" +
+            "        new IntersectionObserver(function(entries) {" +
+            "            if (entries[0].isIntersecting) renderLazyPage(table);" +
+            "        }, {rootMargin: '400px'}).observe(table.more);" +
+            "    }" +
+            "    renderLazyPage(table);" +
+            "}" +
+            "function renderLazyPage(table) {" +
+            "    var end = Math.min(table.rendered + table.pageSize, table.shown.length);" +
+            "    var html = '';" +
+            "    for (var i = table.rendered; i < end; i++) html += lazyRowHtml(table.shown[i]);" +
+            "    table.body.insertAdjacentHTML('beforeend', html);" +
+            "    table.rendered = end;" +
+            "    var done = end >= table.shown.length;" +
+            "    table.more.textContent = done ? '' : 'Daha fazla göster (' + (table.shown.length - end) + ')';" +
+            "    table.more.style.display = done ? 'none' : 'block';" +
+            "    if (!done && table.more.getBoundingClientRect().top < window.innerHeight + 400) {" +
+            "        requestAnimationFrame(function() { renderLazyPage(table); });" +
+            "    }" +
+            "}" +
+            "function escapeHtml(text) {" +
+            "    return String(text).replace(/&/g, '&amp;').replace(/</g, '&lt;').replace(/>/g, '&gt;').replace(/\"/g, '&quot;');" +
+            "}" +
+            "function lazyRowHtml(row) {" +
+            "    var symbol = escapeHtml(row[0]), name = escapeHtml(row[1]);" +
+            "    var signalClass = row[3].toLowerCase().replace(/_/g, '-');" +
+            "    return '<tr class=\"signal-' + signalClass + '\" data-symbol=\"' + symbol + '\" data-name=\"' + name + '\">' +" +
+            "        '<td><strong><a href=\"#\" class=\"stock-link\" style=\"cursor: pointer;\">' + symbol + '</a></strong></td>' +" +
+            "        '<td style=\"max-width: 200px; white-space: nowrap; overflow: hidden; text-overflow: ellipsis;\" title=\"' + name + '\">' + name + '</td>' +" +
+            "        '<td>' + row[2].toFixed(2) + ' TL</td>' +" +
+            "        '<td><span class=\"signal-badge signal-' + signalClass + '\">' + escapeHtml(SIGNAL_TEXT[row[3]] || row[3]) + '</span></td>' +" +
+            "        '<td>' + row[4] + '%</td>' +" +
+            "        '<td class=\"price-changes\">' + lazyChangesHtml(row[5], row[6]) + '</td></tr>';" +
+            "}" +
+            "function lazyChangesHtml(changes, volume) {" +
+            "    if (!changes) return '<span class=\"price-change-item\">Veri yok</span>';" +
+            "    var title = 'Günlük Hacim: ' + volume.toLocaleString('en-US');" +
+            "    return changes.map(function(change, i) {" +
+            "        var label = '<span class=\"price-change-label\">' + CHANGE_LABELS[i] + ':</span>';" +
+            "        if (change === null) return '<span class=\"price-change-item\">' + label + ' -</span>';" +
+            "        return '<span class=\"price-change-item\" title=\"' + title + '\">' + label + ' <span class=\"' +" +
+            "            (change >= 0 ? 'positive' : 'negative') + '\">' + (change >= 0 ? '▲' : '▼') + Math.abs(change).toFixed(1) + '%</span></span>';" +
+            "    }).join(' ');" +
+            "}";
+    }
+
     private static int getSignalValue(String signal) {
         switch (signal) {
             case "STRONG_BUY":
@@ -447,8 +771,8 @@ public class HtmlReportGenerator {
     /**
      * Generate price change table showing % change over various time periods
      */
-    private static void generatePriceChangeTable(StringBuilder html, List<SignalGenerator.SignalResult> signals,
-                                                 Map<String, List<StockData>> allData) {
+    private static void generatePriceChangeTable(HtmlStreamWriter html, List<SignalGenerator.SignalResult> signals,
+                                                 Map<String, List<StockData>> allData) throws IOException {
         html.append("    <section class=\"summary\">\n");
         html.append("        <h2>📈 Fiyat Değişim Tablosu</h2>\n");
         html.append("        <table class=\"signals-table\">\n");
@@ -500,8 +824,8 @@ public class HtmlReportGenerator {
         html.append("    </section>\n");
     }
 
-    private static void appendPriceChange(StringBuilder html, List<StockData> data, int lastIdx, 
-                                          int daysBack, double currentPrice) {
+    private static void appendPriceChange(HtmlStreamWriter html, List<StockData> data, int lastIdx, 
+                                          int daysBack, double currentPrice) throws IOException {
         int targetIdx = lastIdx - daysBack;
         if (targetIdx < 0 || targetIdx >= data.size()) {
             html.append("                    <td>-</td>\n");
@@ -524,9 +848,7 @@ public class HtmlReportGenerator {
      * Append compact price changes for signal table
      * Extracts daily closing prices from hourly data and calculates changes based on those
      */
-    private static void appendCompactPriceChanges(StringBuilder html, String symbol, double currentPrice,
-                                                  Map<String, List<StockData>> allData) {
-        List<StockData> data = allData.get(symbol);
+    private static void appendCompactPriceChanges(StringBuilder html, double currentPrice, List<StockData> data) {
         if (data == null || data.isEmpty()) {
             html.append("<span class=\"price-change-item\">Veri yok</span>");
             return;
@@ -680,10 +1002,10 @@ public class HtmlReportGenerator {
     /**
      * Append price change with fallback label if requested period not available
      */
-    private static void appendCompactChangeWithFallback(StringBuilder html, String primaryLabel, 
+    private static void appendCompactChangeWithFallback(HtmlStreamWriter html, String primaryLabel, 
                                                         String fallbackLabel, List<StockData> data,
                                                         int lastIdx, int primaryDaysBack, int maxDaysBack,
-                                                        double currentPrice) {
+                                                        double currentPrice) throws IOException {
         // Try primary period first
         int targetIdx = lastIdx - primaryDaysBack;
         if (targetIdx >= 0 && targetIdx < data.size()) {
@@ -710,8 +1032,8 @@ public class HtmlReportGenerator {
         }
     }
 
-    private static void appendCompactChange(StringBuilder html, String label, List<StockData> data,
-                                           int lastIdx, int daysBack, double currentPrice) {
+    private static void appendCompactChange(HtmlStreamWriter html, String label, List<StockData> data,
+                                           int lastIdx, int daysBack, double currentPrice) throws IOException {
         int targetIdx = lastIdx - daysBack;
         if (targetIdx < 0 || targetIdx >= data.size()) {
             html.append("<span class=\"price-change-item\"><span class=\"price-change-label\">").append(label)
@@ -746,122 +1068,4 @@ public class HtmlReportGenerator {
         double oldPrice = data.get(targetIdx).getClose();
         return ((currentPrice - oldPrice) / oldPrice) * 100;
     }
-
-    /**
-     * Read priority stocks from stock_list.txt (stocks before --- separator)
-     */
-    private static List<String> readPriorityStocks() {
-        List<String> priorityStocks = new ArrayList<>();
-        try {
-            java.nio.file.Path path = java.nio.file.Paths.get("stock_list.txt");
-            if (!java.nio.file.Files.exists(path)) {
-                return priorityStocks;
-            }
-            
-            List<String> lines = java.nio.file.Files.readAllLines(path, java.nio.charset.StandardCharsets.UTF_8);
-            for (String line : lines) {
-                line = line.trim();
-                // Stop at separator
-                if (line.startsWith("---") || line.startsWith("--")) {
-                    break;
-                }
-                // Skip comments and empty lines
-                if (line.isEmpty() || line.startsWith("#")) {
-                    continue;
-                }
-                priorityStocks.add(line.toUpperCase());
-            }
-        } catch (Exception e) {
-            System.err.println("Warning: Could not read priority stocks: " + e.getMessage());
-        }
-        return priorityStocks;
-    }
-    
-    /**
-     * Read stock list groups from stock_list.txt
-     * Returns a Map with "before" and "after" keys containing symbols before and after "---" separator
-     */
-    private static Map<String, Set<String>> readStockListGroups() {
-        Map<String, Set<String>> groups = new HashMap<>();
-        groups.put("before", new HashSet<>());
-        groups.put("after", new HashSet<>());
-        
-        try {
-            Path path = Paths.get("stock_list.txt");
-            List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
-            
-            boolean foundSeparator = false;
-            
-            for (String line : lines) {
-                line = line.trim();
-                
-                // Skip empty lines and comments
-                if (line.isEmpty() || line.startsWith("#")) {
-                    continue;
-                }
-                
-                // Check for separator
-                if (line.startsWith("---") || line.startsWith("--")) {
-                    foundSeparator = true;
-                    continue;
-                }
-                
-                // Extract symbol from "SYMBOL - Name" or just "SYMBOL"
-                String symbol = line;
-                if (line.contains(" - ")) {
-                    symbol = line.split(" - ")[0].trim();
-                }
-                
-                // Skip XU100 (handled separately in sorting)
-                if (symbol.equalsIgnoreCase("XU100")) {
-                    continue;
-                }
-                
-                // Add to appropriate group
-                if (!foundSeparator) {
-                    groups.get("before").add(symbol.toUpperCase());
-                } else {
-                    groups.get("after").add(symbol.toUpperCase());
-                }
-            }
-        } catch (IOException e) {
-            System.err.println("Warning: Could not read stock list groups: " + e.getMessage());
-        }
-        
-        return groups;
-    }
-
-    private static String getStockName(String symbol) {
-        // Read stock names from stock_list.txt file
-        // Format: SYMBOL - Full Company Name
-        try {
-            Path path = Paths.get("stock_list.txt");
-            List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
-            
-            for (String line : lines) {
-                line = line.trim();
-                if (line.isEmpty() || line.startsWith("---") || line.startsWith("#")) {
-                    continue;
-                }
-                
-                // Parse format: SYMBOL - Full Name
-                if (line.contains(" - ")) {
-                    String[] parts = line.split(" - ", 2);
-                    if (parts.length == 2) {
-                        String lineSymbol = parts[0].trim();
-                        String lineName = parts[1].trim();
-                        
-                        if (lineSymbol.equalsIgnoreCase(symbol)) {
-                            return lineName;
-                        }
-                    }
-                }
-            }
-        } catch (IOException e) {
-            System.err.println("Warning: Could not read stock names from stock_list.txt: " + e.getMessage());
-        }
-        
-        // Return empty string if not found (instead of throwing exception)
-        return "";
-    }
 }
@@ -0,0 +1,286 @@
+package com.bist.analyzer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streaming UTF-8 writer for generated HTML pages
+ * Chars are encoded into a reusable byte buffer and written straight to a FileChannel,
+ * so chart pages and the report are never held in memory as one big String
+ *
+ * Buffers are reused per thread: rendering many symbols one after another allocates them once
+ *
+ * Optionally (-Dbist.precompress=true) the encoded bytes are also teed through a gzip compressor into
+ * file.gz while they are written, so static hosts can serve the precompressed variant without a second pass
+ */
+public class HtmlStreamWriter implements Appendable, Closeable {
+
+    private static final int CHAR_BUFFER_SIZE = 16 * 1024;
+    private static final int BYTE_BUFFER_SIZE = 64 * 1024;
+
+    // Write a .gz sibling of every generated file (part of the artifact fingerprints)
+    static final boolean PRECOMPRESS = Boolean.getBoolean("bist.precompress");
+
+    // Per-thread buffer pair, handed out to one open writer at a time
+    private static class Buffers {
+        final CharBuffer chars = CharBuffer.allocate(CHAR_BUFFER_SIZE);
+        final ByteBuffer bytes = ByteBuffer.allocateDirect(BYTE_BUFFER_SIZE);
+        final char[] scratch = new char[FixedPointFormatter.MAX_CHARS];
+        byte[] gzipScratch;
+        boolean inUse;
+    }
+
+    private static final ThreadLocal<Buffers> BUFFERS = new ThreadLocal<Buffers>() {
+        @Override
+        protected Buffers initialValue() {
+            return new Buffers();
+        }
+    };
+
+    private final FileChannel channel;
+    private final CharsetEncoder encoder;
+    private final Buffers buffers;
+    private final boolean pooled;
+    private final CharBuffer chars;
+    private final ByteBuffer bytes;
+    private final OutputStream gzip;
+    private long bytesWritten;
+    private boolean closed;
+
+    public HtmlStreamWriter(Path path) throws IOException {
+        this(path, PRECOMPRESS);
+    }
+
+    /**
+     * Files the default writer produces for the given outputs: the outputs, plus their .gz siblings when
+     * precompressing (what ArtifactManifest.isUnchanged must find before an artifact is skipped)
+     */
+    static Path[] outputFiles(Path... outputs) {
+        if (!PRECOMPRESS) {
+            return outputs;
+        }
+        Path[] files = Arrays.copyOf(outputs, outputs.length * 2);
+        for (int i = 0; i < outputs.length; i++) {
+            files[outputs.length + i] = outputs[i].resolveSibling(outputs[i].getFileName() + ".gz");
+        }
+        return files;
+    }
+
+    /**
+     * precompress: also write path.gz, compressed on the fly from the same bytes
+     * Without it an existing path.gz (from an earlier precompressed run) is removed, so hosts never serve it
+     * in place of the fresh page
+     */
+    public HtmlStreamWriter(Path path, boolean precompress) throws IOException {
+        if (!precompress) {
+            Files.deleteIfExists(path.resolveSibling(path.getFileName() + ".gz"));
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING);
+        if (precompress) {
+            OutputStream gzipOut;
+            try {
+                gzipOut = new GZIPOutputStream(Files.newOutputStream(path.resolveSibling(path.getFileName() + ".gz")),
+                    BYTE_BUFFER_SIZE);
+            } catch (IOException e) {
+                channel.close();
+                throw e;
+            }
+            this.gzip = gzipOut;
+        } else {
+            this.gzip = null;
+        }
+        this.encoder = StandardCharsets.UTF_8.newEncoder();
+
+        Buffers threadBuffers = BUFFERS.get();
+        if (threadBuffers.inUse) {
+            // Nested writer on the same thread - fall back to private buffers
+            threadBuffers = new Buffers();
+            this.pooled = false;
+        } else {
+            this.pooled = true;
+        }
+        threadBuffers.inUse = true;
+        this.buffers = threadBuffers;
+        this.chars = threadBuffers.chars;
+        this.bytes = threadBuffers.bytes;
+        this.chars.clear();
+        this.bytes.clear();
+        if (gzip != null && threadBuffers.gzipScratch == null) {
+            threadBuffers.gzipScratch = new byte[BYTE_BUFFER_SIZE];
+        }
+    }
+
+    @Override
+    public HtmlStreamWriter append(CharSequence csq) throws IOException {
+        if (csq == null) {
+            csq = "null";
+        }
+        return append(csq, 0, csq.length());
+    }
+
+    @Override
+    public HtmlStreamWriter append(CharSequence csq, int start, int end) throws IOException {
+        if (csq == null) {
+            csq = "null";
+        }
+        int pos = start;
+        while (pos < end) {
+            if (!chars.hasRemaining()) {
+                drainChars(false);
+            }
+            int n = Math.min(chars.remaining(), end - pos);
+            if (csq instanceof String) {
+                chars.put((String) csq, pos, pos + n);
+            } else {
+                for (int i = pos; i < pos + n; i++) {
+                    chars.put(csq.charAt(i));
+                }
+            }
+            pos += n;
+        }
+        return this;
+    }
+
+    @Override
+    public HtmlStreamWriter append(char c) throws IOException {
+        if (!chars.hasRemaining()) {
+            drainChars(false);
+        }
+        chars.put(c);
+        return this;
+    }
+
+    public HtmlStreamWriter append(char[] src, int offset, int length) throws IOException {
+        int pos = offset;
+        int end = offset + length;
+        while (pos < end) {
+            if (!chars.hasRemaining()) {
+                drainChars(false);
+            }
+            int n = Math.min(chars.remaining(), end - pos);
+            chars.put(src, pos, n);
+            pos += n;
+        }
+        return this;
+    }
+
+    public HtmlStreamWriter append(int value) throws IOException {
+        return append(Integer.toString(value));
+    }
+
+    public HtmlStreamWriter append(long value) throws IOException {
+        return append(Long.toString(value));
+    }
+
+    /**
+     * Append a finite double with fixed precision ("%.Nf" with Locale.US, up to the rounding notes of
+     * FixedPointFormatter)
+     */
+    public HtmlStreamWriter appendFixed(double value, int decimals) throws IOException {
+        int len = FixedPointFormatter.format(value, decimals, buffers.scratch, 0);
+        return append(buffers.scratch, 0, len);
+    }
+
+    /**
+     * Append already encoded UTF-8 bytes (e.g. cached fragments) without re-encoding
+     */
+    public HtmlStreamWriter write(byte[] utf8, int offset, int length) throws IOException {
+        drainChars(false);
+        int pos = offset;
+        int end = offset + length;
+        while (pos < end) {
+            if (!bytes.hasRemaining()) {
+                flushBytes();
+            }
+            int n = Math.min(bytes.remaining(), end - pos);
+            bytes.put(utf8, pos, n);
+            pos += n;
+        }
+        return this;
+    }
+
+    /**
+     * Number of bytes handed to the file so far (excluding what is still buffered)
+     */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    public void flush() throws IOException {
+        drainChars(false);
+        flushBytes();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            drainChars(true);
+            while (encoder.flush(bytes).isOverflow()) {
+                flushBytes();
+            }
+            flushBytes();
+        } finally {
+            if (pooled) {
+                buffers.inUse = false;
+            }
+            try {
+                channel.close();
+            } finally {
+                // Closed after the main file so the .gz is never older than its source
+                if (gzip != null) {
+                    gzip.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Encode buffered chars into the byte buffer, writing to the channel whenever it fills up
+     * A trailing high surrogate stays in the char buffer until its pair arrives
+     */
+    private void drainChars(boolean endOfInput) throws IOException {
+        chars.flip();
+        while (true) {
+            CoderResult result = encoder.encode(chars, bytes, endOfInput);
+            if (result.isOverflow()) {
+                flushBytes();
+            } else if (result.isError()) {
+                result.throwException();
+            } else {
+                break;
+            }
+        }
+        chars.compact();
+    }
+
+    private void flushBytes() throws IOException {
+        bytes.flip();
+        if (gzip != null && bytes.hasRemaining()) {
+            int n = bytes.remaining();
+            bytes.get(buffers.gzipScratch, 0, n);
+            gzip.write(buffers.gzipScratch, 0, n);
+            bytes.position(0);
+        }
+        while (bytes.hasRemaining()) {
+            bytesWritten += channel.write(bytes);
+        }
+        bytes.clear();
+    }
+}
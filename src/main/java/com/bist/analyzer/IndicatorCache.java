@@ -0,0 +1,707 @@
+package com.bist.analyzer;
+
+import com.bist.analyzer.SignalRules.Adjustment;
+import com.bist.analyzer.SignalRules.Column;
+import com.bist.analyzer.SignalRules.Condition;
+import com.bist.analyzer.SignalRules.Gate;
+import com.bist.analyzer.SignalRules.Group;
+import com.bist.analyzer.SignalRules.Rule;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The signal rules (SignalRules) compiled for one series
+ * Indicator columns are computed once per series in vector passes. Rule groups that do not depend on
+ * SignalThresholds are folded into one score and confirmation count per bar, the remaining rules into
+ * one condition bit set per bar; only the volume-spike and ADX comparisons are evaluated per threshold set.
+ * A scan is then a single pass over primitive arrays, so thousands of threshold combinations can be tried
+ * without recomputing any indicator. Live signals (describe) are read from the same plan at the last bar,
+ * so historical markers and the report always agree.
+ *
+ * Prices are kept as primitive arrays as well, for the backtest simulation.
+ */
+public final class IndicatorCache {
+
+    public static final byte STRONG_BUY = 2;
+    public static final byte BUY = 1;
+    public static final byte SELL = -1;
+    public static final byte STRONG_SELL = -2;
+
+    // First bar the rules are evaluated on (indicators need the history before it)
+    private static final int FIRST_BAR = SignalRules.MIN_BARS - 1;
+
+    // Compiled rule table: rules with a threshold parameter become bit masks over the conditions below
+    private static final List<Group> FIXED_GROUPS = new ArrayList<>();
+    private static final Condition[] FLAG_CONDITIONS;    // Eşikten bağımsız koşullar (bit 0..)
+    private static final Condition[] PARAM_CONDITIONS;   // Eşik karşılaştırmaları (FLAG_CONDITIONS'tan sonraki bitler)
+    private static final int[][] RULE_MASKS;             // [eşikli grup][kural]
+    private static final int[][] RULE_SCORES;
+    private static final int[][] RULE_CONFIRMS;
+    private static final Adjustment[] ADJUSTMENTS = SignalRules.ADJUSTMENTS.toArray(new Adjustment[0]);
+    private static final int[] ADJUSTMENT_MASKS;
+    private static final int GATE_MASK;                 // Eşikli kapıların bitleri (hepsi gerekli)
+
+    static {
+        List<Group> paramGroups = new ArrayList<>();
+        Map<String, Condition> flags = new LinkedHashMap<>();
+        Map<String, Condition> params = new LinkedHashMap<>();
+        for (Group group : SignalRules.GROUPS) {
+            if (!group.usesParam()) {
+                FIXED_GROUPS.add(group);
+                continue;
+            }
+            paramGroups.add(group);
+            collect(group.guard, flags, params);
+            for (Rule rule : group.rules) {
+                collect(rule.when, flags, params);
+            }
+        }
+        for (Adjustment adjustment : SignalRules.ADJUSTMENTS) {
+            collect(adjustment.when, flags, params);
+        }
+        for (Gate gate : SignalRules.GATES) {
+            if (gate.pass.usesParam()) {
+                collect(new Condition[] {gate.pass}, flags, params);
+            }
+        }
+        if (flags.size() + params.size() > 31) {
+            throw new IllegalStateException("Too many threshold rule conditions: " + (flags.size() + params.size()));
+        }
+        FLAG_CONDITIONS = flags.values().toArray(new Condition[0]);
+        PARAM_CONDITIONS = params.values().toArray(new Condition[0]);
+
+        Map<String, Integer> bits = new HashMap<>();
+        for (Condition condition : FLAG_CONDITIONS) {
+            bits.put(condition.key(), bits.size());
+        }
+        for (Condition condition : PARAM_CONDITIONS) {
+            bits.put(condition.key(), bits.size());
+        }
+        RULE_MASKS = new int[paramGroups.size()][];
+        RULE_SCORES = new int[paramGroups.size()][];
+        RULE_CONFIRMS = new int[paramGroups.size()][];
+        for (int g = 0; g < paramGroups.size(); g++) {
+            Group group = paramGroups.get(g);
+            RULE_MASKS[g] = new int[group.rules.length];
+            RULE_SCORES[g] = new int[group.rules.length];
+            RULE_CONFIRMS[g] = new int[group.rules.length];
+            for (int r = 0; r < group.rules.length; r++) {
+                Rule rule = group.rules[r];
+                RULE_MASKS[g][r] = mask(group.guard, bits) | mask(rule.when, bits);
+                RULE_SCORES[g][r] = rule.score;
+                RULE_CONFIRMS[g][r] = rule.confirms ? 1 : 0;
+            }
+        }
+        ADJUSTMENT_MASKS = new int[ADJUSTMENTS.length];
+        for (int a = 0; a < ADJUSTMENTS.length; a++) {
+            ADJUSTMENT_MASKS[a] = mask(ADJUSTMENTS[a].when, bits);
+        }
+        int gateMask = 0;
+        for (Gate gate : SignalRules.GATES) {
+            if (gate.pass.usesParam()) {
+                gateMask |= mask(new Condition[] {gate.pass}, bits);
+            }
+        }
+        GATE_MASK = gateMask;
+    }
+
+    private static void collect(Condition[] conditions, Map<String, Condition> flags, Map<String, Condition> params) {
+        for (Condition condition : conditions) {
+            (condition.usesParam() ? params : flags).putIfAbsent(condition.key(), condition);
+        }
+    }
+
+    private static int mask(Condition[] conditions, Map<String, Integer> bits) {
+        int mask = 0;
+        for (Condition condition : conditions) {
+            mask |= 1 << bits.get(condition.key());
+        }
+        return mask;
+    }
+
+    final int size;
+    final long[] time;
+    final double[] open;
+    final double[] high;
+    final double[] low;
+    final double[] close;
+
+    private final boolean[] valid;
+    private final boolean[] endOfDay;
+    private final int[] fixedScore;
+    private final int[] fixedCount;
+    private final int[] flags;
+    // Indicator columns by Column ordinal; only the threshold comparisons' columns unless kept for describe
+    private final double[][] columns = new double[Column.values().length][];
+
+    private IndicatorCache(int size) {
+        this.size = size;
+        this.time = new long[size];
+        this.open = new double[size];
+        this.high = new double[size];
+        this.low = new double[size];
+        this.close = new double[size];
+        this.valid = new boolean[size];
+        this.endOfDay = new boolean[size];
+        this.fixedScore = new int[size];
+        this.fixedCount = new int[size];
+        this.flags = new int[size];
+    }
+
+    /**
+     * Compile the rules for a series (historical scans: backtest, parameter sweep, charts)
+     */
+    public static IndicatorCache build(List<StockData> data) {
+        if (data.size() < SignalRules.MIN_BARS) {
+            return build(data, null, null, null, null, false);
+        }
+        return build(data, TechnicalIndicators.calculateRSI(data, 14),
+            TechnicalIndicators.calculateMACD(data, 12, 26, 9),
+            TechnicalIndicators.calculateBollingerBands(data, 20, 2.0),
+            TechnicalIndicators.calculateADX(data, 14), false);
+    }
+
+    /**
+     * Compile the rules with indicators the caller already has (RSI 14, MACD 12/26/9, Bollinger 20/2, ADX 14);
+     * keepColumns keeps every indicator column for describe()
+     */
+    public static IndicatorCache build(List<StockData> data, double[] rsi, TechnicalIndicators.MACDResult macd,
+                                       TechnicalIndicators.BollingerBands bb, TechnicalIndicators.ADXResult adx,
+                                       boolean keepColumns) {
+        return build(data, rsi, macd, bb, adx, FIRST_BAR, keepColumns);
+    }
+
+    /**
+     * Compile the rules for the last bar only (live signal without a chart): describe(size() - 1) and column()
+     * of that bar work, scan() finds nothing before it. A fraction of a full build on a long history
+     */
+    public static IndicatorCache buildLast(List<StockData> data, double[] rsi, TechnicalIndicators.MACDResult macd,
+                                           TechnicalIndicators.BollingerBands bb, TechnicalIndicators.ADXResult adx) {
+        return build(data, rsi, macd, bb, adx, data.size() - 1, true);
+    }
+
+    // Plan of the bars from firstBar on; the windowed columns and masks of earlier bars are left empty
+    private static IndicatorCache build(List<StockData> data, double[] rsi, TechnicalIndicators.MACDResult macd,
+                                        TechnicalIndicators.BollingerBands bb, TechnicalIndicators.ADXResult adx,
+                                        int firstBar, boolean keepColumns) {
+        int n = data.size();
+        IndicatorCache cache = new IndicatorCache(n);
+        for (int i = 0; i < n; i++) {
+            StockData bar = data.get(i);
+            cache.time[i] = bar.getTimestamp();
+            cache.open[i] = bar.getOpen();
+            cache.high[i] = bar.getHigh();
+            cache.low[i] = bar.getLow();
+            cache.close[i] = bar.getClose();
+        }
+        if (n < SignalRules.MIN_BARS) {
+            return cache;
+        }
+
+        int from = Math.max(FIRST_BAR, firstBar);
+
+        // Last bar of every day (default time zone, like findHistoricalSignals always did)
+        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
+        String[] dates = new String[n];
+        for (int i = from; i < n; i++) {
+            dates[i] = sdf.format(new Date(cache.time[i]));
+        }
+        for (int i = from; i < n; i++) {
+            cache.endOfDay[i] = i == n - 1 || !dates[i].equals(dates[i + 1]);
+        }
+
+        double[][] columns = computeColumns(data, cache, rsi, macd, bb, adx, from);
+        boolean[] mask = new boolean[n];
+
+        // Threshold-independent gates (the others are condition bits, checked by scan)
+        Arrays.fill(cache.valid, from, n, true);
+        for (Gate gate : SignalRules.GATES) {
+            if (!gate.pass.usesParam()) {
+                and(cache.valid, gate.pass, columns, from);
+            }
+        }
+
+        // Threshold-independent groups: first matching rule of each group, as whole-series masks
+        boolean[] open = new boolean[n];
+        for (Group group : FIXED_GROUPS) {
+            Arrays.fill(open, from, n, true);
+            for (Condition condition : group.guard) {
+                and(open, condition, columns, from);
+            }
+            for (Rule rule : group.rules) {
+                System.arraycopy(open, 0, mask, 0, n);
+                for (Condition condition : rule.when) {
+                    and(mask, condition, columns, from);
+                }
+                int score = rule.score;
+                int confirms = rule.confirms ? 1 : 0;
+                for (int i = from; i < n; i++) {
+                    cache.fixedScore[i] += mask[i] ? score : 0;
+                    cache.fixedCount[i] += mask[i] ? confirms : 0;
+                    open[i] &= !mask[i];
+                }
+            }
+        }
+
+        // Threshold-independent conditions of the other rules and adjustments, one bit each
+        for (int k = 0; k < FLAG_CONDITIONS.length; k++) {
+            Arrays.fill(mask, from, n, true);
+            and(mask, FLAG_CONDITIONS[k], columns, from);
+            int bit = 1 << k;
+            for (int i = from; i < n; i++) {
+                cache.flags[i] |= mask[i] ? bit : 0;
+            }
+        }
+
+        if (keepColumns) {
+            System.arraycopy(columns, 0, cache.columns, 0, columns.length);
+        } else {
+            for (Condition condition : PARAM_CONDITIONS) {
+                cache.columns[condition.left.ordinal()] = columns[condition.left.ordinal()];
+                if (condition.right != null) {
+                    cache.columns[condition.right.ordinal()] = columns[condition.right.ordinal()];
+                }
+            }
+        }
+        return cache;
+    }
+
+    // Every Column of the series, bar by bar as generateSignal always computed them for its last bar;
+    // the windowed ones only from bar from on (no rule looks at an earlier bar)
+    private static double[][] computeColumns(List<StockData> data, IndicatorCache cache, double[] rsi,
+                                             TechnicalIndicators.MACDResult macd,
+                                             TechnicalIndicators.BollingerBands bb,
+                                             TechnicalIndicators.ADXResult adx, int from) {
+        int n = data.size();
+        double[][] columns = new double[Column.values().length][];
+        double[] close = put(columns, Column.CLOSE, cache.close.clone());
+        put(columns, Column.PREV_CLOSE, previous(close));
+
+        // Trend
+        put(columns, Column.EMA20, TechnicalIndicators.calculateEMA(data, 20));
+        double[] ema50 = put(columns, Column.EMA50, TechnicalIndicators.calculateEMA(data, 50));
+        put(columns, Column.EMA200, TechnicalIndicators.calculateEMA(data, 200));
+        double[] slope = put(columns, Column.EMA50_SLOPE, new double[n]);
+        for (int i = from; i < n; i++) {
+            slope[i] = TechnicalIndicators.calculateSlope(ema50, i, 10);
+        }
+
+        // Momentum
+        put(columns, Column.RSI, rsi);
+        double[] rsiTrend = put(columns, Column.RSI_TREND, new double[n]);
+        for (int i = from; i < n; i++) {
+            rsiTrend[i] = i >= 5 ? rsi[i] - rsi[i - 5] : Double.NaN;
+        }
+        put(columns, Column.MACD, macd.macdLine);
+        put(columns, Column.MACD_SIGNAL, macd.signalLine);
+        put(columns, Column.MACD_HISTOGRAM, macd.histogram);
+        put(columns, Column.PREV_MACD, previous(macd.macdLine));
+        put(columns, Column.PREV_MACD_SIGNAL, previous(macd.signalLine));
+        put(columns, Column.PREV_MACD_HISTOGRAM, previous(macd.histogram));
+
+        // Bollinger
+        put(columns, Column.BB_UPPER, bb.upper);
+        put(columns, Column.BB_LOWER, bb.lower);
+        put(columns, Column.BB_MIDDLE, bb.middle);
+        put(columns, Column.PREV_BB_UPPER, previous(bb.upper));
+        put(columns, Column.PREV_BB_LOWER, previous(bb.lower));
+        double[] position = put(columns, Column.BB_POSITION, new double[n]);
+        double[] width = put(columns, Column.BB_WIDTH, new double[n]);
+        for (int i = from; i < n; i++) {
+            position[i] = (close[i] - bb.lower[i]) / (bb.upper[i] - bb.lower[i]);
+            width[i] = (bb.upper[i] - bb.lower[i]) / bb.middle[i];
+        }
+
+        // Volume and OBV
+        double[] volume = put(columns, Column.VOLUME, new double[n]);
+        double[] averageVolume = put(columns, Column.AVERAGE_VOLUME, new double[n]);
+        double[] volumeChange = put(columns, Column.VOLUME_CHANGE_PCT, new double[n]);
+        double[] prevHigh20 = put(columns, Column.PREV_HIGH20, new double[n]);
+        double[] prevLow20 = put(columns, Column.PREV_LOW20, new double[n]);
+        double[] moneyVolume = put(columns, Column.MONEY_VOLUME, new double[n]);
+        for (int i = 0; i < n; i++) {
+            volume[i] = data.get(i).getVolume();
+        }
+        for (int i = from; i < n; i++) {
+            averageVolume[i] = TechnicalIndicators.getAverageVolume(data, i, 20);
+            volumeChange[i] = (volume[i] / averageVolume[i] - 1) * 100;
+            prevHigh20[i] = TechnicalIndicators.getHighestHigh(data, i - 1, 20);
+            prevLow20[i] = TechnicalIndicators.getLowestLow(data, i - 1, 20);
+            double sum = 0;
+            for (int j = Math.max(0, i - 19); j <= i; j++) {
+                sum += volume[j] * close[j];
+            }
+            moneyVolume[i] = sum / Math.min(20, i + 1);
+        }
+        double[] obv = put(columns, Column.OBV, TechnicalIndicators.calculateOBV(data));
+        double[] obvHigh = put(columns, Column.OBV_HIGH20, new double[n]);
+        double[] obvLow = put(columns, Column.OBV_LOW20, new double[n]);
+        double[] obvTrend = put(columns, Column.OBV_TREND, new double[n]);
+        for (int i = from; i < n; i++) {
+            obvHigh[i] = TechnicalIndicators.getHighestValue(obv, i, 20);
+            obvLow[i] = TechnicalIndicators.getLowestValue(obv, i, 20);
+            obvTrend[i] = i >= 10 ? obv[i] - obv[i - 10] : Double.NaN;
+        }
+
+        // Price action: last 11 bars against the 10 before them
+        double[] recentHigh = put(columns, Column.RECENT_HIGH, new double[n]);
+        double[] recentLow = put(columns, Column.RECENT_LOW, new double[n]);
+        double[] priorHigh = put(columns, Column.PRIOR_HIGH, new double[n]);
+        double[] priorLow = put(columns, Column.PRIOR_LOW, new double[n]);
+        for (int i = from; i < n; i++) {
+            if (i < 20) {
+                recentHigh[i] = recentLow[i] = priorHigh[i] = priorLow[i] = Double.NaN;
+                continue;
+            }
+            priorHigh[i] = Double.MIN_VALUE;
+            priorLow[i] = Double.MAX_VALUE;
+            for (int j = i - 20; j < i - 10; j++) {
+                priorHigh[i] = Math.max(priorHigh[i], cache.high[j]);
+                priorLow[i] = Math.min(priorLow[i], cache.low[j]);
+            }
+            recentHigh[i] = Double.MIN_VALUE;
+            recentLow[i] = Double.MAX_VALUE;
+            for (int j = i - 10; j <= i; j++) {
+                recentHigh[i] = Math.max(recentHigh[i], cache.high[j]);
+                recentLow[i] = Math.min(recentLow[i], cache.low[j]);
+            }
+        }
+
+        // Candle patterns
+        double[] bullishEngulfing = put(columns, Column.BULLISH_ENGULFING, new double[n]);
+        double[] bearishEngulfing = put(columns, Column.BEARISH_ENGULFING, new double[n]);
+        double[] hammer = put(columns, Column.HAMMER, new double[n]);
+        double[] shootingStar = put(columns, Column.SHOOTING_STAR, new double[n]);
+        double[] bullishHarami = put(columns, Column.BULLISH_HARAMI, new double[n]);
+        double[] bearishHarami = put(columns, Column.BEARISH_HARAMI, new double[n]);
+        double[] doji = put(columns, Column.DOJI, new double[n]);
+        for (int i = from; i < n; i++) {
+            TechnicalIndicators.CandlePattern pattern = TechnicalIndicators.analyzeCandlePattern(data, i);
+            bullishEngulfing[i] = pattern.isBullishEngulfing ? 1 : 0;
+            bearishEngulfing[i] = pattern.isBearishEngulfing ? 1 : 0;
+            hammer[i] = pattern.isHammer ? 1 : 0;
+            shootingStar[i] = pattern.isShootingStar ? 1 : 0;
+            bullishHarami[i] = pattern.isBullishHarami ? 1 : 0;
+            bearishHarami[i] = pattern.isBearishHarami ? 1 : 0;
+            doji[i] = pattern.isDoji ? 1 : 0;
+        }
+
+        // Volume pressure (5-bar average), ADX, volatility
+        double[] volumePressure = TechnicalIndicators.calculateVolumePressure(data);
+        double[] pressure = put(columns, Column.PRESSURE, new double[n]);
+        double[] pressureStrength = put(columns, Column.PRESSURE_STRENGTH, new double[n]);
+        double[] adxValue = put(columns, Column.ADX, new double[n]);
+        double[] volatility = put(columns, Column.VOLATILITY, new double[n]);
+        double[] volatilityPct = put(columns, Column.VOLATILITY_PCT, new double[n]);
+        double[] atr = TechnicalIndicators.calculateATR(data, 14);
+        for (int i = from; i < n; i++) {
+            double sum = 0;
+            for (int j = Math.max(0, i - 4); j <= i; j++) {
+                sum += volumePressure[j];
+            }
+            pressure[i] = sum / Math.min(5, i + 1);
+            pressureStrength[i] = Math.abs(pressure[i]) / volume[i];
+            adxValue[i] = Double.isNaN(adx.adx[i]) ? 0 : adx.adx[i];
+            volatility[i] = Double.isNaN(atr[i]) ? 0 : atr[i] / close[i];
+            volatilityPct[i] = volatility[i] * 100;
+        }
+
+        supportResistance(columns, cache, from);
+        return columns;
+    }
+
+    /**
+     * Strong support/resistance within 3% of the close, as TechnicalIndicators.findSupportResistance(data, 100)
+     * sees it at every bar: pivots (±5 bars) of the last 100 bars clustered within 2%, strongest level first
+     */
+    private static void supportResistance(double[][] columns, IndicatorCache cache, int from) {
+        int n = cache.size;
+        double[] high = cache.high;
+        double[] low = cache.low;
+        double[] close = cache.close;
+        boolean[] pivotHigh = new boolean[n];
+        boolean[] pivotLow = new boolean[n];
+        for (int i = Math.max(5, from - 94); i < n - 5; i++) {
+            pivotHigh[i] = true;
+            pivotLow[i] = true;
+            for (int j = i - 5; j <= i + 5; j++) {
+                if (j != i && high[j] > high[i]) pivotHigh[i] = false;
+                if (j != i && low[j] < low[i]) pivotLow[i] = false;
+            }
+        }
+
+        double[] level = put(columns, Column.SR_LEVEL, new double[n]);
+        double[] distancePct = put(columns, Column.SR_DISTANCE_PCT, new double[n]);
+        double[] near = put(columns, Column.NEAR_SR, new double[n]);
+        double[] nearSupport = put(columns, Column.NEAR_SUPPORT, new double[n]);
+        double[] nearResistance = put(columns, Column.NEAR_RESISTANCE, new double[n]);
+        Arrays.fill(level, Double.NaN);
+        Arrays.fill(distancePct, Double.NaN);
+
+        // Levels of one bar, in insertion order
+        double[] levels = new double[200];
+        int[] touches = new int[200];
+        boolean[] support = new boolean[200];
+        for (int i = Math.max(109, from); i < n; i++) {
+            int count = 0;
+            for (int j = i - 94; j <= i - 5; j++) {
+                if (pivotHigh[j]) count = addPivot(levels, touches, support, count, high[j], false);
+                if (pivotLow[j]) count = addPivot(levels, touches, support, count, low[j], true);
+            }
+            // Strongest qualifying level, the first one among equals (the sort is stable)
+            int best = -1;
+            double bestStrength = 0;
+            for (int k = 0; k < count; k++) {
+                double strength = Math.min(1.0, touches[k] / 5.0);
+                double distance = Math.abs(close[i] - levels[k]) / close[i];
+                if (distance < 0.03 && strength > 0.6 && (best < 0 || strength > bestStrength)) {
+                    best = k;
+                    bestStrength = strength;
+                }
+            }
+            if (best >= 0) {
+                level[i] = levels[best];
+                distancePct[i] = Math.abs(close[i] - levels[best]) / close[i] * 100;
+                near[i] = 1;
+                nearSupport[i] = support[best] ? 1 : 0;
+                nearResistance[i] = support[best] ? 0 : 1;
+            }
+        }
+    }
+
+    private static int addPivot(double[] levels, int[] touches, boolean[] support, int count, double price,
+                                boolean isSupport) {
+        for (int k = 0; k < count; k++) {
+            if (Math.abs(levels[k] - price) / price < 0.02) {
+                touches[k]++;
+                support[k] |= isSupport;
+                return count;
+            }
+        }
+        levels[count] = price;
+        touches[count] = 1;
+        support[count] = isSupport;
+        return count + 1;
+    }
+
+    private static double[] put(double[][] columns, Column column, double[] values) {
+        columns[column.ordinal()] = values;
+        return values;
+    }
+
+    private static double[] previous(double[] values) {
+        double[] previous = new double[values.length];
+        previous[0] = Double.NaN;
+        System.arraycopy(values, 0, previous, 1, values.length - 1);
+        return previous;
+    }
+
+    // mask[i] &= condition at bar i >= from (threshold-independent conditions only)
+    private static void and(boolean[] mask, Condition condition, double[][] columns, int from) {
+        int n = mask.length;
+        double[] left = columns[condition.left.ordinal()];
+        double[] right = condition.right != null ? columns[condition.right.ordinal()] : null;
+        if (right == null) {
+            right = new double[n];
+            Arrays.fill(right, condition.constant);
+        }
+        switch (condition.op) {
+            case NOT_NAN:
+                for (int i = from; i < n; i++) mask[i] &= !Double.isNaN(left[i]);
+                break;
+            case IS:
+                for (int i = from; i < n; i++) mask[i] &= left[i] != 0;
+                break;
+            case GT:
+                for (int i = from; i < n; i++) mask[i] &= left[i] > right[i];
+                break;
+            case GE:
+                for (int i = from; i < n; i++) mask[i] &= left[i] >= right[i];
+                break;
+            case LT:
+                for (int i = from; i < n; i++) mask[i] &= left[i] < right[i];
+                break;
+            default:
+                for (int i = from; i < n; i++) mask[i] &= left[i] <= right[i];
+                break;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private static double[] params(SignalThresholds t) {
+        SignalRules.Param[] all = SignalRules.Param.values();
+        double[] params = new double[all.length];
+        for (SignalRules.Param param : all) {
+            params[param.ordinal()] = param.of(t);
+        }
+        return params;
+    }
+
+    // Condition bits of every bar: the fixed ones plus the threshold comparisons, one pass per comparison
+    private int[] conditionBits(double[] params) {
+        int[] bits = flags.clone();
+        for (int k = 0; k < PARAM_CONDITIONS.length; k++) {
+            Condition condition = PARAM_CONDITIONS[k];
+            int bit = 1 << (FLAG_CONDITIONS.length + k);
+            double[] left = columns[condition.left.ordinal()];
+            double[] right = condition.right != null ? columns[condition.right.ordinal()] : null;
+            double param = params[condition.param.ordinal()];
+            for (int i = FIRST_BAR; i < size; i++) {
+                bits[i] |= condition.compare(left[i], right != null ? right[i] * param : param) ? bit : 0;
+            }
+        }
+        return bits;
+    }
+
+    // Condition bits of bar i alone (describe)
+    private int conditionBits(int i, double[] params) {
+        int bits = flags[i];
+        for (int k = 0; k < PARAM_CONDITIONS.length; k++) {
+            bits |= PARAM_CONDITIONS[k].test(columns, i, params) ? 1 << (FLAG_CONDITIONS.length + k) : 0;
+        }
+        return bits;
+    }
+
+    // Total score of a bar with the given condition bits: fixed part, threshold rules, adjustments;
+    // confirmation count into count[0]
+    private int score(int i, int bits, int[] count) {
+        int total = fixedScore[i];
+        int confirmations = fixedCount[i];
+        for (int g = 0; g < RULE_MASKS.length; g++) {
+            int[] masks = RULE_MASKS[g];
+            for (int r = 0; r < masks.length; r++) {
+                if ((bits & masks[r]) == masks[r]) {
+                    total += RULE_SCORES[g][r];
+                    confirmations += RULE_CONFIRMS[g][r];
+                    break;
+                }
+            }
+        }
+        for (int a = 0; a < ADJUSTMENTS.length; a++) {
+            if ((bits & ADJUSTMENT_MASKS[a]) == ADJUSTMENT_MASKS[a] && ADJUSTMENTS[a].appliesTo(total)) {
+                total = ADJUSTMENTS[a].apply(total);
+            }
+        }
+        count[0] = confirmations;
+        return total;
+    }
+
+    private static byte classify(int score, int confirmations, SignalThresholds t) {
+        if (score >= t.strongScore && confirmations >= t.strongConfluence) return STRONG_BUY;
+        if (score >= t.minScore && confirmations >= t.minConfluence) return BUY;
+        if (score <= -t.strongScore && confirmations >= t.strongConfluence) return STRONG_SELL;
+        if (score <= -t.minScore && confirmations >= t.minConfluence) return SELL;
+        return 0;
+    }
+
+    /**
+     * Scan all bars with the given thresholds; one signal per day, on the day's last bar
+     * Writes bar index and kind (STRONG_BUY .. STRONG_SELL) of every signal, plus its total score and
+     * confirmation count when score/count are not null. Arrays must hold size() entries.
+     * Returns the number of signals
+     */
+    public int scan(SignalThresholds t, int[] index, byte[] kind, int[] score, int[] count) {
+        int[] bits = conditionBits(params(t));
+        int[] confirmations = new int[1];
+        int found = 0;
+        for (int i = FIRST_BAR; i < size; i++) {
+            if (!valid[i] || !endOfDay[i] || (bits[i] & GATE_MASK) != GATE_MASK) continue;
+
+            int totalScore = score(i, bits[i], confirmations);
+            byte signal = classify(totalScore, confirmations[0], t);
+            if (signal == 0) continue;
+
+            index[found] = i;
+            kind[found] = signal;
+            if (score != null) score[found] = totalScore;
+            if (count != null) count[found] = confirmations[0];
+            found++;
+        }
+        return found;
+    }
+
+    /**
+     * Rule evaluation of one bar with its report lines (live signal)
+     */
+    static final class Evaluation {
+        String holdReason;          // Sinyali engelleyen kapı (null = geçti)
+        final StringBuilder details = new StringBuilder();
+        final int[] categoryScores = new int[SignalRules.Category.values().length];
+        int score;
+        int confirmations;
+        byte kind;                  // STRONG_BUY .. STRONG_SELL, 0 = HOLD
+        double adx;
+
+        int categoryScore(SignalRules.Category category) {
+            return categoryScores[category.ordinal()];
+        }
+    }
+
+    /**
+     * Evaluate bar i with the compiled plan (the same score scan() sees) and collect the report lines of the
+     * gates, rules and adjustments that applied; needs a cache built with keepColumns (or buildLast for its last bar)
+     */
+    Evaluation describe(int i, SignalThresholds t) {
+        if (columns[Column.CLOSE.ordinal()] == null) {
+            throw new IllegalStateException("Indicator columns were not kept for this series");
+        }
+        double[] params = params(t);
+        Evaluation evaluation = new Evaluation();
+        evaluation.adx = columns[Column.ADX.ordinal()][i];
+        for (Gate gate : SignalRules.GATES) {
+            if (!gate.pass.test(columns, i, params)) {
+                evaluation.holdReason = SignalRules.format(gate.holdDetail, gate.args, columns, i);
+                return evaluation;
+            }
+        }
+
+        int total = 0;
+        for (Group group : SignalRules.GROUPS) {
+            if (!holds(group.guard, i, params)) continue;
+            for (Rule rule : group.rules) {
+                if (holds(rule.when, i, params)) {
+                    evaluation.categoryScores[group.category.ordinal()] += rule.score;
+                    evaluation.details.append(SignalRules.format(rule.detail, rule.args, columns, i));
+                    total += rule.score;
+                    break;
+                }
+            }
+        }
+        for (Adjustment adjustment : SignalRules.ADJUSTMENTS) {
+            if (holds(adjustment.when, i, params) && adjustment.appliesTo(total)) {
+                total = adjustment.apply(total);
+                evaluation.details.append(SignalRules.format(adjustment.detail, adjustment.args, columns, i));
+            }
+        }
+
+        int[] confirmations = new int[1];
+        evaluation.score = score(i, conditionBits(i, params), confirmations);
+        evaluation.confirmations = confirmations[0];
+        evaluation.kind = classify(evaluation.score, evaluation.confirmations, t);
+        return evaluation;
+    }
+
+    private boolean holds(Condition[] conditions, int i, double[] params) {
+        for (Condition condition : conditions) {
+            if (!condition.test(columns, i, params)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Indicator value of bar i (cache built with keepColumns)
+     */
+    double column(Column column, int i) {
+        return columns[column.ordinal()][i];
+    }
+}
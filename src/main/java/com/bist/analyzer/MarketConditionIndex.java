@@ -0,0 +1,171 @@
+package com.bist.analyzer;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Market-condition features of every bar of a symbol, bucketed on a grid for similar-condition lookups
+ * Two bars are similar (BacktestValidator) when RSI and ADX are within 15 points, the SMA20/SMA50 trend
+ * points the same way and the close is within 5% of each other relative to SMA20. Grid cells are one
+ * tolerance wide, so a lookup only visits the 3x3x3 neighbouring cells of the query instead of every bar.
+ * Cells are one sorted long[] of (cell key << 32 | bar), found by binary search - no boxing.
+ * Bars with a missing feature (indicator warm-up) are kept aside and always checked directly, and so
+ * are all bars of a small index (the default 100-bar validator window), where a plain scan is cheaper.
+ */
+final class MarketConditionIndex {
+
+    static final double RSI_TOLERANCE = 15;
+    static final double ADX_TOLERANCE = 15;
+    static final double PRICE_POSITION_TOLERANCE = 0.05;
+
+    // Cells are searched slightly wider than the tolerance so floating point rounding can never drop a match
+    private static final double CELL_MARGIN = 1.001;
+
+    // Below this many bars the grid is not built
+    private static final int MIN_GRID_BARS = 256;
+
+    private final int from;
+    private final double[] rsi;
+    private final double[] adx;
+    private final double[] pricePosition;   // (close - SMA20) / SMA20
+    private final boolean[] uptrend;        // SMA20 > SMA50
+    private long[] cells = new long[0];
+    private int[] unbucketed = new int[0];
+
+    private MarketConditionIndex(int from, int count) {
+        this.from = from;
+        this.rsi = new double[count];
+        this.adx = new double[count];
+        this.pricePosition = new double[count];
+        this.uptrend = new boolean[count];
+    }
+
+    /**
+     * Index the bars from .. to-1 (bar indices of data)
+     */
+    static MarketConditionIndex build(List<StockData> data, int from, int to, double[] sma20, double[] sma50,
+                                      double[] rsi, TechnicalIndicators.ADXResult adx) {
+        from = Math.max(0, from);
+        to = Math.max(from, Math.min(to, data.size()));
+        MarketConditionIndex index = new MarketConditionIndex(from, to - from);
+        long[] cells = new long[to - from];
+        int[] unbucketed = new int[to - from];
+        int cellCount = 0;
+        int unbucketedCount = 0;
+        boolean grid = to - from >= MIN_GRID_BARS;
+        for (int i = from; i < to; i++) {
+            int k = i - from;
+            index.rsi[k] = rsi[i];
+            index.adx[k] = adx.adx[i];
+            index.pricePosition[k] = (data.get(i).getClose() - sma20[i]) / sma20[i];
+            index.uptrend[k] = sma20[i] > sma50[i];
+            if (grid && index.isRegular(k)) {
+                cells[cellCount++] = (long) index.cellKey(k) << 32 | i;
+            } else {
+                unbucketed[unbucketedCount++] = i;
+            }
+        }
+        index.cells = Arrays.copyOf(cells, cellCount);
+        Arrays.sort(index.cells);
+        index.unbucketed = Arrays.copyOf(unbucketed, unbucketedCount);
+        return index;
+    }
+
+    /**
+     * Indexed bars rangeFrom .. rangeTo-1 similar to the current bar (features from the same series), ascending
+     */
+    int[] findSimilar(List<StockData> data, int currentIdx, int rangeFrom, int rangeTo,
+                      double[] sma20, double[] sma50, double[] rsi, TechnicalIndicators.ADXResult adx) {
+        double qRsi = rsi[currentIdx];
+        double qAdx = adx.adx[currentIdx];
+        double qPosition = (data.get(currentIdx).getClose() - sma20[currentIdx]) / sma20[currentIdx];
+        boolean qUptrend = sma20[currentIdx] > sma50[currentIdx];
+
+        int[] found = new int[this.rsi.length];
+        int count = 0;
+        if (isFinite(qRsi) && isFinite(qAdx) && isFinite(qPosition)) {
+            int trendBit = qUptrend ? 1 : 0;
+            int rsiLo = cell(qRsi - RSI_TOLERANCE * CELL_MARGIN, RSI_TOLERANCE);
+            int rsiHi = cell(qRsi + RSI_TOLERANCE * CELL_MARGIN, RSI_TOLERANCE);
+            int adxLo = cell(qAdx - ADX_TOLERANCE * CELL_MARGIN, ADX_TOLERANCE);
+            int adxHi = cell(qAdx + ADX_TOLERANCE * CELL_MARGIN, ADX_TOLERANCE);
+            int posLo = positionCell(qPosition - PRICE_POSITION_TOLERANCE * CELL_MARGIN);
+            int posHi = positionCell(qPosition + PRICE_POSITION_TOLERANCE * CELL_MARGIN);
+            for (int r = rsiLo; r <= rsiHi; r++) {
+                for (int a = adxLo; a <= adxHi; a++) {
+                    // Position cells are the lowest key bits: the whole posLo..posHi run is contiguous
+                    long first = (long) key(trendBit, r, a, posLo) << 32;
+                    long last = (long) key(trendBit, r, a, posHi) << 32 | 0xFFFFFFFFL;
+                    for (int c = lowerBound(cells, first); c < cells.length && cells[c] <= last; c++) {
+                        int i = (int) cells[c];
+                        if (i >= rangeFrom && i < rangeTo && matches(i - from, qRsi, qAdx, qPosition, qUptrend)) found[count++] = i;
+                    }
+                }
+            }
+        } else {
+            // Missing feature on the query bar: its comparisons never reject, check every bar
+            for (long entry : cells) {
+                int i = (int) entry;
+                if (i >= rangeFrom && i < rangeTo && matches(i - from, qRsi, qAdx, qPosition, qUptrend)) found[count++] = i;
+            }
+        }
+        for (int i : unbucketed) {
+            if (i >= rangeFrom && i < rangeTo && matches(i - from, qRsi, qAdx, qPosition, qUptrend)) found[count++] = i;
+        }
+        int[] result = Arrays.copyOf(found, count);
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * Similarity rule (NaN features never reject, exactly like the original comparisons)
+     */
+    private boolean matches(int k, double qRsi, double qAdx, double qPosition, boolean qUptrend) {
+        if (Math.abs(rsi[k] - qRsi) > RSI_TOLERANCE) return false;
+        if (Math.abs(adx[k] - qAdx) > ADX_TOLERANCE) return false;
+        if (uptrend[k] != qUptrend) return false;
+        return !(Math.abs(pricePosition[k] - qPosition) > PRICE_POSITION_TOLERANCE);
+    }
+
+    private boolean isRegular(int k) {
+        return isFinite(rsi[k]) && isFinite(adx[k]) && isFinite(pricePosition[k]);
+    }
+
+    private int cellKey(int k) {
+        return key(uptrend[k] ? 1 : 0, cell(rsi[k], RSI_TOLERANCE), cell(adx[k], ADX_TOLERANCE),
+            positionCell(pricePosition[k]));
+    }
+
+    // Trend bit 30, RSI cell bits 23-29, ADX cell bits 16-22, price position cell bits 0-15
+    // (bit 31 stays clear: keys sort as int)
+    private static int key(int trendBit, int rsiCell, int adxCell, int positionCell) {
+        return trendBit << 30 | rsiCell << 23 | adxCell << 16 | positionCell;
+    }
+
+    // Cells are clamped to the key's bit ranges; clamping is monotonic so neighbouring cells stay neighbours
+    private static int cell(double value, double width) {
+        return (int) Math.max(0, Math.min(127, Math.floor(value / width)));
+    }
+
+    private static int positionCell(double value) {
+        return (int) Math.max(0, Math.min(0xFFFF, Math.floor(value / PRICE_POSITION_TOLERANCE) + 0x8000));
+    }
+
+    private static int lowerBound(long[] sorted, long value) {
+        int lo = 0;
+        int hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid] < value) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static boolean isFinite(double value) {
+        return !Double.isNaN(value) && !Double.isInfinite(value);
+    }
+}
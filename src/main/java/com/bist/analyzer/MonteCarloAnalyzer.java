@@ -0,0 +1,315 @@
+package com.bist.analyzer;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.stream.IntStream;
+
+/**
+ * Confidence intervals for the hit rate and expectancy of the historical signals
+ * Every signal of every symbol is traded independently (BacktestEngine exit rules) at its own bar and
+ * delayed by 0..MAX_DELAY bars, once, into an outcome table. Resamples then only draw from that table:
+ * each resample draws signals with replacement ("bootstrap") and, for the same draws, a random entry
+ * delay ("timing"). Delays only go forward - an earlier entry would trade on bars the signal had not seen.
+ * Resamples run in parallel chunks, each with its own SplittableRandom split from one seed (reproducible).
+ */
+public final class MonteCarloAnalyzer {
+
+    // Entry delay (bars) of the timing resamples; DELAYS must stay a power of two (drawn with a bit mask)
+    private static final int MAX_DELAY = 3;
+    private static final int DELAYS = MAX_DELAY + 1;
+
+    // Resamples per parallel chunk
+    private static final int CHUNK_SIZE = 256;
+
+    private MonteCarloAnalyzer() {
+    }
+
+    /**
+     * Point estimate and 95% interval of one statistic
+     */
+    public static class Interval {
+        public final double estimate;
+        public final double lower;         // %2.5
+        public final double upper;         // %97.5
+
+        Interval(double estimate, double lower, double upper) {
+            this.estimate = estimate;
+            this.lower = lower;
+            this.upper = upper;
+        }
+    }
+
+    /**
+     * Resampled statistics of one signal type
+     */
+    public static class TypeResult {
+        public final String type;          // "AL" / "SAT"
+        public final int signals;
+        public Interval hitRate;
+        public Interval expectancy;
+        public Interval timingHitRate;     // Giriş 0..MAX_DELAY bar gecikmeli
+        public Interval timingExpectancy;
+
+        TypeResult(String type, int signals) {
+            this.type = type;
+            this.signals = signals;
+        }
+    }
+
+    public static class Result {
+        public final BacktestEngine.Settings settings;
+        public final int resamples;
+        public final List<TypeResult> types = new ArrayList<>();
+        public long elapsedMillis;
+
+        Result(BacktestEngine.Settings settings, int resamples) {
+            this.settings = settings;
+            this.resamples = resamples;
+        }
+    }
+
+    /**
+     * Outcome table of one signal type: returns[delay][signal], NaN where the delayed entry is not tradable
+     */
+    private static final class Outcomes {
+        final double[][] returns = new double[DELAYS][];
+        int size;
+
+        Outcomes(int capacity) {
+            for (int s = 0; s < DELAYS; s++) {
+                returns[s] = new double[capacity];
+            }
+        }
+
+        void add(double[] shifted) {
+            if (size == returns[0].length) {
+                for (int s = 0; s < DELAYS; s++) {
+                    returns[s] = Arrays.copyOf(returns[s], Math.max(16, size * 2));
+                }
+            }
+            for (int s = 0; s < DELAYS; s++) {
+                returns[s][size] = shifted[s];
+            }
+            size++;
+        }
+    }
+
+    /**
+     * -Dbist.montecarlo.resamples (default 20000) and -Dbist.montecarlo.seed (default 42)
+     */
+    public static Result run(Map<String, List<StockData>> dailyData, BacktestEngine.Settings settings) {
+        return run(dailyData, settings, Integer.getInteger("bist.montecarlo.resamples", 20000),
+            Long.getLong("bist.montecarlo.seed", 42L));
+    }
+
+    public static Result run(Map<String, List<StockData>> dailyData, BacktestEngine.Settings settings,
+                             int resamples, long seed) {
+        resamples = Math.max(1, resamples);   // The intervals need at least one resample
+        long start = System.currentTimeMillis();
+        Result result = new Result(settings, resamples);
+
+        // 1) Outcome table per symbol (parallel), merged in symbol order
+        List<List<StockData>> series = new ArrayList<>();
+        for (Map.Entry<String, List<StockData>> entry : new TreeMap<>(dailyData).entrySet()) {
+            if (entry.getValue() != null && !entry.getValue().isEmpty()) series.add(entry.getValue());
+        }
+        Outcomes[][] perSymbol = new Outcomes[series.size()][];
+        IntStream.range(0, series.size()).parallel().forEach(i -> perSymbol[i] = outcomes(series.get(i), settings));
+        Outcomes longs = new Outcomes(1024);
+        Outcomes shorts = new Outcomes(1024);
+        double[] row = new double[DELAYS];
+        for (Outcomes[] symbol : perSymbol) {
+            for (int type = 0; type < 2; type++) {
+                Outcomes target = type == 0 ? longs : shorts;
+                for (int i = 0; i < symbol[type].size; i++) {
+                    for (int s = 0; s < DELAYS; s++) {
+                        row[s] = symbol[type].returns[s][i];
+                    }
+                    target.add(row);
+                }
+            }
+        }
+
+        // 2) Resamples per type; the chunk generators are split in a fixed order so results do not depend on threads
+        SplittableRandom root = new SplittableRandom(seed);
+        result.types.add(analyze("AL", longs, resamples, root));
+        result.types.add(analyze("SAT", shorts, resamples, root));
+        result.elapsedMillis = System.currentTimeMillis() - start;
+        return result;
+    }
+
+    public static void printSummary(Result result) {
+        System.out.println("🎲 Monte Carlo (" + result.settings + "): " + result.resamples + " örneklem, "
+            + result.elapsedMillis + " ms");
+        for (TypeResult type : result.types) {
+            if (type.signals == 0) continue;
+            System.out.println(String.format(Locale.US,
+                "  %-3s %6d sinyal | isabet %5.1f%% [%5.1f – %5.1f] | beklenti %+6.2f%% [%+6.2f – %+6.2f]",
+                type.type, type.signals, type.hitRate.estimate * 100, type.hitRate.lower * 100,
+                type.hitRate.upper * 100, type.expectancy.estimate * 100, type.expectancy.lower * 100,
+                type.expectancy.upper * 100));
+            System.out.println(String.format(Locale.US,
+                "      giriş +0..%d bar | isabet %5.1f%% [%5.1f – %5.1f] | beklenti %+6.2f%% [%+6.2f – %+6.2f] | güven çarpanı (alt sınır) %.1f",
+                MAX_DELAY, type.timingHitRate.estimate * 100, type.timingHitRate.lower * 100,
+                type.timingHitRate.upper * 100, type.timingExpectancy.estimate * 100,
+                type.timingExpectancy.lower * 100, type.timingExpectancy.upper * 100,
+                BacktestValidator.calculateConfidenceMultiplier(lowerBound(type))));
+        }
+    }
+
+    /**
+     * Interval table as CSV
+     */
+    public static void writeCsv(Result result, Path file) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            out.println("type,method,signals,statistic,estimate,lower,upper");
+            for (TypeResult type : result.types) {
+                writeCsvRow(out, type, "bootstrap", "hit_rate", type.hitRate);
+                writeCsvRow(out, type, "bootstrap", "expectancy", type.expectancy);
+                writeCsvRow(out, type, "timing", "hit_rate", type.timingHitRate);
+                writeCsvRow(out, type, "timing", "expectancy", type.timingExpectancy);
+            }
+        }
+    }
+
+    /**
+     * The validator's view of a signal type at the pessimistic end of the interval
+     */
+    static BacktestValidator.BacktestResult lowerBound(TypeResult type) {
+        BacktestValidator.BacktestResult backtest = new BacktestValidator.BacktestResult();
+        backtest.totalSignals = type.signals;
+        backtest.successRate = Math.min(type.hitRate.lower, type.timingHitRate.lower);
+        backtest.successfulSignals = (int) Math.round(backtest.successRate * type.signals);
+        return backtest;
+    }
+
+    private static void writeCsvRow(PrintWriter out, TypeResult type, String method, String statistic,
+                                    Interval interval) {
+        if (interval == null) return;
+        out.println(String.format(Locale.US, "%s,%s,%d,%s,%.5f,%.5f,%.5f", type.type, method, type.signals,
+            statistic, interval.estimate, interval.lower, interval.upper));
+    }
+
+    // Every signal of one series, traded at each entry delay; [0] = AL, [1] = SAT
+    private static Outcomes[] outcomes(List<StockData> data, BacktestEngine.Settings settings) {
+        IndicatorCache cache = IndicatorCache.build(data);
+        int[] index = new int[cache.size()];
+        byte[] kind = new byte[cache.size()];
+        int found = cache.scan(SignalThresholds.DEFAULT, index, kind, null, null);
+
+        Outcomes[] outcomes = {new Outcomes(found), new Outcomes(found)};
+        double[] row = new double[DELAYS];
+        for (int k = 0; k < found; k++) {
+            int bar = index[k];
+            // Only matured signals (the undelayed trade must be complete)
+            if (bar + settings.holdingDays >= cache.size) continue;
+            boolean isLong = kind[k] > 0;
+            for (int s = 0; s < DELAYS; s++) {
+                int entry = bar + s;
+                BacktestEngine.Trade trade = entry + settings.holdingDays < cache.size
+                    ? BacktestEngine.simulate("", isLong, entry, cache, settings) : null;
+                row[s] = trade != null ? trade.returnPct : Double.NaN;
+            }
+            outcomes[isLong ? 0 : 1].add(row);
+        }
+        return outcomes;
+    }
+
+    private static TypeResult analyze(String name, Outcomes outcomes, int resamples, SplittableRandom root) {
+        TypeResult type = new TypeResult(name, outcomes.size);
+        if (outcomes.size == 0) {
+            return type;
+        }
+        double[] actual = outcomes.returns[0];
+        int wins = 0;
+        double sum = 0;
+        for (int i = 0; i < outcomes.size; i++) {
+            if (actual[i] > 0) wins++;
+            sum += actual[i];
+        }
+        double hitRate = (double) wins / outcomes.size;
+        double expectancy = sum / outcomes.size;
+
+        // [0] bootstrap, [1] timing
+        double[][] hitRates = new double[2][resamples];
+        double[][] expectancies = new double[2][resamples];
+        resample(outcomes, resamples, root, hitRates, expectancies);
+        type.hitRate = interval(hitRate, hitRates[0]);
+        type.expectancy = interval(expectancy, expectancies[0]);
+        type.timingHitRate = interval(mean(hitRates[1]), hitRates[1]);
+        type.timingExpectancy = interval(mean(expectancies[1]), expectancies[1]);
+        return type;
+    }
+
+    private static void resample(Outcomes outcomes, int resamples, SplittableRandom root,
+                                 double[][] hitRates, double[][] expectancies) {
+        int chunks = (resamples + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        SplittableRandom[] randoms = new SplittableRandom[chunks];
+        for (int c = 0; c < chunks; c++) {
+            randoms[c] = root.split();
+        }
+        int n = outcomes.size;
+        double[] actual = outcomes.returns[0];
+        double[][] delayed = outcomes.returns;
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            SplittableRandom random = randoms[c];
+            int end = Math.min(resamples, (c + 1) * CHUNK_SIZE);
+            for (int r = c * CHUNK_SIZE; r < end; r++) {
+                int wins = 0;
+                double sum = 0;
+                int delayedWins = 0;
+                int delayedCount = 0;
+                double delayedSum = 0;
+                for (int i = 0; i < n; i++) {
+                    // One draw: high 32 bits pick the signal, low bits the delay
+                    long bits = random.nextLong();
+                    int pick = (int) (((bits >>> 32) * n) >>> 32);
+                    double value = actual[pick];
+                    if (value > 0) wins++;
+                    sum += value;
+
+                    double delayedValue = delayed[(int) bits & (DELAYS - 1)][pick];
+                    if (Double.isNaN(delayedValue)) continue;   // Delayed entry past the data
+                    if (delayedValue > 0) delayedWins++;
+                    delayedSum += delayedValue;
+                    delayedCount++;
+                }
+                hitRates[0][r] = (double) wins / n;
+                expectancies[0][r] = sum / n;
+                hitRates[1][r] = delayedCount > 0 ? (double) delayedWins / delayedCount : 0;
+                expectancies[1][r] = delayedCount > 0 ? delayedSum / delayedCount : 0;
+            }
+        });
+    }
+
+    private static Interval interval(double estimate, double[] values) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return new Interval(estimate, percentile(sorted, 0.025), percentile(sorted, 0.975));
+    }
+
+    private static double percentile(double[] sorted, double p) {
+        double position = p * (sorted.length - 1);
+        int lower = (int) Math.floor(position);
+        int upper = Math.min(sorted.length - 1, lower + 1);
+        return sorted[lower] + (sorted[upper] - sorted[lower]) * (position - lower);
+    }
+
+    private static double mean(double[] values) {
+        double sum = 0;
+        for (double value : values) {
+            sum += value;
+        }
+        return values.length > 0 ? sum / values.length : 0;
+    }
+}
@@ -0,0 +1,380 @@
+package com.bist.analyzer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * Work directory shared by the walk-forward coordinator and its worker processes (file protocol)
+ *
+ *   job.properties          settings, threshold grid, symbol shards, segment boundaries (written last)
+ *   series/SYMBOL.bin       daily bars of one symbol
+ *   claims/task-NNNNN       created atomically by the worker that takes the task (content: worker name)
+ *   results/task-NNNNN.part partial tallies of the task (temp file + rename: present = complete)
+ *   logs/                   output of the local worker processes
+ *
+ * A task is one symbol shard x one chunk of the grid, numbered shard-major so consecutive tasks share
+ * their series. Workers on other machines only need the same directory (shared file system).
+ */
+final class OptimizerJob {
+
+    static final String JOB_FILE = "job.properties";
+
+    private static final int PARTIAL_MAGIC = 0x57465054;   // "WFPT"
+
+    final Path dir;
+    final long id;
+    final BacktestEngine.Settings settings;
+    final List<SignalThresholds> grid;
+    final List<List<String>> shards;
+    final int chunkSize;
+    final long[] segmentStarts;   // segments+1 sınır: segment k = [segmentStarts[k], segmentStarts[k+1])
+
+    private OptimizerJob(Path dir, long id, BacktestEngine.Settings settings, List<SignalThresholds> grid,
+                         List<List<String>> shards, int chunkSize, long[] segmentStarts) {
+        this.dir = dir;
+        this.id = id;
+        this.settings = settings;
+        this.grid = grid;
+        this.shards = shards;
+        this.chunkSize = chunkSize;
+        this.segmentStarts = segmentStarts;
+    }
+
+    /**
+     * Start a new job in dir: earlier claims, results and series are removed, job.properties is written last
+     */
+    static OptimizerJob create(Path dir, Map<String, List<StockData>> dailyData, List<SignalThresholds> grid,
+                               BacktestEngine.Settings settings, int symbolsPerShard, int paramsPerChunk,
+                               int segments) throws IOException {
+        Files.createDirectories(dir);
+        Files.deleteIfExists(dir.resolve(JOB_FILE));
+        for (String sub : new String[] {"claims", "results", "series", "logs"}) {
+            Path subDir = dir.resolve(sub);
+            Files.createDirectories(subDir);
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(subDir)) {
+                for (Path file : files) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+
+        List<List<String>> shards = new ArrayList<>();
+        long first = Long.MAX_VALUE;
+        long last = Long.MIN_VALUE;
+        for (Map.Entry<String, List<StockData>> entry : new TreeMap<>(dailyData).entrySet()) {
+            List<StockData> data = entry.getValue();
+            if (data == null || data.isEmpty()) continue;
+            writeSeries(dir.resolve("series").resolve(entry.getKey() + ".bin"), data);
+            if (shards.isEmpty() || shards.get(shards.size() - 1).size() >= symbolsPerShard) {
+                shards.add(new ArrayList<>());
+            }
+            shards.get(shards.size() - 1).add(entry.getKey());
+            first = Math.min(first, data.get(0).getTimestamp());
+            last = Math.max(last, data.get(data.size() - 1).getTimestamp());
+        }
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("No daily data to optimize");
+        }
+
+        // Equal calendar spans; the last boundary is past the last bar so every entry falls into a segment
+        long[] segmentStarts = new long[segments + 1];
+        for (int k = 0; k <= segments; k++) {
+            segmentStarts[k] = first + (long) ((double) (last + 1 - first) * k / segments);
+        }
+        segmentStarts[segments] = last + 1;
+
+        OptimizerJob job = new OptimizerJob(dir, new Random().nextLong() & Long.MAX_VALUE, settings,
+            new ArrayList<>(grid), shards, paramsPerChunk, segmentStarts);
+        job.writeProperties();
+        return job;
+    }
+
+    /**
+     * Job currently in dir (workers)
+     */
+    static OptimizerJob open(Path dir) throws IOException {
+        Properties p = new Properties();
+        try (InputStream in = Files.newInputStream(dir.resolve(JOB_FILE))) {
+            p.load(in);
+        }
+        BacktestEngine.Settings settings = new BacktestEngine.Settings(Integer.parseInt(p.getProperty("hold")),
+            Double.parseDouble(p.getProperty("stop")), Double.parseDouble(p.getProperty("target")),
+            Double.parseDouble(p.getProperty("cost")));
+        List<SignalThresholds> grid = new ArrayList<>();
+        int params = Integer.parseInt(p.getProperty("params"));
+        for (int i = 0; i < params; i++) {
+            String[] f = p.getProperty("param." + i).split(",");
+            grid.add(new SignalThresholds(Integer.parseInt(f[0]), Integer.parseInt(f[1]), Integer.parseInt(f[2]),
+                Integer.parseInt(f[3]), Double.parseDouble(f[4]), Double.parseDouble(f[5]), Double.parseDouble(f[6]),
+                Double.parseDouble(f[7])));
+        }
+        List<List<String>> shards = new ArrayList<>();
+        int shardCount = Integer.parseInt(p.getProperty("shards"));
+        for (int i = 0; i < shardCount; i++) {
+            shards.add(Arrays.asList(p.getProperty("shard." + i).split(",")));
+        }
+        String[] bounds = p.getProperty("segments").split(",");
+        long[] segmentStarts = new long[bounds.length];
+        for (int k = 0; k < bounds.length; k++) {
+            segmentStarts[k] = Long.parseLong(bounds[k]);
+        }
+        return new OptimizerJob(dir, Long.parseLong(p.getProperty("job")), settings, grid, shards,
+            Integer.parseInt(p.getProperty("chunkSize")), segmentStarts);
+    }
+
+    /**
+     * Still the job of dir: the coordinator may have started a new one since this instance was opened
+     */
+    boolean isCurrent() {
+        Properties p = new Properties();
+        try (InputStream in = Files.newInputStream(dir.resolve(JOB_FILE))) {
+            p.load(in);
+        } catch (IOException e) {
+            return false;
+        }
+        return Long.toString(id).equals(p.getProperty("job"));
+    }
+
+    private void writeProperties() throws IOException {
+        Properties p = new Properties();
+        p.setProperty("job", Long.toString(id));
+        p.setProperty("hold", Integer.toString(settings.holdingDays));
+        p.setProperty("stop", Double.toString(settings.stopLoss));
+        p.setProperty("target", Double.toString(settings.takeProfit));
+        p.setProperty("cost", Double.toString(settings.costPerTrade));
+        p.setProperty("params", Integer.toString(grid.size()));
+        for (int i = 0; i < grid.size(); i++) {
+            SignalThresholds t = grid.get(i);
+            p.setProperty("param." + i, t.strongScore + "," + t.minScore + "," + t.strongConfluence + ","
+                + t.minConfluence + "," + t.minAdx + "," + t.adxThreshold + "," + t.volumeSpike + "," + t.strongVolumeSpike);
+        }
+        p.setProperty("shards", Integer.toString(shards.size()));
+        for (int i = 0; i < shards.size(); i++) {
+            p.setProperty("shard." + i, String.join(",", shards.get(i)));
+        }
+        p.setProperty("chunkSize", Integer.toString(chunkSize));
+        StringBuilder bounds = new StringBuilder();
+        for (long start : segmentStarts) {
+            if (bounds.length() > 0) bounds.append(',');
+            bounds.append(start);
+        }
+        p.setProperty("segments", bounds.toString());
+
+        Path temp = dir.resolve(JOB_FILE + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            p.store(out, "BIST walk-forward optimization job");
+        }
+        Files.move(temp, dir.resolve(JOB_FILE), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    int segments() {
+        return segmentStarts.length - 1;
+    }
+
+    int chunks() {
+        return (grid.size() + chunkSize - 1) / chunkSize;
+    }
+
+    int taskCount() {
+        return shards.size() * chunks();
+    }
+
+    int shardOf(int task) {
+        return task / chunks();
+    }
+
+    int firstParam(int task) {
+        return task % chunks() * chunkSize;
+    }
+
+    int paramCount(int task) {
+        return Math.min(chunkSize, grid.size() - firstParam(task));
+    }
+
+    /**
+     * Segment of an entry time, -1 outside the job's period
+     */
+    int segmentOf(long time) {
+        int k = Arrays.binarySearch(segmentStarts, time);
+        k = k >= 0 ? k : -k - 2;
+        return k >= 0 && k < segments() ? k : -1;
+    }
+
+    private static String taskName(int task) {
+        return String.format(Locale.ROOT, "task-%05d", task);
+    }
+
+    // ----- Claims -----
+
+    /**
+     * Take a task: the claim file is created atomically, so exactly one worker gets it
+     */
+    boolean claim(int task, String owner) throws IOException {
+        try {
+            Files.write(dir.resolve("claims").resolve(taskName(task)), owner.getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            return true;
+        } catch (FileAlreadyExistsException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Claimed by some worker, or already done (a released task is neither)
+     */
+    boolean isClaimed(int task) {
+        return Files.exists(claimFile(task)) || hasResult(task);
+    }
+
+    Path claimFile(int task) {
+        return dir.resolve("claims").resolve(taskName(task));
+    }
+
+    /**
+     * Give a task back (its worker died): the next claim takes it again
+     */
+    void release(int task) throws IOException {
+        Files.deleteIfExists(claimFile(task));
+    }
+
+    // ----- Series -----
+
+    private static void writeSeries(Path file, List<StockData> data) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(data.size());
+            for (StockData bar : data) {
+                out.writeLong(bar.getTimestamp());
+                out.writeDouble(bar.getOpen());
+                out.writeDouble(bar.getHigh());
+                out.writeDouble(bar.getLow());
+                out.writeDouble(bar.getClose());
+                out.writeLong(bar.getVolume());
+            }
+        }
+    }
+
+    List<StockData> readSeries(String symbol) throws IOException {
+        Path file = dir.resolve("series").resolve(symbol + ".bin");
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            int count = in.readInt();
+            List<StockData> data = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                data.add(new StockData(symbol, in.readLong(), in.readDouble(), in.readDouble(), in.readDouble(),
+                    in.readDouble(), in.readLong()));
+            }
+            return data;
+        }
+    }
+
+    // ----- Partial results -----
+
+    /**
+     * Trade tallies of one task: [param of the chunk][segment], additive across symbol shards
+     */
+    static final class Partial {
+        final int params;
+        final int segments;
+        final int[] trades;
+        final int[] wins;
+        final double[] winSum;
+        final double[] lossSum;
+
+        Partial(int params, int segments) {
+            this.params = params;
+            this.segments = segments;
+            this.trades = new int[params * segments];
+            this.wins = new int[params * segments];
+            this.winSum = new double[params * segments];
+            this.lossSum = new double[params * segments];
+        }
+
+        void add(int param, int segment, double returnPct) {
+            int k = param * segments + segment;
+            trades[k]++;
+            if (returnPct > 0) {
+                wins[k]++;
+                winSum[k] += returnPct;
+            } else {
+                lossSum[k] += returnPct;
+            }
+        }
+    }
+
+    boolean hasResult(int task) {
+        return Files.exists(resultFile(task));
+    }
+
+    private Path resultFile(int task) {
+        return dir.resolve("results").resolve(taskName(task) + ".part");
+    }
+
+    void writeResult(int task, Partial partial) throws IOException {
+        Path file = resultFile(task);
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(PARTIAL_MAGIC);
+            out.writeLong(id);
+            out.writeInt(task);
+            out.writeInt(partial.params);
+            out.writeInt(partial.segments);
+            for (int k = 0; k < partial.trades.length; k++) {
+                out.writeInt(partial.trades[k]);
+                out.writeInt(partial.wins[k]);
+                out.writeDouble(partial.winSum[k]);
+                out.writeDouble(partial.lossSum[k]);
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Partial tallies of a finished task; null when the file was written for another job or grid
+     * (a worker that outlived its job), see discardResult
+     */
+    Partial readResult(int task) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(resultFile(task))))) {
+            if (in.readInt() != PARTIAL_MAGIC || in.readLong() != id || in.readInt() != task) {
+                return null;
+            }
+            Partial partial = new Partial(in.readInt(), in.readInt());
+            if (partial.params != paramCount(task) || partial.segments != segments()) {
+                return null;
+            }
+            for (int k = 0; k < partial.trades.length; k++) {
+                partial.trades[k] = in.readInt();
+                partial.wins[k] = in.readInt();
+                partial.winSum[k] = in.readDouble();
+                partial.lossSum[k] = in.readDouble();
+            }
+            return partial;
+        }
+    }
+
+    /**
+     * Remove a foreign result and its claim, so the task is computed again
+     */
+    void discardResult(int task) throws IOException {
+        Files.deleteIfExists(resultFile(task));
+        release(task);
+    }
+}
@@ -0,0 +1,116 @@
+package com.bist.analyzer;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * Worker process of the walk-forward optimization (WalkForwardOptimizer)
+ * Claims the free tasks of the job directory one by one, evaluates the task's grid chunk on its symbol shard and
+ * writes the partial tallies; exits when nothing is left to claim. Only one symbol shard is held in memory.
+ *
+ *   java -cp bist-technical-analyzer.jar com.bist.analyzer.OptimizerWorker <job dir> [worker name]
+ *
+ * Started by the coordinator for the local cores; more can be started by hand on other machines that see the
+ * same directory.
+ */
+public final class OptimizerWorker {
+
+    private OptimizerWorker() {
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.err.println("Kullanım: OptimizerWorker <iş dizini> [işçi adı]");
+            System.exit(2);
+        }
+        String name = args.length > 1 ? args[1] : ManagementFactory.getRuntimeMXBean().getName();
+        try {
+            OptimizerJob job = OptimizerJob.open(Paths.get(args[0]));
+            int done = work(job, name);
+            System.out.println("✅ " + name + ": " + done + " görev tamamlandı");
+        } catch (IOException | RuntimeException e) {
+            System.err.println("✗ " + name + ": " + e);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Claim and evaluate tasks until none is free (or a new job replaced this one in its directory); returns the
+     * number of tasks done by this worker
+     */
+    static int work(OptimizerJob job, String name) throws IOException {
+        int done = 0;
+        int loadedShard = -1;
+        String[] symbols = new String[0];
+        IndicatorCache[] caches = new IndicatorCache[0];
+        int[] index = new int[0];
+        byte[] kind = new byte[0];
+        int task;
+        while (true) {
+            if (!job.isCurrent()) {
+                // The coordinator started a new job in this directory: tasks of this one are no longer wanted
+                System.out.println("ℹ️  " + name + ": iş dizininde yeni bir iş başladı, çıkılıyor");
+                break;
+            }
+            if ((task = claimNext(job, name, loadedShard)) < 0) break;
+            int shard = job.shardOf(task);
+            if (shard != loadedShard) {
+                List<String> shardSymbols = job.shards.get(shard);
+                symbols = shardSymbols.toArray(new String[0]);
+                caches = new IndicatorCache[symbols.length];
+                int maxSize = 0;
+                for (int s = 0; s < symbols.length; s++) {
+                    List<StockData> data = job.readSeries(symbols[s]);
+                    caches[s] = IndicatorCache.build(data);
+                    maxSize = Math.max(maxSize, caches[s].size());
+                }
+                index = new int[maxSize];
+                kind = new byte[maxSize];
+                loadedShard = shard;
+            }
+
+            int firstParam = job.firstParam(task);
+            OptimizerJob.Partial partial = new OptimizerJob.Partial(job.paramCount(task), job.segments());
+            for (int p = 0; p < partial.params; p++) {
+                SignalThresholds thresholds = job.grid.get(firstParam + p);
+                for (int s = 0; s < caches.length; s++) {
+                    BacktestEngine.SymbolRun run = BacktestEngine.simulateSignals(symbols[s], caches[s], thresholds,
+                        job.settings, index, kind);
+                    for (BacktestEngine.Trade trade : run.trades) {
+                        int segment = job.segmentOf(trade.entryTime);
+                        if (segment >= 0) partial.add(p, segment, trade.returnPct);
+                    }
+                }
+            }
+            job.writeResult(task, partial);
+            done++;
+        }
+        return done;
+    }
+
+    /**
+     * Claim the next task, preferring (1) the loaded shard, (2) a shard no other worker has started, (3) any;
+     * so every worker mostly computes the indicators of its own shards. Returns -1 when nothing is free
+     */
+    private static int claimNext(OptimizerJob job, String name, int loadedShard) throws IOException {
+        int chunks = job.chunks();
+        if (loadedShard >= 0) {
+            for (int task = loadedShard * chunks; task < (loadedShard + 1) * chunks; task++) {
+                if (!job.isClaimed(task) && job.claim(task, name)) return task;
+            }
+        }
+        for (int shard = 0; shard < job.shards.size(); shard++) {
+            boolean started = false;
+            for (int task = shard * chunks; task < (shard + 1) * chunks && !started; task++) {
+                started = job.isClaimed(task);
+            }
+            if (!started && job.claim(shard * chunks, name)) return shard * chunks;
+        }
+        for (int task = 0; task < job.taskCount(); task++) {
+            if (!job.isClaimed(task) && job.claim(task, name)) return task;
+        }
+        return -1;
+    }
+}
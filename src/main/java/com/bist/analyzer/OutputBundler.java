@@ -0,0 +1,105 @@
+package com.bist.analyzer;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Packs the published output (report + charts) into one compressed archive for a single-transfer upload
+ * and writes precompressed .gz siblings of the text files for static HTTP hosting
+ */
+public class OutputBundler {
+
+    public static final String BUNDLE_FILE = "bist-bundle.zip";
+    public static final String BUNDLE_MANIFEST_FILE = "bist-bundle.manifest";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private OutputBundler() {
+    }
+
+    /**
+     * Write file.gz next to every .html/.json file that has no up-to-date sibling yet
+     * Returns the number of .gz files written
+     */
+    public static int writeGzipSiblings(String localReportDir) throws IOException {
+        int written = 0;
+        for (String file : FtpReportUploader.collectLocalFiles(localReportDir).keySet()) {
+            if (!file.endsWith(".html") && !file.endsWith(".json")) continue;
+            Path source = Paths.get(localReportDir, file);
+            Path target = Paths.get(localReportDir, file + ".gz");
+            if (Files.exists(target)
+                && Files.getLastModifiedTime(target).compareTo(Files.getLastModifiedTime(source)) >= 0) {
+                continue;
+            }
+            try (InputStream in = Files.newInputStream(source);
+                 OutputStream out = new GZIPOutputStream(Files.newOutputStream(target), BUFFER_SIZE) {
+                     {
+                         def.setLevel(Deflater.BEST_COMPRESSION);
+                     }
+                 }) {
+                copy(in, out);
+            }
+            written++;
+        }
+        return written;
+    }
+
+    /**
+     * Pack every published file (and its .gz sibling, if any) into localReportDir/BUNDLE_FILE
+     * Returns the bundle's content manifest: relative path -> "sha256 size"
+     */
+    public static Map<String, String> pack(String localReportDir) throws IOException {
+        Map<String, String> contents = new TreeMap<>();
+        for (Map.Entry<String, String> entry : FtpReportUploader.collectLocalFiles(localReportDir).entrySet()) {
+            contents.put(entry.getKey(), entry.getValue());
+            Path gz = Paths.get(localReportDir, entry.getKey() + ".gz");
+            if (Files.exists(gz)) {
+                contents.put(entry.getKey() + ".gz",
+                    ArtifactManifest.fingerprint().addFile(gz).build() + " " + Files.size(gz));
+            }
+        }
+
+        Path bundle = Paths.get(localReportDir, BUNDLE_FILE);
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(bundle), BUFFER_SIZE))) {
+            for (String file : contents.keySet()) {
+                Path path = Paths.get(localReportDir, file);
+                // Already compressed formats are stored as-is, text is deflated hard
+                boolean compressed = file.endsWith(".gz") || file.endsWith(".png");
+                zip.setLevel(compressed ? Deflater.NO_COMPRESSION : Deflater.BEST_COMPRESSION);
+
+                ZipEntry entry = new ZipEntry(file);
+                entry.setLastModifiedTime(FileTime.fromMillis(Files.getLastModifiedTime(path).toMillis()));
+                zip.putNextEntry(entry);
+                try (InputStream in = Files.newInputStream(path)) {
+                    int n;
+                    while ((n = in.read(buffer)) > 0) {
+                        zip.write(buffer, 0, n);
+                    }
+                }
+                zip.closeEntry();
+            }
+        }
+        return contents;
+    }
+
+    private static void copy(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int n;
+        while ((n = in.read(buffer)) > 0) {
+            out.write(buffer, 0, n);
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.bist.analyzer;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Grid search over SignalThresholds
+ * Indicators of every symbol are computed once (IndicatorCache); each threshold combination is then only
+ * a scan + trade simulation over primitive arrays. Combinations are evaluated on a fork/join pool and
+ * ranked by expectancy (combinations with too few trades are ranked last).
+ */
+public class ParameterSweep {
+
+    // Fewer trades than this over the whole universe is not a meaningful result
+    private static final int MIN_TRADES = 30;
+
+    // Combinations evaluated by one fork/join leaf task
+    private static final int LEAF_SIZE = 4;
+
+    private ParameterSweep() {
+    }
+
+    /**
+     * One evaluated combination
+     */
+    public static class Entry {
+        public final SignalThresholds thresholds;
+        public final BacktestEngine.Stats stats;
+
+        Entry(SignalThresholds thresholds, BacktestEngine.Stats stats) {
+            this.thresholds = thresholds;
+            this.stats = stats;
+        }
+    }
+
+    /**
+     * Default grid around the hand-tuned values (7296 combinations)
+     */
+    public static List<SignalThresholds> defaultGrid() {
+        List<SignalThresholds> grid = new ArrayList<>();
+        double[] minAdxs = {15, 20, 25};
+        double[] adxThresholds = {20, 25, 30};
+        double[] volumeSpikes = {1.5, 2.0, 2.5};
+        double[] strongVolumeSpikes = {2.5, 3.0, 4.0};
+        for (int strongScore = 5; strongScore <= 9; strongScore++) {
+            for (int minScore = 3; minScore <= Math.min(6, strongScore); minScore++) {
+                for (int strongConfluence = 2; strongConfluence <= 4; strongConfluence++) {
+                    for (int minConfluence = 1; minConfluence <= Math.min(3, strongConfluence); minConfluence++) {
+                        for (double minAdx : minAdxs) {
+                            for (double adx : adxThresholds) {
+                                if (adx <= minAdx) continue;
+                                for (double spike : volumeSpikes) {
+                                    for (double strongSpike : strongVolumeSpikes) {
+                                        if (strongSpike <= spike) continue;
+                                        grid.add(new SignalThresholds(strongScore, minScore, strongConfluence,
+                                            minConfluence, minAdx, adx, spike, strongSpike));
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * Evaluate every combination of the grid on dailyData; returns the ranked results (best first)
+     */
+    public static List<Entry> run(Map<String, List<StockData>> dailyData, List<SignalThresholds> grid,
+                                  BacktestEngine.Settings settings) {
+        long start = System.currentTimeMillis();
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors()));
+        try {
+            // 1) Indicators once per symbol
+            final List<String> symbols = new ArrayList<>();
+            final List<List<StockData>> series = new ArrayList<>();
+            for (Map.Entry<String, List<StockData>> entry : new TreeMap<>(dailyData).entrySet()) {
+                if (entry.getValue() == null || entry.getValue().isEmpty()) continue;
+                symbols.add(entry.getKey());
+                series.add(entry.getValue());
+            }
+            final IndicatorCache[] caches = new IndicatorCache[symbols.size()];
+            pool.invoke(new RangeTask(0, caches.length, 1, i -> {
+                List<StockData> data = series.get(i);
+                caches[i] = IndicatorCache.build(data);
+            }));
+            long cached = System.currentTimeMillis();
+
+            // 2) Every combination over all cached series
+            int maxSize = 0;
+            for (IndicatorCache cache : caches) {
+                maxSize = Math.max(maxSize, cache.size());
+            }
+            final int bufferSize = maxSize;
+            final Entry[] entries = new Entry[grid.size()];
+            pool.invoke(new RangeTask(0, grid.size(), LEAF_SIZE, g -> {
+                int[] index = new int[bufferSize];
+                byte[] kind = new byte[bufferSize];
+                SignalThresholds thresholds = grid.get(g);
+                List<BacktestEngine.Trade> trades = new ArrayList<>();
+                for (int s = 0; s < caches.length; s++) {
+                    trades.addAll(BacktestEngine.simulateSignals(symbols.get(s), caches[s], thresholds,
+                        settings, index, kind).trades);
+                }
+                entries[g] = new Entry(thresholds, BacktestEngine.pooledStats(trades, caches.length));
+            }));
+
+            List<Entry> ranked = new ArrayList<>(entries.length);
+            for (Entry entry : entries) {
+                ranked.add(entry);
+            }
+            ranked.sort((a, b) -> {
+                boolean aValid = a.stats.trades >= MIN_TRADES;
+                boolean bValid = b.stats.trades >= MIN_TRADES;
+                if (aValid != bValid) return aValid ? -1 : 1;
+                if (a.stats.expectancy != b.stats.expectancy) return Double.compare(b.stats.expectancy, a.stats.expectancy);
+                return Double.compare(b.stats.hitRate, a.stats.hitRate);
+            });
+
+            System.out.println("🔬 Parametre taraması: " + grid.size() + " kombinasyon x " + caches.length + " hisse, "
+                + (cached - start) + " ms gösterge + " + (System.currentTimeMillis() - cached) + " ms tarama ("
+                + pool.getParallelism() + " iş parçacığı)");
+            return ranked;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Console table of the best combinations (the hand-tuned DEFAULT is marked)
+     */
+    public static void printTop(List<Entry> ranked, int limit) {
+        for (int i = 0; i < Math.min(limit, ranked.size()); i++) {
+            Entry entry = ranked.get(i);
+            System.out.println(String.format(Locale.US,
+                "  %3d. %s | işlem %5d | isabet %5.1f%% | beklenti %+6.2f%% | max DD %5.1f%%%s",
+                i + 1, entry.thresholds, entry.stats.trades, entry.stats.hitRate * 100,
+                entry.stats.expectancy * 100, entry.stats.maxDrawdown * 100,
+                isDefault(entry.thresholds) ? "  ← mevcut" : ""));
+        }
+        for (int i = limit; i < ranked.size(); i++) {
+            if (isDefault(ranked.get(i).thresholds)) {
+                System.out.println("  Mevcut eşikler sıralamada " + (i + 1) + ". / " + ranked.size());
+            }
+        }
+    }
+
+    /**
+     * Full ranked table as CSV
+     */
+    public static void writeCsv(List<Entry> ranked, Path file) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            out.println("rank,strong_score,min_score,strong_confluence,min_confluence,min_adx,adx,volume_spike,strong_volume_spike,"
+                + "trades,hit_rate,expectancy,total_return,max_drawdown");
+            for (int i = 0; i < ranked.size(); i++) {
+                SignalThresholds t = ranked.get(i).thresholds;
+                BacktestEngine.Stats stats = ranked.get(i).stats;
+                out.println(String.format(Locale.US, "%d,%d,%d,%d,%d,%.1f,%.1f,%.2f,%.2f,%d,%.4f,%.5f,%.5f,%.5f",
+                    i + 1, t.strongScore, t.minScore, t.strongConfluence, t.minConfluence, t.minAdx, t.adxThreshold,
+                    t.volumeSpike, t.strongVolumeSpike, stats.trades, stats.hitRate, stats.expectancy,
+                    stats.totalReturn, stats.maxDrawdown));
+            }
+        }
+    }
+
+    private static boolean isDefault(SignalThresholds t) {
+        SignalThresholds d = SignalThresholds.DEFAULT;
+        return t.strongScore == d.strongScore && t.minScore == d.minScore
+            && t.strongConfluence == d.strongConfluence && t.minConfluence == d.minConfluence
+            && t.minAdx == d.minAdx && t.adxThreshold == d.adxThreshold && t.volumeSpike == d.volumeSpike
+            && t.strongVolumeSpike == d.strongVolumeSpike;
+    }
+
+    /**
+     * Fork/join over an index range, split until leafSize items are left
+     */
+    private static class RangeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final int leafSize;
+        private final IntConsumer action;
+
+        RangeTask(int from, int to, int leafSize, IntConsumer action) {
+            this.from = from;
+            this.to = to;
+            this.leafSize = leafSize;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= leafSize) {
+                for (int i = from; i < to; i++) {
+                    action.accept(i);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new RangeTask(from, mid, leafSize, action), new RangeTask(mid, to, leafSize, action));
+        }
+    }
+}
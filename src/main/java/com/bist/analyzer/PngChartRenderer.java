@@ -0,0 +1,205 @@
+package com.bist.analyzer;
+
+import org.jfree.chart.JFreeChart;
+import org.jfree.chart.axis.DateAxis;
+import org.jfree.chart.axis.NumberAxis;
+import org.jfree.chart.plot.CombinedDomainXYPlot;
+import org.jfree.chart.plot.ValueMarker;
+import org.jfree.chart.plot.XYPlot;
+import org.jfree.chart.renderer.xy.XYLineAndShapeRenderer;
+import org.jfree.data.time.Day;
+import org.jfree.data.time.TimeSeries;
+import org.jfree.data.time.TimeSeriesCollection;
+
+import javax.imageio.ImageIO;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Headless PNG chart thumbnails with JFreeChart (no JavaScript needed to view them)
+ * Price + SMA20 + SMA50 panel and an RSI(14) panel, daily closes of the last THUMBNAIL_DAYS
+ *
+ * Symbols are rendered in parallel on a bounded thread pool; every worker thread reuses
+ * one BufferedImage for all the symbols it renders
+ */
+public class PngChartRenderer {
+
+    public static final int WIDTH = 640;
+    public static final int HEIGHT = 400;
+
+    private static final int THUMBNAIL_DAYS = 180;
+    private static final int MAX_THREADS = 4;
+
+    private static final TimeZone TZ = TimeZone.getTimeZone("Europe/Istanbul");
+    private static final Locale TR = new Locale("tr", "TR");
+
+    static {
+        System.setProperty("java.awt.headless", "true");
+    }
+
+    // One canvas per worker thread, reused for every symbol the thread renders
+    private static final ThreadLocal<BufferedImage> CANVAS = new ThreadLocal<BufferedImage>() {
+        @Override
+        protected BufferedImage initialValue() {
+            return new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        }
+    };
+
+    private PngChartRenderer() {
+    }
+
+    /**
+     * Render SYMBOL_thumb.png for every symbol in allData into outputDir
+     * Returns the number of thumbnails written
+     */
+    public static int renderAll(Map<String, List<StockData>> allData, String outputDir) {
+        return renderAll(allData, outputDir, null);
+    }
+
+    /**
+     * Same as renderAll, thumbnails whose bars did not change since the last run are skipped (manifest may be null)
+     */
+    public static int renderAll(Map<String, List<StockData>> allData, String outputDir,
+                                final ArtifactManifest manifest) {
+        int threads = Math.max(1, Math.min(MAX_THREADS, Runtime.getRuntime().availableProcessors()));
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        long start = System.currentTimeMillis();
+
+        List<String> symbols = new ArrayList<>();
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (Map.Entry<String, List<StockData>> entry : allData.entrySet()) {
+                final String symbol = entry.getKey();
+                final List<StockData> data = entry.getValue();
+                if (data == null || data.isEmpty()) continue;
+                final File outputFile = new File(outputDir, symbol + "_thumb.png");
+                final String key = "thumb:" + symbol;
+                final String fingerprint = ArtifactManifest.fingerprint()
+                    .add(symbol).addBars(data).add((long) THUMBNAIL_DAYS).add((long) WIDTH).add((long) HEIGHT)
+                    .build();
+                if (manifest != null && manifest.isUnchanged(key, fingerprint, outputFile.toPath())) continue;
+                symbols.add(symbol);
+                futures.add(pool.submit(() -> {
+                    renderThumbnail(symbol, data, outputFile);
+                    if (manifest != null) {
+                        manifest.update(key, fingerprint);
+                    }
+                    return null;
+                }));
+            }
+
+            int rendered = 0;
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    futures.get(i).get();
+                    rendered++;
+                } catch (Exception e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    System.err.println("  ✗ " + symbols.get(i) + " PNG grafik hatası: " + cause.getMessage());
+                }
+            }
+
+            System.out.println("🖼️  PNG grafikler oluşturuldu: " + rendered + "/" + futures.size()
+                + " (" + threads + " iş parçacığı, " + (System.currentTimeMillis() - start) + " ms)");
+            return rendered;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Render one thumbnail on the calling thread's reusable canvas and write it as PNG
+     */
+    public static void renderThumbnail(String symbol, List<StockData> data, File outputFile) throws IOException {
+        JFreeChart chart = createChart(symbol, data);
+
+        BufferedImage image = CANVAS.get();
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.setBackground(Color.WHITE);
+            g.clearRect(0, 0, WIDTH, HEIGHT);
+            chart.draw(g, new Rectangle2D.Double(0, 0, WIDTH, HEIGHT));
+        } finally {
+            g.dispose();
+        }
+
+        ImageIO.write(image, "png", outputFile);
+    }
+
+    private static JFreeChart createChart(String symbol, List<StockData> data) {
+        double[] sma20 = TechnicalIndicators.calculateSMA(data, 20);
+        double[] sma50 = TechnicalIndicators.calculateSMA(data, 50);
+        double[] rsi = TechnicalIndicators.calculateRSI(data, 14);
+
+        TimeSeries price = new TimeSeries("Kapanış");
+        TimeSeries sma20Series = new TimeSeries("SMA20");
+        TimeSeries sma50Series = new TimeSeries("SMA50");
+        TimeSeries rsiSeries = new TimeSeries("RSI(14)");
+
+        // Hourly bars collapse into one point per day: later bars of the same day overwrite earlier ones (EOD)
+        long cutoff = data.get(data.size() - 1).getTimestamp() - THUMBNAIL_DAYS * 24L * 60 * 60 * 1000;
+        for (int i = 0; i < data.size(); i++) {
+            StockData bar = data.get(i);
+            if (bar.getTimestamp() < cutoff) continue;
+            Day day = new Day(new Date(bar.getTimestamp()), TZ, TR);
+            price.addOrUpdate(day, bar.getClose());
+            addIfValid(sma20Series, day, sma20, i);
+            addIfValid(sma50Series, day, sma50, i);
+            addIfValid(rsiSeries, day, rsi, i);
+        }
+
+        TimeSeriesCollection priceData = new TimeSeriesCollection();
+        priceData.addSeries(price);
+        priceData.addSeries(sma20Series);
+        priceData.addSeries(sma50Series);
+        XYLineAndShapeRenderer priceRenderer = new XYLineAndShapeRenderer(true, false);
+        priceRenderer.setSeriesPaint(0, new Color(0x1a, 0x1a, 0x1a));
+        priceRenderer.setSeriesPaint(1, new Color(0x21, 0x96, 0xF3));
+        priceRenderer.setSeriesPaint(2, new Color(0xFF, 0x98, 0x00));
+        priceRenderer.setSeriesStroke(0, new BasicStroke(1.6f));
+        NumberAxis priceAxis = new NumberAxis("Fiyat (TL)");
+        priceAxis.setAutoRangeIncludesZero(false);
+        XYPlot pricePlot = new XYPlot(priceData, null, priceAxis, priceRenderer);
+
+        TimeSeriesCollection rsiData = new TimeSeriesCollection();
+        rsiData.addSeries(rsiSeries);
+        XYLineAndShapeRenderer rsiRenderer = new XYLineAndShapeRenderer(true, false);
+        rsiRenderer.setSeriesPaint(0, new Color(0x9C, 0x27, 0xB0));
+        NumberAxis rsiAxis = new NumberAxis("RSI");
+        rsiAxis.setRange(0, 100);
+        XYPlot rsiPlot = new XYPlot(rsiData, null, rsiAxis, rsiRenderer);
+        rsiPlot.addRangeMarker(new ValueMarker(70, Color.RED, new BasicStroke(1f)));
+        rsiPlot.addRangeMarker(new ValueMarker(30, new Color(0x4C, 0xAF, 0x50), new BasicStroke(1f)));
+
+        CombinedDomainXYPlot plot = new CombinedDomainXYPlot(new DateAxis());
+        plot.setGap(8);
+        plot.add(pricePlot, 3);
+        plot.add(rsiPlot, 1);
+
+        JFreeChart chart = new JFreeChart(symbol + " - Teknik Analiz", JFreeChart.DEFAULT_TITLE_FONT, plot, true);
+        chart.setBackgroundPaint(Color.WHITE);
+        return chart;
+    }
+
+    private static void addIfValid(TimeSeries series, Day day, double[] values, int index) {
+        if (index < values.length && !Double.isNaN(values[index]) && values[index] != 0) {
+            series.addOrUpdate(day, values[index]);
+        }
+    }
+}
@@ -0,0 +1,435 @@
+package com.bist.analyzer;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.IntStream;
+
+/**
+ * Event-driven portfolio backtest of the historical signals of every symbol
+ * The TradePoints of findHistoricalSignals are merged through one time-ordered event queue and traded
+ * against a single cash account: equal-weight slots (at most maxPositions open), whole shares,
+ * commission on both sides. Long only (BIST): AL opens a position, SAT closes an open one early;
+ * otherwise positions leave on the BacktestEngine stop / target / holding-period rules.
+ * Positions and events live in primitive arrays; the equity is marked to market every trading day.
+ */
+public final class PortfolioSimulator {
+
+    // Event kinds, also their order within one timestamp: exits free cash and slots before new entries
+    private static final int EVENT_EXIT = 0;
+    private static final int EVENT_SIGNAL_EXIT = 1;
+    private static final int EVENT_ENTRY = 2;
+
+    private PortfolioSimulator() {
+    }
+
+    /**
+     * Account rules; exits follow the BacktestEngine settings (its costPerTrade is not used, see commission)
+     */
+    public static class Settings {
+        public final double initialCash;
+        public final int maxPositions;     // Aynı anda en fazla açık pozisyon
+        public final double commission;   // Alış ve satışta ayrı ayrı (0.002 = %0.2)
+        public final BacktestEngine.Settings exits;
+
+        public Settings(double initialCash, int maxPositions, double commission, BacktestEngine.Settings exits) {
+            if (maxPositions < 1) {
+                throw new IllegalArgumentException("maxPositions must be >= 1: " + maxPositions);
+            }
+            this.initialCash = initialCash;
+            this.maxPositions = maxPositions;
+            this.commission = commission;
+            this.exits = exits;
+        }
+
+        /**
+         * -Dbist.portfolio.cash / .positions / .commission (defaults 100000 TL, 10, %0.2) + the bist.backtest.* exits
+         */
+        public static Settings fromSystemProperties() {
+            return new Settings(
+                Double.parseDouble(System.getProperty("bist.portfolio.cash", "100000")),
+                Integer.getInteger("bist.portfolio.positions", 10),
+                Double.parseDouble(System.getProperty("bist.portfolio.commission", "0.002")),
+                BacktestEngine.Settings.fromSystemProperties());
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "sermaye %.0f₺, en fazla %d pozisyon, komisyon %.2f%%, %s",
+                initialCash, maxPositions, commission * 100, exits);
+        }
+    }
+
+    /**
+     * Equity curve (one point per trading day of the universe), closed trades and account statistics
+     */
+    public static class Result {
+        public final Settings settings;
+        public long[] time;
+        public double[] equity;
+        public double[] cash;
+        public int[] openPositions;
+        public final List<BacktestEngine.Trade> trades = new ArrayList<>();
+        public int signals;
+        public int skippedNoSlot;          // Boş pozisyon yeri yoktu
+        public int skippedNoCash;          // Bir lot alacak nakit yoktu
+        public int skippedHeld;            // Hisse zaten portföydeydi
+        public double commissionPaid;
+        public double totalReturn;
+        public double annualReturn;
+        public double maxDrawdown;
+        public double hitRate;
+        public double averageExposure;     // Ortalama açık pozisyon sayısı / maxPositions
+        public long signalMillis;
+        public long simulationMillis;
+
+        Result(Settings settings) {
+            this.settings = settings;
+        }
+    }
+
+    /**
+     * Simulate the portfolio over dailyData (daily bars, oldest first)
+     */
+    public static Result run(Map<String, List<StockData>> dailyData, Settings settings) {
+        long start = System.currentTimeMillis();
+        Result result = new Result(settings);
+
+        List<String> names = new ArrayList<>();
+        List<List<StockData>> series = new ArrayList<>();
+        for (Map.Entry<String, List<StockData>> entry : new TreeMap<>(dailyData).entrySet()) {
+            if (entry.getValue() == null || entry.getValue().isEmpty()) continue;
+            names.add(entry.getKey());
+            series.add(entry.getValue());
+        }
+        int symbolCount = names.size();
+
+        // 1) Signals of every symbol (parallel, same scan as the chart markers)
+        IndicatorCache[] caches = new IndicatorCache[symbolCount];
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        List<SignalGenerator.TradePoint>[] signals = new List[symbolCount];
+        IntStream.range(0, symbolCount).parallel().forEach(s -> {
+            List<StockData> data = series.get(s);
+            caches[s] = IndicatorCache.build(data);
+            signals[s] = SignalGenerator.findHistoricalSignals(caches[s], SignalThresholds.DEFAULT);
+        });
+        long signalled = System.currentTimeMillis();
+        result.signalMillis = signalled - start;
+
+        // 2) Event queue with every signal (keyed by trading day); exits are added as positions open
+        long[] timeline = timeline(caches);
+        EventQueue events = new EventQueue(1024);
+        for (int s = 0; s < symbolCount; s++) {
+            for (SignalGenerator.TradePoint point : signals[s]) {
+                boolean buy = "BUY".equals(point.type);
+                // Strong signals first when slots are short
+                int rank = buy && point.reason.startsWith("Güçlü") ? 0 : 1;
+                events.push(Arrays.binarySearch(timeline, caches[s].time[point.index]),
+                    buy ? EVENT_ENTRY : EVENT_SIGNAL_EXIT, rank, s, point.index, -1, 0);
+                if (buy) result.signals++;
+            }
+        }
+
+        // 3) Walk the trading days of the universe
+        BacktestEngine.Settings grossExits = new BacktestEngine.Settings(settings.exits.holdingDays,
+            settings.exits.stopLoss, settings.exits.takeProfit, 0);
+        Book book = new Book(settings.maxPositions, symbolCount);
+        result.time = timeline;
+        result.equity = new double[timeline.length];
+        result.cash = new double[timeline.length];
+        result.openPositions = new int[timeline.length];
+        double cash = settings.initialCash;
+        double equity = settings.initialCash;
+        double peak = equity;
+        double exposure = 0;
+        int wins = 0;
+        int nextPositionId = 0;
+
+        for (int d = 0; d < timeline.length; d++) {
+            long today = timeline[d];
+            while (!events.isEmpty() && events.peekDay() <= d) {
+                events.pop();
+                int s = events.symbol;
+                int bar = events.bar;
+                if (events.kind == EVENT_ENTRY) {
+                    if (book.slotOf[s] >= 0) {
+                        result.skippedHeld++;
+                        continue;
+                    }
+                    int slot = book.freeSlot();
+                    if (slot < 0) {
+                        result.skippedNoSlot++;
+                        continue;
+                    }
+                    // Not matured: the holding period runs past the data (BacktestEngine skips these too)
+                    if (bar + settings.exits.holdingDays >= caches[s].size()) continue;
+                    double price = caches[s].close[bar];
+                    double budget = Math.min(cash, equity / settings.maxPositions);
+                    long shares = price > 0 ? (long) Math.floor(budget / (price * (1 + settings.commission))) : 0;
+                    if (shares < 1) {
+                        result.skippedNoCash++;
+                        continue;
+                    }
+                    double cost = shares * price;
+                    cash -= cost * (1 + settings.commission);
+                    result.commissionPaid += cost * settings.commission;
+                    book.open(slot, s, nextPositionId, shares, price, bar);
+
+                    // Scheduled exit by the BacktestEngine rules (gross prices, commission is charged here)
+                    BacktestEngine.Trade planned = BacktestEngine.simulate(names.get(s), true, bar, caches[s], grossExits);
+                    events.push(Arrays.binarySearch(timeline, planned.exitTime), EVENT_EXIT, 0, s,
+                        bar + planned.barsHeld, nextPositionId, planned.exitPrice);
+                    book.exitReason[slot] = planned.exitReason;
+                    nextPositionId++;
+                } else {
+                    int slot = book.slotOf[s];
+                    // Stale scheduled exit (closed by a SAT signal) or SAT with nothing to close
+                    if (slot < 0 || (events.kind == EVENT_EXIT && book.positionId[slot] != events.positionId)) {
+                        continue;
+                    }
+                    if (events.kind == EVENT_SIGNAL_EXIT && bar <= book.entryBar[slot]) continue;
+                    boolean signalExit = events.kind == EVENT_SIGNAL_EXIT;
+                    double price = signalExit ? caches[s].close[bar] : events.price;
+                    double proceeds = book.shares[slot] * price;
+                    cash += proceeds * (1 - settings.commission);
+                    result.commissionPaid += proceeds * settings.commission;
+
+                    double entryCost = book.shares[slot] * book.entryPrice[slot] * (1 + settings.commission);
+                    double net = proceeds * (1 - settings.commission) / entryCost - 1;
+                    if (net > 0) wins++;
+                    result.trades.add(new BacktestEngine.Trade(names.get(s), true, caches[s].time[book.entryBar[slot]],
+                        caches[s].time[bar], book.entryPrice[slot], price, net, bar - book.entryBar[slot],
+                        signalExit ? BacktestEngine.EXIT_SIGNAL : book.exitReason[slot]));
+                    book.close(slot);
+                }
+            }
+
+            // Mark to market at today's closes
+            equity = cash;
+            for (int slot = 0; slot < book.capacity; slot++) {
+                if (book.symbol[slot] < 0) continue;
+                IndicatorCache cache = caches[book.symbol[slot]];
+                int cursor = book.cursor[slot];
+                while (cursor + 1 < cache.size() && cache.time[cursor + 1] <= today) cursor++;
+                book.cursor[slot] = cursor;
+                equity += book.shares[slot] * cache.close[cursor];
+            }
+            peak = Math.max(peak, equity);
+            result.maxDrawdown = Math.max(result.maxDrawdown, 1 - equity / peak);
+            result.equity[d] = equity;
+            result.cash[d] = cash;
+            result.openPositions[d] = book.open;
+            exposure += (double) book.open / settings.maxPositions;
+        }
+
+        result.totalReturn = equity / settings.initialCash - 1;
+        if (timeline.length > 1 && equity > 0) {
+            double years = (timeline[timeline.length - 1] - timeline[0]) / (365.25 * 24 * 3600 * 1000.0);
+            result.annualReturn = years > 0 ? Math.pow(equity / settings.initialCash, 1 / years) - 1 : 0;
+        }
+        result.hitRate = result.trades.isEmpty() ? 0 : (double) wins / result.trades.size();
+        result.averageExposure = timeline.length > 0 ? exposure / timeline.length : 0;
+        result.simulationMillis = System.currentTimeMillis() - signalled;
+        return result;
+    }
+
+    public static void printSummary(Result result) {
+        System.out.println("💼 Portföy simülasyonu (" + result.settings + ")");
+        System.out.println(String.format(Locale.US,
+            "  Getiri %+.1f%% (yıllık %+.1f%%) | max DD %.1f%% | %d işlem, isabet %.1f%% | ort. doluluk %.0f%% | komisyon %.0f₺",
+            result.totalReturn * 100, result.annualReturn * 100, result.maxDrawdown * 100, result.trades.size(),
+            result.hitRate * 100, result.averageExposure * 100, result.commissionPaid));
+        System.out.println("  " + result.signals + " AL sinyali: yer yok " + result.skippedNoSlot + ", nakit yok "
+            + result.skippedNoCash + ", zaten portföyde " + result.skippedHeld + " | sinyaller " + result.signalMillis
+            + " ms, simülasyon " + result.simulationMillis + " ms");
+    }
+
+    /**
+     * Daily equity curve as CSV
+     */
+    public static void writeEquityCsv(Result result, Path file) throws IOException {
+        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            out.println("date,equity,cash,positions,drawdown");
+            double peak = result.settings.initialCash;
+            for (int d = 0; d < result.time.length; d++) {
+                peak = Math.max(peak, result.equity[d]);
+                out.println(String.format(Locale.US, "%s,%.2f,%.2f,%d,%.5f", sdf.format(new Date(result.time[d])),
+                    result.equity[d], result.cash[d], result.openPositions[d], 1 - result.equity[d] / peak));
+            }
+        }
+    }
+
+    // Sorted distinct bar times of all symbols
+    private static long[] timeline(IndicatorCache[] caches) {
+        int total = 0;
+        for (IndicatorCache cache : caches) {
+            total += cache.size();
+        }
+        long[] all = new long[total];
+        int n = 0;
+        for (IndicatorCache cache : caches) {
+            System.arraycopy(cache.time, 0, all, n, cache.size());
+            n += cache.size();
+        }
+        Arrays.sort(all);
+        int distinct = 0;
+        for (int i = 0; i < n; i++) {
+            if (distinct == 0 || all[i] != all[distinct - 1]) all[distinct++] = all[i];
+        }
+        return Arrays.copyOf(all, distinct);
+    }
+
+    /**
+     * Open positions, one slot per position (symbol -1 = free)
+     */
+    private static final class Book {
+        final int capacity;
+        final int[] symbol;
+        final int[] positionId;
+        final long[] shares;
+        final double[] entryPrice;
+        final int[] entryBar;
+        final int[] cursor;               // Last bar marked to market
+        final int[] exitReason;           // Reason of the scheduled exit
+        final int[] slotOf;               // Symbol -> slot, -1 when not held
+        int open;
+
+        Book(int capacity, int symbols) {
+            this.capacity = capacity;
+            this.symbol = new int[capacity];
+            this.positionId = new int[capacity];
+            this.shares = new long[capacity];
+            this.entryPrice = new double[capacity];
+            this.entryBar = new int[capacity];
+            this.cursor = new int[capacity];
+            this.exitReason = new int[capacity];
+            this.slotOf = new int[symbols];
+            Arrays.fill(symbol, -1);
+            Arrays.fill(slotOf, -1);
+        }
+
+        int freeSlot() {
+            if (open == capacity) return -1;
+            for (int slot = 0; slot < capacity; slot++) {
+                if (symbol[slot] < 0) return slot;
+            }
+            return -1;
+        }
+
+        void open(int slot, int s, int id, long count, double price, int bar) {
+            symbol[slot] = s;
+            positionId[slot] = id;
+            shares[slot] = count;
+            entryPrice[slot] = price;
+            entryBar[slot] = bar;
+            cursor[slot] = bar;
+            slotOf[s] = slot;
+            open++;
+        }
+
+        void close(int slot) {
+            slotOf[symbol[slot]] = -1;
+            symbol[slot] = -1;
+            open--;
+        }
+    }
+
+    /**
+     * Binary min-heap of events ordered by (day, kind, rank, symbol, bar), packed into one long key per event
+     * The payload (position id, exit price) sits in arrays indexed by event id; pop() copies the head event
+     * into kind/symbol/bar/positionId/price
+     */
+    private static final class EventQueue {
+        private long[] keys;
+        private int[] ids;
+        private int size;
+        private int[] positionIds;
+        private double[] prices;
+        private int count;
+
+        int kind;
+        int symbol;
+        int bar;
+        int positionId;
+        double price;
+
+        EventQueue(int capacity) {
+            keys = new long[capacity];
+            ids = new int[capacity];
+            positionIds = new int[capacity];
+            prices = new double[capacity];
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        int peekDay() {
+            return (int) (keys[0] >>> 42);
+        }
+
+        // 21 bits day, 2 bits kind, 1 bit rank, 16 bits symbol, 22 bits bar
+        void push(int day, int eventKind, int rank, int eventSymbol, int eventBar, int eventPositionId,
+                  double eventPrice) {
+            if (count == positionIds.length) {
+                positionIds = Arrays.copyOf(positionIds, count * 2);
+                prices = Arrays.copyOf(prices, count * 2);
+            }
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            int id = count++;
+            positionIds[id] = eventPositionId;
+            prices[id] = eventPrice;
+            long key = (long) day << 42 | (long) eventKind << 40 | (long) rank << 39 | (long) eventSymbol << 22 | eventBar;
+
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (keys[parent] <= key) break;
+                keys[i] = keys[parent];
+                ids[i] = ids[parent];
+                i = parent;
+            }
+            keys[i] = key;
+            ids[i] = id;
+        }
+
+        void pop() {
+            long head = keys[0];
+            kind = (int) (head >>> 40) & 0x3;
+            symbol = (int) (head >>> 22) & 0xFFFF;
+            bar = (int) head & 0x3FFFFF;
+            positionId = positionIds[ids[0]];
+            price = prices[ids[0]];
+
+            size--;
+            long lastKey = keys[size];
+            int lastId = ids[size];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) break;
+                if (child + 1 < size && keys[child + 1] < keys[child]) child++;
+                if (keys[child] >= lastKey) break;
+                keys[i] = keys[child];
+                ids[i] = ids[child];
+                i = child;
+            }
+            keys[i] = lastKey;
+            ids[i] = lastId;
+        }
+    }
+}
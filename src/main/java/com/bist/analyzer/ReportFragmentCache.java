@@ -0,0 +1,117 @@
+package com.bist.analyzer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Rendered per-symbol report fragments (UTF-8 bytes), reused until the symbol's input fingerprint changes
+ * Kept in memory for the current run and on disk (dir/SYMBOL.frag) for the next one,
+ * each file starts with the fingerprint it was rendered from: "fingerprint\n" + fragment bytes
+ */
+final class ReportFragmentCache {
+
+    private static final String SUFFIX = ".frag";
+
+    // SHA-256 hex + '\n'
+    private static final int HEADER_LENGTH = 65;
+
+    private final Path dir;
+    private final Map<String, byte[]> fragments = new HashMap<>();
+    private final Set<String> used = new HashSet<>();
+    private int hits;
+    private int misses;
+
+    ReportFragmentCache(Path dir) {
+        this.dir = dir;
+    }
+
+    /**
+     * Cached fragment rendered from exactly this fingerprint, or null
+     */
+    byte[] get(String key, String fingerprint) {
+        used.add(key);
+        String memoryKey = key + "@" + fingerprint;
+        byte[] fragment = fragments.get(memoryKey);
+        if (fragment == null) {
+            fragment = readFromDisk(key, fingerprint);
+            if (fragment == null) {
+                misses++;
+                return null;
+            }
+            fragments.put(memoryKey, fragment);
+        }
+        hits++;
+        return fragment;
+    }
+
+    void put(String key, String fingerprint, byte[] fragment) {
+        used.add(key);
+        fragments.put(key + "@" + fingerprint, fragment);
+        try {
+            Files.createDirectories(dir);
+            Path file = dir.resolve(key + SUFFIX);
+            Path temp = dir.resolve(key + SUFFIX + ".tmp");
+            byte[] header = (fingerprint + "\n").getBytes(StandardCharsets.US_ASCII);
+            byte[] content = Arrays.copyOf(header, header.length + fragment.length);
+            System.arraycopy(fragment, 0, content, header.length, fragment.length);
+            Files.write(temp, content);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            // Not fatal: the fragment is simply rendered again next run
+            System.err.println("⚠️  Rapor parçası kaydedilemedi (" + key + "): " + e.getMessage());
+        }
+    }
+
+    /**
+     * Delete fragments of symbols that were not part of this run
+     */
+    void pruneUnused() {
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (!name.endsWith(SUFFIX) || !used.contains(name.substring(0, name.length() - SUFFIX.length()))) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("⚠️  Eski rapor parçaları silinemedi: " + e.getMessage());
+        }
+    }
+
+    int getHitCount() {
+        return hits;
+    }
+
+    int getMissCount() {
+        return misses;
+    }
+
+    private byte[] readFromDisk(String key, String fingerprint) {
+        Path file = dir.resolve(key + SUFFIX);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try {
+            byte[] content = Files.readAllBytes(file);
+            if (content.length < HEADER_LENGTH || content[HEADER_LENGTH - 1] != '\n'
+                || !fingerprint.equals(new String(content, 0, HEADER_LENGTH - 1, StandardCharsets.US_ASCII))) {
+                return null;
+            }
+            return Arrays.copyOfRange(content, HEADER_LENGTH, content.length);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,453 @@
+package com.bist.analyzer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The scoring rules of the signal system, declared once
+ * Live signals (SignalGenerator.generateSignal) and historical markers / backtests (IndicatorCache.scan) are both
+ * evaluated from this table: IndicatorCache compiles it into per-series indicator columns and rule masks.
+ *
+ * - Gates: a bar failing one of them is HOLD (no marker)
+ * - Groups: rules of a group are exclusive (first match wins), each match adds its score and optionally counts
+ *   as a confirmation; a group's guard applies to all its rules
+ * - Adjustments: applied in order to the total (truncating multipliers and the ADX bonus)
+ * Rules and gates that compare against a Param (volume spike multipliers, ADX thresholds) are evaluated per
+ * SignalThresholds, everything else is folded into one fixed score per bar.
+ */
+final class SignalRules {
+
+    // Bars needed before the first evaluated bar (generateSignal: "Yetersiz veri")
+    static final int MIN_BARS = 200;
+
+    private SignalRules() {
+    }
+
+    /**
+     * Per-bar indicator columns (IndicatorCache computes them once per series)
+     */
+    enum Column {
+        CLOSE, PREV_CLOSE,
+        EMA20, EMA50, EMA200, EMA50_SLOPE,                      // EMA50 eğimi: son 10 bar
+        RSI, RSI_TREND,                                         // RSI - RSI[5 bar önce]
+        MACD, MACD_SIGNAL, PREV_MACD, PREV_MACD_SIGNAL, MACD_HISTOGRAM, PREV_MACD_HISTOGRAM,
+        BB_UPPER, BB_LOWER, BB_MIDDLE, PREV_BB_UPPER, PREV_BB_LOWER, BB_POSITION, BB_WIDTH,
+        VOLUME, AVERAGE_VOLUME, VOLUME_CHANGE_PCT,              // 20 bar ortalama, ortalamaya göre % değişim
+        PREV_HIGH20, PREV_LOW20,                                // Önceki 20 barın en yükseği / en düşüğü
+        OBV, OBV_HIGH20, OBV_LOW20, OBV_TREND,                  // OBV - OBV[10 bar önce]
+        RECENT_HIGH, RECENT_LOW, PRIOR_HIGH, PRIOR_LOW,         // Son 11 bar / ondan önceki 10 bar
+        BULLISH_ENGULFING, BEARISH_ENGULFING, HAMMER, SHOOTING_STAR, BULLISH_HARAMI, BEARISH_HARAMI, DOJI,
+        PRESSURE, PRESSURE_STRENGTH,                            // 5 bar ortalama hacim baskısı, |baskı| / hacim
+        ADX,                                                    // NaN = 0
+        VOLATILITY, VOLATILITY_PCT,                             // ATR / kapanış (NaN = 0)
+        MONEY_VOLUME,                                           // 20 bar ortalama hacim x fiyat
+        SR_LEVEL, SR_DISTANCE_PCT, NEAR_SR, NEAR_SUPPORT, NEAR_RESISTANCE  // %3 içindeki güçlü destek/direnç
+    }
+
+    /**
+     * Tunable values of a rule (SignalThresholds)
+     */
+    enum Param {
+        VOLUME_SPIKE, STRONG_VOLUME_SPIKE, MIN_ADX, ADX_THRESHOLD;
+
+        double of(SignalThresholds t) {
+            switch (this) {
+                case VOLUME_SPIKE: return t.volumeSpike;
+                case STRONG_VOLUME_SPIKE: return t.strongVolumeSpike;
+                case MIN_ADX: return t.minAdx;
+                default: return t.adxThreshold;
+            }
+        }
+    }
+
+    /**
+     * Score categories of the live score breakdown
+     */
+    enum Category {
+        TREND("Trend"), MOMENTUM("Momentum"), BOLLINGER("Bollinger"), VOLUME("Hacim"),
+        PRICE_ACTION("Price Action"), CANDLE("Candle"), PRESSURE("Pressure");
+
+        final String label;
+
+        Category(String label) {
+            this.label = label;
+        }
+    }
+
+    enum Op { GT, GE, LT, LE, NOT_NAN, IS }
+
+    /**
+     * left op right, right = column (optionally x param), param or constant; comparisons with NaN are false
+     */
+    static final class Condition {
+        final Column left;
+        final Op op;
+        final Column right;
+        final Param param;
+        final double constant;
+
+        private Condition(Column left, Op op, Column right, Param param, double constant) {
+            this.left = left;
+            this.op = op;
+            this.right = right;
+            this.param = param;
+            this.constant = constant;
+        }
+
+        boolean usesParam() {
+            return param != null;
+        }
+
+        // Same key = same test (IndicatorCache evaluates shared conditions once)
+        String key() {
+            return left + " " + op + " " + right + " " + param + " " + constant;
+        }
+
+        /**
+         * Right-hand side at bar i (params: values of Param.values() for the thresholds in use)
+         */
+        double right(double[][] columns, int i, double[] params) {
+            if (right != null) {
+                return param != null ? columns[right.ordinal()][i] * params[param.ordinal()] : columns[right.ordinal()][i];
+            }
+            return param != null ? params[param.ordinal()] : constant;
+        }
+
+        boolean test(double[][] columns, int i, double[] params) {
+            double value = columns[left.ordinal()][i];
+            return op == Op.NOT_NAN || op == Op.IS ? compare(value, 0) : compare(value, right(columns, i, params));
+        }
+
+        boolean compare(double value, double right) {
+            switch (op) {
+                case NOT_NAN: return !Double.isNaN(value);
+                case IS: return value != 0;
+                case GT: return value > right;
+                case GE: return value >= right;
+                case LT: return value < right;
+                default: return value <= right;
+            }
+        }
+    }
+
+    static Condition gt(Column left, double value) {
+        return new Condition(left, Op.GT, null, null, value);
+    }
+
+    static Condition gt(Column left, Column right) {
+        return new Condition(left, Op.GT, right, null, 0);
+    }
+
+    static Condition gt(Column left, Param param) {
+        return new Condition(left, Op.GT, null, param, 0);
+    }
+
+    static Condition gt(Column left, Column right, Param factor) {
+        return new Condition(left, Op.GT, right, factor, 0);
+    }
+
+    static Condition ge(Column left, double value) {
+        return new Condition(left, Op.GE, null, null, value);
+    }
+
+    static Condition ge(Column left, Column right) {
+        return new Condition(left, Op.GE, right, null, 0);
+    }
+
+    static Condition ge(Column left, Param param) {
+        return new Condition(left, Op.GE, null, param, 0);
+    }
+
+    static Condition lt(Column left, double value) {
+        return new Condition(left, Op.LT, null, null, value);
+    }
+
+    static Condition lt(Column left, Column right) {
+        return new Condition(left, Op.LT, right, null, 0);
+    }
+
+    static Condition le(Column left, Column right) {
+        return new Condition(left, Op.LE, right, null, 0);
+    }
+
+    static Condition notNaN(Column column) {
+        return new Condition(column, Op.NOT_NAN, null, null, 0);
+    }
+
+    static Condition is(Column flag) {
+        return new Condition(flag, Op.IS, null, null, 0);
+    }
+
+    /**
+     * All conditions hold -> score (+ confirmation); detail is the live report line (String.format with args)
+     */
+    static final class Rule {
+        final Condition[] when;
+        final int score;
+        final boolean confirms;
+        final String detail;
+        final Column[] args;
+
+        Rule(Condition[] when, int score, boolean confirms, String detail, Column... args) {
+            this.when = when;
+            this.score = score;
+            this.confirms = confirms;
+            this.detail = detail;
+            this.args = args;
+        }
+
+        boolean usesParam() {
+            for (Condition condition : when) {
+                if (condition.usesParam()) return true;
+            }
+            return false;
+        }
+    }
+
+    static final class Group {
+        final Category category;
+        final Condition[] guard;
+        final Rule[] rules;
+
+        Group(Category category, Condition[] guard, Rule[] rules) {
+            this.category = category;
+            this.guard = guard;
+            this.rules = rules;
+        }
+
+        boolean usesParam() {
+            for (Condition condition : guard) {
+                if (condition.usesParam()) return true;
+            }
+            for (Rule rule : rules) {
+                if (rule.usesParam()) return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Applied to the total when its conditions hold and the total has the given sign (0 = any):
+     * total = (int) (total * factor), then += bonus in the total's direction
+     */
+    static final class Adjustment {
+        final Condition[] when;
+        final int sign;
+        final double factor;
+        final int bonus;
+        final String detail;
+        final Column[] args;
+
+        Adjustment(Condition[] when, int sign, double factor, int bonus, String detail, Column... args) {
+            this.when = when;
+            this.sign = sign;
+            this.factor = factor;
+            this.bonus = bonus;
+            this.detail = detail;
+            this.args = args;
+        }
+
+        boolean appliesTo(int total) {
+            return sign == 0 || (sign > 0 ? total > 0 : total < 0);
+        }
+
+        int apply(int total) {
+            if (factor != 1) total = (int) (total * factor);
+            return total + (total > 0 ? bonus : (total < 0 ? -bonus : 0));
+        }
+    }
+
+    static final class Gate {
+        final Condition pass;
+        final String holdDetail;
+        final Column[] args;
+
+        Gate(Condition pass, String holdDetail, Column... args) {
+            this.pass = pass;
+            this.holdDetail = holdDetail;
+            this.args = args;
+        }
+    }
+
+    static String format(String detail, Column[] args, double[][] columns, int i) {
+        if (args.length == 0) return detail;
+        Object[] values = new Object[args.length];
+        for (int a = 0; a < args.length; a++) {
+            values[a] = columns[args[a].ordinal()][i];
+        }
+        return String.format(detail, values);
+    }
+
+    private static Condition[] when(Condition... conditions) {
+        return conditions;
+    }
+
+    private static Rule rule(int score, boolean confirms, String detail, Condition... when) {
+        return new Rule(when, score, confirms, detail);
+    }
+
+    private static Rule rule(int score, boolean confirms, String detail, Column[] args, Condition... when) {
+        return new Rule(when, score, confirms, detail, args);
+    }
+
+    private static Column[] args(Column... columns) {
+        return columns;
+    }
+
+    private static final Condition[] BULLISH_TREND = when(gt(Column.EMA20, Column.EMA50), gt(Column.EMA50, Column.EMA200),
+        gt(Column.CLOSE, Column.EMA20));
+    private static final Condition[] BEARISH_TREND = when(lt(Column.EMA20, Column.EMA50), lt(Column.EMA50, Column.EMA200),
+        lt(Column.CLOSE, Column.EMA20));
+
+    private static Condition[] and(Condition[] first, Condition... more) {
+        Condition[] all = Arrays.copyOf(first, first.length + more.length);
+        System.arraycopy(more, 0, all, first.length, more.length);
+        return all;
+    }
+
+    static final List<Gate> GATES = Arrays.asList(
+        new Gate(ge(Column.MONEY_VOLUME, 100000),
+            "<strong>Düşük Likidite:</strong> Yetersiz işlem hacmi<br>"),
+        new Gate(ge(Column.ADX, Param.MIN_ADX),
+            "<strong>⚠️ Zayıf Trend (ADX: %.1f):</strong> Yatay piyasa, sinyal güvenilirliği düşük<br>", Column.ADX));
+
+    static final List<Group> GROUPS = new ArrayList<>();
+
+    static final List<Adjustment> ADJUSTMENTS = new ArrayList<>();
+
+    static {
+        // 1. Trend (EMA alignment, EMA50 slope, price vs EMA20)
+        GROUPS.add(new Group(Category.TREND, when(), new Rule[] {
+            rule(2, false, "<strong>Trend (EMA Uyumu):</strong> Güçlü Yükseliş Trendi (EMA20 > EMA50 > EMA200)<br>", BULLISH_TREND),
+            rule(-2, false, "<strong>Trend (EMA Uyumu):</strong> Güçlü Düşüş Trendi (EMA20 < EMA50 < EMA200)<br>", BEARISH_TREND)}));
+        GROUPS.add(new Group(Category.TREND, when(), new Rule[] {
+            rule(1, false, "<strong>EMA50 Eğimi:</strong> Pozitif (Yükseliş devam ediyor)<br>",
+                and(BULLISH_TREND, gt(Column.EMA50_SLOPE, 0))),
+            rule(-1, false, "<strong>EMA50 Eğimi:</strong> Negatif (Düşüş devam ediyor)<br>",
+                and(BEARISH_TREND, lt(Column.EMA50_SLOPE, 0)))}));
+        GROUPS.add(new Group(Category.TREND, when(notNaN(Column.EMA20)), new Rule[] {
+            rule(1, false, "<strong>Fiyat Pozisyonu:</strong> EMA20 Üstünde<br>", gt(Column.CLOSE, Column.EMA20)),
+            rule(-1, false, "<strong>Fiyat Pozisyonu:</strong> EMA20 Altında<br>")}));
+
+        // 2. Momentum (RSI level and trend, RSI reversal, MACD cross / histogram)
+        GROUPS.add(new Group(Category.MOMENTUM, when(notNaN(Column.RSI)), new Rule[] {
+            rule(2, true, "<strong>✓ RSI (Göreceli Güç):</strong> Güçlü Boğa Momentumu (%.1f)<br>", args(Column.RSI),
+                gt(Column.RSI, 60)),
+            rule(1, false, "<strong>RSI:</strong> Yükselen Momentum (%.1f, +%.1f)<br>", args(Column.RSI, Column.RSI_TREND),
+                gt(Column.RSI, 50), gt(Column.RSI_TREND, 5)),
+            rule(-2, true, "<strong>✓ RSI:</strong> Güçlü Ayı Momentumu (%.1f)<br>", args(Column.RSI),
+                lt(Column.RSI, 40)),
+            rule(-1, false, "<strong>RSI:</strong> Düşen Momentum (%.1f, %.1f)<br>", args(Column.RSI, Column.RSI_TREND),
+                lt(Column.RSI, 50), lt(Column.RSI_TREND, -5))}));
+        GROUPS.add(new Group(Category.MOMENTUM, when(notNaN(Column.RSI)), new Rule[] {
+            rule(2, true, "<strong>✓ RSI Geri Dönüş:</strong> Aşırı Satıştan Çıkış (%.1f)<br>", args(Column.RSI),
+                lt(Column.RSI, 30), gt(Column.RSI_TREND, 0)),
+            rule(-2, true, "<strong>✓ RSI Geri Dönüş:</strong> Aşırı Alımdan Düşüş (%.1f)<br>", args(Column.RSI),
+                gt(Column.RSI, 70), lt(Column.RSI_TREND, 0))}));
+        GROUPS.add(new Group(Category.MOMENTUM, when(notNaN(Column.MACD), notNaN(Column.MACD_SIGNAL)), new Rule[] {
+            rule(3, true, "<strong>✓ MACD GOLDEN CROSS:</strong> Güçlü Alış Sinyali<br>",
+                le(Column.PREV_MACD, Column.PREV_MACD_SIGNAL), gt(Column.MACD, Column.MACD_SIGNAL)),
+            rule(-3, true, "<strong>✓ MACD DEATH CROSS:</strong> Güçlü Satış Sinyali<br>",
+                ge(Column.PREV_MACD, Column.PREV_MACD_SIGNAL), lt(Column.MACD, Column.MACD_SIGNAL)),
+            rule(1, false, "<strong>MACD:</strong> Yükseliş Histogramı (Momentum Artıyor)<br>",
+                notNaN(Column.MACD_HISTOGRAM), notNaN(Column.PREV_MACD_HISTOGRAM),
+                gt(Column.MACD_HISTOGRAM, 0), gt(Column.MACD_HISTOGRAM, Column.PREV_MACD_HISTOGRAM)),
+            rule(-1, false, "<strong>MACD:</strong> Düşüş Histogramı (Momentum Azalıyor)<br>",
+                notNaN(Column.MACD_HISTOGRAM), notNaN(Column.PREV_MACD_HISTOGRAM),
+                lt(Column.MACD_HISTOGRAM, 0), lt(Column.MACD_HISTOGRAM, Column.PREV_MACD_HISTOGRAM))}));
+
+        // 3. Bollinger bands (breakout / breakdown, bounce / rejection, squeeze note)
+        Condition[] bands = when(notNaN(Column.BB_UPPER), notNaN(Column.BB_LOWER), notNaN(Column.BB_MIDDLE));
+        GROUPS.add(new Group(Category.BOLLINGER, bands, new Rule[] {
+            rule(3, true, "<strong>✓ BOLLINGER BREAKOUT:</strong> Fiyat Üst Bant Üzerinde<br>",
+                gt(Column.CLOSE, Column.BB_UPPER), le(Column.PREV_CLOSE, Column.PREV_BB_UPPER)),
+            rule(-3, true, "<strong>✓ BOLLINGER BREAKDOWN:</strong> Fiyat Alt Bant Altında<br>",
+                lt(Column.CLOSE, Column.BB_LOWER), ge(Column.PREV_CLOSE, Column.PREV_BB_LOWER)),
+            rule(2, false, "<strong>Bollinger:</strong> Alt Banttan Geri Sekmek (Aşırı Satış)<br>",
+                lt(Column.BB_POSITION, 0.2), gt(Column.CLOSE, Column.PREV_CLOSE)),
+            rule(-2, false, "<strong>Bollinger:</strong> Üst Banttan Red (Aşırı Alım)<br>",
+                gt(Column.BB_POSITION, 0.8), lt(Column.CLOSE, Column.PREV_CLOSE))}));
+        GROUPS.add(new Group(Category.BOLLINGER, bands, new Rule[] {
+            rule(0, false, "<strong>⚠️ Bollinger Squeeze:</strong> Düşük Volatilite - Kırılım Bekleniyor<br>",
+                lt(Column.BB_WIDTH, 0.05))}));
+
+        // 4. Volume (20-bar breakout with volume spike, spike direction, OBV)
+        GROUPS.add(new Group(Category.VOLUME, when(), new Rule[] {
+            rule(4, true, "<strong>✓ GÜÇLÜ KIRILIM:</strong> 20 Günlük Direnç + 3x Hacim<br>",
+                gt(Column.CLOSE, Column.PREV_HIGH20), gt(Column.VOLUME, Column.AVERAGE_VOLUME, Param.STRONG_VOLUME_SPIKE)),
+            rule(2, true, "<strong>✓ Kırılım (Breakout):</strong> 20 Günlük Direnç Kırıldı + Yüksek Hacim<br>",
+                gt(Column.CLOSE, Column.PREV_HIGH20), gt(Column.VOLUME, Column.AVERAGE_VOLUME, Param.VOLUME_SPIKE)),
+            rule(-4, true, "<strong>✓ GÜÇLÜ ÇÖKÜŞ:</strong> 20 Günlük Destek + 3x Hacim<br>",
+                lt(Column.CLOSE, Column.PREV_LOW20), gt(Column.VOLUME, Column.AVERAGE_VOLUME, Param.STRONG_VOLUME_SPIKE)),
+            rule(-2, true, "<strong>✓ Çöküş (Breakdown):</strong> 20 Günlük Destek Kırıldı + Yüksek Hacim<br>",
+                lt(Column.CLOSE, Column.PREV_LOW20), gt(Column.VOLUME, Column.AVERAGE_VOLUME, Param.VOLUME_SPIKE))}));
+        GROUPS.add(new Group(Category.VOLUME, when(), new Rule[] {
+            rule(2, true, "<strong>✓ AŞIRI YÜ KSEK HACİM:</strong> %.0f%% artış (3x üzeri)<br>", args(Column.VOLUME_CHANGE_PCT),
+                gt(Column.VOLUME, Column.AVERAGE_VOLUME, Param.STRONG_VOLUME_SPIKE), gt(Column.CLOSE, Column.PREV_CLOSE)),
+            rule(-2, true, "<strong>✓ AŞIRI YÜ KSEK HACİM:</strong> %.0f%% artış (3x üzeri)<br>", args(Column.VOLUME_CHANGE_PCT),
+                gt(Column.VOLUME, Column.AVERAGE_VOLUME, Param.STRONG_VOLUME_SPIKE)),
+            rule(1, false, "<strong>Hacim:</strong> Ortalama Üzeri (%.0f%% artış)<br>", args(Column.VOLUME_CHANGE_PCT),
+                gt(Column.VOLUME, Column.AVERAGE_VOLUME, Param.VOLUME_SPIKE), gt(Column.CLOSE, Column.PREV_CLOSE)),
+            rule(-1, false, "<strong>Hacim:</strong> Ortalama Üzeri (%.0f%% artış)<br>", args(Column.VOLUME_CHANGE_PCT),
+                gt(Column.VOLUME, Column.AVERAGE_VOLUME, Param.VOLUME_SPIKE))}));
+        GROUPS.add(new Group(Category.VOLUME, when(), new Rule[] {
+            rule(2, true, "<strong>✓ OBV:</strong> 20 Günlük Zirve + Yükseliş Trendi - Güçlü Biriktirim<br>",
+                ge(Column.OBV, Column.OBV_HIGH20), gt(Column.OBV_TREND, 0)),
+            rule(1, false, "<strong>OBV (Hacim Dengesi):</strong> 20 Günlük Zirve - Biriktirim<br>",
+                ge(Column.OBV, Column.OBV_HIGH20)),
+            rule(-2, true, "<strong>✓ OBV:</strong> 20 Günlük Dip + Düşüş Trendi - Güçlü Dağıtım<br>",
+                le(Column.OBV, Column.OBV_LOW20), lt(Column.OBV_TREND, 0)),
+            rule(-1, false, "<strong>OBV (Hacim Dengesi):</strong> 20 Günlük Dip - Dağıtım<br>",
+                le(Column.OBV, Column.OBV_LOW20))}));
+
+        // 5. Candle patterns (bullish and bearish side are scored independently)
+        GROUPS.add(new Group(Category.CANDLE, when(), new Rule[] {
+            rule(4, true, "<strong>✓ BULLISH ENGULFING:</strong> Güçlü Yükseliş Dönüş Pattern'i<br>",
+                is(Column.BULLISH_ENGULFING)),
+            rule(3, true, "<strong>✓ HAMMER:</strong> Destek Bulma + Alıcı Baskısı<br>",
+                is(Column.HAMMER), lt(Column.RSI, 50)),
+            rule(2, false, "<strong>Bullish Harami:</strong> Olası Yükseliş Dönüşü<br>",
+                is(Column.BULLISH_HARAMI))}));
+        GROUPS.add(new Group(Category.CANDLE, when(), new Rule[] {
+            rule(-4, true, "<strong>✓ BEARISH ENGULFING:</strong> Güçlü Düşüş Dönüş Pattern'i<br>",
+                is(Column.BEARISH_ENGULFING)),
+            rule(-3, true, "<strong>✓ SHOOTING STAR:</strong> Direnç Görme + Satıcı Baskısı<br>",
+                is(Column.SHOOTING_STAR), gt(Column.RSI, 50)),
+            rule(-2, false, "<strong>Bearish Harami:</strong> Olası Düşüş Dönüşü<br>",
+                is(Column.BEARISH_HARAMI))}));
+        GROUPS.add(new Group(Category.CANDLE, when(), new Rule[] {
+            rule(0, false, "<strong>⚠️ DOJI @ S/R Seviye:</strong> Belirsizlik - Dikkatli Ol<br>",
+                is(Column.DOJI), is(Column.NEAR_SR))}));
+
+        // 6. Price action (higher highs & higher lows / lower highs & lower lows)
+        GROUPS.add(new Group(Category.PRICE_ACTION, when(), new Rule[] {
+            rule(3, true, "<strong>✓ PRICE ACTION:</strong> Higher Highs & Higher Lows (Güçlü Yükseliş)<br>",
+                gt(Column.RECENT_HIGH, Column.PRIOR_HIGH), gt(Column.RECENT_LOW, Column.PRIOR_LOW)),
+            rule(-3, true, "<strong>✓ PRICE ACTION:</strong> Lower Highs & Lower Lows (Güçlü Düşüş)<br>",
+                lt(Column.RECENT_HIGH, Column.PRIOR_HIGH), lt(Column.RECENT_LOW, Column.PRIOR_LOW))}));
+
+        // 7. Volume pressure, only trusted in a strong trend
+        GROUPS.add(new Group(Category.PRESSURE, when(gt(Column.ADX, Param.ADX_THRESHOLD)), new Rule[] {
+            rule(2, true, "<strong>✓ ALIM BASKISI:</strong> Güçlü alıcı aktivitesi tespit edildi<br>",
+                gt(Column.PRESSURE, 0), gt(Column.PRESSURE_STRENGTH, 0.3)),
+            rule(-2, true, "<strong>✓ SATIM BASKISI:</strong> Güçlü satıcı aktivitesi tespit edildi<br>",
+                lt(Column.PRESSURE, 0), gt(Column.PRESSURE_STRENGTH, 0.3))}));
+
+        // Total score: volatility penalty, ADX bonus, support/resistance penalty
+        ADJUSTMENTS.add(new Adjustment(when(gt(Column.VOLATILITY, 0.08)), 1, 0.8, 0,
+            "<strong>⚠️ Yüksek Volatilite:</strong> Skor düşürüldü (ATR/Fiyat: %.2f%%)<br>", Column.VOLATILITY_PCT));
+        ADJUSTMENTS.add(new Adjustment(when(gt(Column.ADX, Param.ADX_THRESHOLD)), 0, 1, 2,
+            "<strong>✓ GÜÇLÜ TREND (ADX: %.1f):</strong> Trend gücü sinyali destekliyor<br>", Column.ADX));
+        ADJUSTMENTS.add(new Adjustment(when(is(Column.NEAR_SUPPORT)), 0, 1, 0,
+            "<strong>⚠️ DESTEK/DİRENÇ YAKINI:</strong> Yakında destek seviye: %.2f ₺ (%.1f%% uzaklık)<br>",
+            Column.SR_LEVEL, Column.SR_DISTANCE_PCT));
+        ADJUSTMENTS.add(new Adjustment(when(is(Column.NEAR_RESISTANCE)), 0, 1, 0,
+            "<strong>⚠️ DESTEK/DİRENÇ YAKINI:</strong> Yakında direnç seviye: %.2f ₺ (%.1f%% uzaklık)<br>",
+            Column.SR_LEVEL, Column.SR_DISTANCE_PCT));
+        ADJUSTMENTS.add(new Adjustment(when(is(Column.NEAR_RESISTANCE)), 1, 0.7, 0,
+            "<strong>⚠️ DİKKAT:</strong> Direnç yakınında AL sinyali - Skor düşürüldü<br>"));
+        ADJUSTMENTS.add(new Adjustment(when(is(Column.NEAR_SUPPORT)), -1, 0.7, 0,
+            "<strong>⚠️ DİKKAT:</strong> Destek yakınında SAT sinyali - Skor düşürüldü<br>"));
+    }
+}
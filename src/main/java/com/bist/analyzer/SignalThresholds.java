@@ -0,0 +1,39 @@
+package com.bist.analyzer;
+
+import java.util.Locale;
+
+/**
+ * Score thresholds of the signal rules (SignalRules), for live signals and the historical scan alike
+ * DEFAULT holds the hand-tuned values; other instances are only used by the parameter sweep
+ */
+public final class SignalThresholds {
+
+    public static final SignalThresholds DEFAULT = new SignalThresholds(6, 4, 3, 2, 20, 25, 2.0, 3.0);
+
+    public final int strongScore;          // Güçlü AL/SAT skoru (±)
+    public final int minScore;             // AL/SAT skoru (±)
+    public final int strongConfluence;     // Güçlü sinyal için gereken gösterge sayısı
+    public final int minConfluence;        // Sinyal için gereken gösterge sayısı
+    public final double minAdx;            // Bu ADX altında sinyal yok (zayıf trend kapısı)
+    public final double adxThreshold;      // Bu ADX üzerinde trend bonusu (±2)
+    public final double volumeSpike;       // Hacim patlaması: ortalamanın kaç katı
+    public final double strongVolumeSpike; // Güçlü hacim patlaması: ortalamanın kaç katı
+
+    public SignalThresholds(int strongScore, int minScore, int strongConfluence, int minConfluence,
+                            double minAdx, double adxThreshold, double volumeSpike, double strongVolumeSpike) {
+        this.strongScore = strongScore;
+        this.minScore = minScore;
+        this.strongConfluence = strongConfluence;
+        this.minConfluence = minConfluence;
+        this.minAdx = minAdx;
+        this.adxThreshold = adxThreshold;
+        this.volumeSpike = volumeSpike;
+        this.strongVolumeSpike = strongVolumeSpike;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "skor %d/%d, gösterge %d/%d, ADX≥%.0f/>%.0f, hacim x%.1f/x%.1f",
+            strongScore, minScore, strongConfluence, minConfluence, minAdx, adxThreshold, volumeSpike, strongVolumeSpike);
+    }
+}
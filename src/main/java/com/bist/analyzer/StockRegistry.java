@@ -0,0 +1,184 @@
+package com.bist.analyzer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Symbol metadata from stock_list.txt, parsed once and shared by the analyzer and the report
+ * Format: "SYMBOL - Full Company Name" (or just "SYMBOL"), '#' comments, and a "---" line that
+ * separates the priority stocks (above) from the rest of BIST100 (below)
+ *
+ * Snapshots are immutable; reloadIfChanged() swaps in a new one when the file's mtime/size changed,
+ * so a long-running process picks up list edits without re-reading the file on every lookup
+ */
+public final class StockRegistry {
+
+    public static final String STOCK_LIST_FILE = "stock_list.txt";
+
+    private static volatile StockRegistry current;
+
+    private final boolean found;
+    private final long lastModified;
+    private final long size;
+    private final List<String> symbols;
+    private final Map<String, String> names;
+    private final Set<String> prioritySymbols;
+    private final Set<String> otherSymbols;
+
+    private StockRegistry(boolean found, long lastModified, long size, List<String> symbols,
+                          Map<String, String> names, Set<String> prioritySymbols, Set<String> otherSymbols) {
+        this.found = found;
+        this.lastModified = lastModified;
+        this.size = size;
+        this.symbols = Collections.unmodifiableList(symbols);
+        this.names = names;
+        this.prioritySymbols = Collections.unmodifiableSet(prioritySymbols);
+        this.otherSymbols = Collections.unmodifiableSet(otherSymbols);
+    }
+
+    /**
+     * Shared registry of this run (loaded on first use)
+     */
+    public static StockRegistry get() {
+        StockRegistry registry = current;
+        if (registry == null) {
+            synchronized (StockRegistry.class) {
+                registry = current;
+                if (registry == null) {
+                    registry = load(Paths.get(STOCK_LIST_FILE));
+                    current = registry;
+                }
+            }
+        }
+        return registry;
+    }
+
+    /**
+     * Re-read stock_list.txt if it changed since it was loaded (cheap stat otherwise)
+     * Returns the registry to use from now on
+     */
+    public static synchronized StockRegistry reloadIfChanged() {
+        StockRegistry registry = get();
+        Path path = Paths.get(STOCK_LIST_FILE);
+        boolean exists = Files.exists(path);
+        try {
+            if (exists == registry.found
+                && (!exists || (Files.getLastModifiedTime(path).toMillis() == registry.lastModified
+                                && Files.size(path) == registry.size))) {
+                return registry;
+            }
+        } catch (IOException e) {
+            // Could not stat the file: reload below, load() reports the problem
+        }
+        System.out.println("🔄 " + STOCK_LIST_FILE + " değişti, hisse listesi yeniden yüklendi");
+        registry = load(path);
+        current = registry;
+        return registry;
+    }
+
+    /**
+     * Parse a stock list file; a missing or unreadable file gives an empty registry
+     */
+    public static StockRegistry load(Path path) {
+        List<String> symbols = new ArrayList<>();
+        Map<String, String> names = new HashMap<>();
+        Set<String> prioritySymbols = new HashSet<>();
+        Set<String> otherSymbols = new HashSet<>();
+        if (!Files.exists(path)) {
+            return new StockRegistry(false, 0L, 0L, symbols, names, prioritySymbols, otherSymbols);
+        }
+
+        long lastModified = 0L;
+        long size = 0L;
+        try {
+            // Stat before reading: a write racing the read is picked up by the next reloadIfChanged()
+            lastModified = Files.getLastModifiedTime(path).toMillis();
+            size = Files.size(path);
+            List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+
+            boolean foundSeparator = false;
+            for (String line : lines) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                if (line.startsWith("--")) {
+                    foundSeparator = true;
+                    continue;
+                }
+
+                // Extract symbol from "SYMBOL - Name" or just "SYMBOL"
+                String symbol = line;
+                String name = null;
+                if (line.contains(" - ")) {
+                    String[] parts = line.split(" - ", 2);
+                    symbol = parts[0].trim();
+                    name = parts[1].trim();
+                }
+                if (symbol.isEmpty()) {
+                    continue;
+                }
+                symbol = symbol.toUpperCase(Locale.ROOT);
+
+                symbols.add(symbol);
+                if (name != null && !names.containsKey(symbol)) {
+                    names.put(symbol, name);
+                }
+                // XU100 is handled separately in sorting
+                if (!symbol.equals("XU100")) {
+                    (foundSeparator ? otherSymbols : prioritySymbols).add(symbol);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Warning: Could not read " + path + ": " + e.getMessage());
+        }
+        return new StockRegistry(true, lastModified, size, symbols, names, prioritySymbols, otherSymbols);
+    }
+
+    /**
+     * False when stock_list.txt does not exist
+     */
+    public boolean isFound() {
+        return found;
+    }
+
+    /**
+     * All symbols in file order (XU100 included)
+     */
+    public List<String> getSymbols() {
+        return symbols;
+    }
+
+    /**
+     * Company name of a symbol, empty string if unknown
+     */
+    public String getName(String symbol) {
+        String name = names.get(symbol.toUpperCase(Locale.ROOT));
+        return name != null ? name : "";
+    }
+
+    /**
+     * Symbols before the "---" separator (XU100 excluded)
+     */
+    public Set<String> getPrioritySymbols() {
+        return prioritySymbols;
+    }
+
+    /**
+     * Symbols after the "---" separator (XU100 excluded)
+     */
+    public Set<String> getOtherSymbols() {
+        return otherSymbols;
+    }
+}
@@ -0,0 +1,380 @@
+package com.bist.analyzer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Walk-forward optimization of SignalThresholds, sharded over worker processes
+ * The coordinator writes the series and the job (OptimizerJob) to a work directory and starts one worker JVM
+ * per core (OptimizerWorker); each task is one symbol shard x one chunk of the grid, so no process holds the
+ * whole universe. Workers on other machines pointed at the same directory claim tasks the same way.
+ * The partial tallies (per combination and calendar segment) are additive and merged here:
+ * - ranking: every combination over the whole period (like ParameterSweep, without drawdown)
+ * - walk-forward: for every segment after the first `train` ones, the combination with the best expectancy on
+ *   the previous `train` segments is applied to it; the test segments together are the out-of-sample result.
+ * Tasks left by a dead worker are released and finished by the coordinator itself.
+ */
+public final class WalkForwardOptimizer {
+
+    // Fewer trades than this in a training window is not a meaningful choice (same bar as ParameterSweep)
+    private static final int MIN_TRAIN_TRADES = 30;
+
+    private static final long POLL_MILLIS = 500;
+
+    private WalkForwardOptimizer() {
+    }
+
+    /**
+     * Sharding and walk-forward layout
+     */
+    public static class Options {
+        public final int workers;           // Yerel işçi süreci sayısı (0 = sadece koordinatör + uzak işçiler)
+        public final int symbolsPerShard;   // Görev başına hisse
+        public final int paramsPerChunk;    // Görev başına eşik kombinasyonu
+        public final int segments;          // Takvim dilimi sayısı
+        public final int trainSegments;     // Eğitim penceresi (dilim)
+        public final String workerHeap;     // İşçi -Xmx değeri (null = JVM varsayılanı)
+        public final long claimTimeoutMillis; // Bu süreden eski sonuçsuz uzak talepler serbest bırakılır
+
+        public Options(int workers, int symbolsPerShard, int paramsPerChunk, int segments, int trainSegments,
+                       String workerHeap, long claimTimeoutMillis) {
+            if (segments < 2 || trainSegments < 1 || trainSegments >= segments) {
+                throw new IllegalArgumentException("Need 1 <= train < segments: " + trainSegments + "/" + segments);
+            }
+            this.workers = Math.max(0, workers);
+            this.symbolsPerShard = Math.max(1, symbolsPerShard);
+            this.paramsPerChunk = Math.max(1, paramsPerChunk);
+            this.segments = segments;
+            this.trainSegments = trainSegments;
+            this.workerHeap = workerHeap;
+            this.claimTimeoutMillis = claimTimeoutMillis;
+        }
+
+        /**
+         * -Dbist.optimize.workers / .shardSymbols / .shardParams / .segments / .train / .workerHeap / .claimTimeout
+         * defaults: one worker per core, 25 symbols x 256 combinations per task, 10 segments, 3 for training, 60 min
+         */
+        public static Options fromSystemProperties() {
+            return new Options(
+                Integer.getInteger("bist.optimize.workers", Runtime.getRuntime().availableProcessors()),
+                Integer.getInteger("bist.optimize.shardSymbols", 25),
+                Integer.getInteger("bist.optimize.shardParams", 256),
+                Integer.getInteger("bist.optimize.segments", 10),
+                Integer.getInteger("bist.optimize.train", 3),
+                System.getProperty("bist.optimize.workerHeap"),
+                Integer.getInteger("bist.optimize.claimTimeout", 60) * 60_000L);
+        }
+    }
+
+    /**
+     * Additive trade tally (hit rate and expectancy, no equity curve)
+     */
+    public static class Tally {
+        public int trades;
+        public int wins;
+        public double winSum;
+        public double lossSum;
+
+        void add(Tally other) {
+            trades += other.trades;
+            wins += other.wins;
+            winSum += other.winSum;
+            lossSum += other.lossSum;
+        }
+
+        public double hitRate() {
+            return trades > 0 ? (double) wins / trades : 0;
+        }
+
+        public double expectancy() {
+            return trades > 0 ? (winSum + lossSum) / trades : 0;
+        }
+    }
+
+    /**
+     * One combination over the whole period
+     */
+    public static class Ranked {
+        public final SignalThresholds thresholds;
+        public final Tally total = new Tally();
+        public int positiveSegments;        // Beklentisi pozitif dilimler
+        public int activeSegments;          // İşlem olan dilimler
+        public int chosen;                  // Walk-forward'da seçildiği test dilimi sayısı
+
+        Ranked(SignalThresholds thresholds) {
+            this.thresholds = thresholds;
+        }
+    }
+
+    /**
+     * One walk-forward step: chosen on the training window, applied to the following segment
+     */
+    public static class Fold {
+        public final long testStart;
+        public final long testEnd;
+        public final SignalThresholds chosen;   // null: no combination had enough training trades
+        public final Tally train;
+        public final Tally test;
+
+        Fold(long testStart, long testEnd, SignalThresholds chosen, Tally train, Tally test) {
+            this.testStart = testStart;
+            this.testEnd = testEnd;
+            this.chosen = chosen;
+            this.train = train;
+            this.test = test;
+        }
+    }
+
+    public static class Result {
+        public final List<Ranked> ranked = new ArrayList<>();
+        public final List<Fold> folds = new ArrayList<>();
+        public final Tally outOfSample = new Tally();
+        public final Tally inSample = new Tally();   // Seçilen kombinasyonların eğitim penceresindeki işlemleri
+        public int symbols;
+        public int tasks;
+        public int workers;
+        public int coordinatorTasks;                  // Koordinatörün kendisinin tamamladığı görevler
+        public long elapsedMillis;
+    }
+
+    /**
+     * Run the optimization in dir (its previous job is discarded) and merge the partial results
+     */
+    public static Result run(Map<String, List<StockData>> dailyData, List<SignalThresholds> grid,
+                             BacktestEngine.Settings settings, Options options, Path dir)
+            throws IOException, InterruptedException {
+        long start = System.currentTimeMillis();
+        OptimizerJob job = OptimizerJob.create(dir, dailyData, grid, settings, options.symbolsPerShard,
+            options.paramsPerChunk, options.segments);
+        Result result = new Result();
+        result.tasks = job.taskCount();
+        for (List<String> shard : job.shards) {
+            result.symbols += shard.size();
+        }
+
+        OptimizerJob.Partial[] partials = new OptimizerJob.Partial[job.taskCount()];
+        List<Process> processes = new ArrayList<>();
+        int workers = Math.min(options.workers, job.taskCount());
+        try {
+            for (int w = 0; w < workers; w++) {
+                processes.add(startWorker(dir, "local-" + (w + 1), options.workerHeap));
+            }
+            result.workers = processes.size();
+            result.coordinatorTasks = awaitTasks(job, processes, options.claimTimeoutMillis, partials);
+        } finally {
+            for (Process process : processes) {
+                process.destroy();
+            }
+        }
+
+        merge(job, partials, options.trainSegments, result);
+        result.elapsedMillis = System.currentTimeMillis() - start;
+        return result;
+    }
+
+    private static Process startWorker(Path dir, String name, String heap) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        if (heap != null && !heap.isEmpty()) {
+            command.add("-Xmx" + heap);
+        }
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(OptimizerWorker.class.getName());
+        command.add(dir.toString());
+        command.add(name);
+        File log = dir.resolve("logs").resolve(name + ".log").toFile();
+        return new ProcessBuilder(command).redirectErrorStream(true)
+            .redirectOutput(ProcessBuilder.Redirect.to(log)).start();
+    }
+
+    /**
+     * Wait until every task has a result and read it into partials. A result left by a worker of an earlier job
+     * (or for another grid) counts as missing: it is deleted and the task runs again. Once the local workers are
+     * gone, their unfinished claims (and remote claims older than the timeout) are released and the coordinator
+     * works through what is left itself. Returns the number of tasks done by the coordinator
+     */
+    private static int awaitTasks(OptimizerJob job, List<Process> processes, long claimTimeoutMillis,
+            OptimizerJob.Partial[] partials) throws IOException, InterruptedException {
+        int done = 0;
+        boolean reported = false;
+        while (true) {
+            int missing = 0;
+            for (int task = 0; task < job.taskCount(); task++) {
+                if (partials[task] == null && job.hasResult(task)) {
+                    partials[task] = job.readResult(task);
+                    if (partials[task] == null) job.discardResult(task);
+                }
+                if (partials[task] == null) missing++;
+            }
+            if (missing == 0) {
+                return done;
+            }
+
+            boolean localRunning = false;
+            for (Process process : processes) {
+                localRunning |= process.isAlive();
+            }
+            if (localRunning) {
+                Thread.sleep(POLL_MILLIS);
+                continue;
+            }
+            if (!reported) {
+                for (int w = 0; w < processes.size(); w++) {
+                    if (processes.get(w).exitValue() != 0) {
+                        System.err.println("  ⚠️  İşçi local-" + (w + 1) + " hata ile bitti, ayrıntı: "
+                            + job.dir.resolve("logs").resolve("local-" + (w + 1) + ".log"));
+                    }
+                }
+                reported = true;
+            }
+
+            long now = System.currentTimeMillis();
+            for (int task = 0; task < job.taskCount(); task++) {
+                if (partials[task] != null) continue;
+                Path claim = job.claimFile(task);
+                if (!Files.exists(claim)) continue;
+                String owner = new String(Files.readAllBytes(claim), StandardCharsets.UTF_8);
+                if (owner.startsWith("local-") || now - Files.getLastModifiedTime(claim).toMillis() > claimTimeoutMillis) {
+                    job.release(task);
+                }
+            }
+            done += OptimizerWorker.work(job, "coordinator");
+            // Whatever is still missing is claimed by a remote worker that is alive (or not timed out yet)
+            Thread.sleep(POLL_MILLIS);
+        }
+    }
+
+    private static void merge(OptimizerJob job, OptimizerJob.Partial[] partials, int trainSegments, Result result) {
+        int segments = job.segments();
+        Tally[][] tallies = new Tally[job.grid.size()][segments];
+        for (int task = 0; task < job.taskCount(); task++) {
+            OptimizerJob.Partial partial = partials[task];
+            int firstParam = job.firstParam(task);
+            for (int p = 0; p < partial.params; p++) {
+                for (int k = 0; k < segments; k++) {
+                    Tally tally = tallies[firstParam + p][k];
+                    if (tally == null) tally = tallies[firstParam + p][k] = new Tally();
+                    int i = p * segments + k;
+                    tally.trades += partial.trades[i];
+                    tally.wins += partial.wins[i];
+                    tally.winSum += partial.winSum[i];
+                    tally.lossSum += partial.lossSum[i];
+                }
+            }
+        }
+
+        Ranked[] ranked = new Ranked[job.grid.size()];
+        for (int p = 0; p < ranked.length; p++) {
+            ranked[p] = new Ranked(job.grid.get(p));
+            for (int k = 0; k < segments; k++) {
+                Tally tally = tallies[p][k];
+                ranked[p].total.add(tally);
+                if (tally.trades > 0) {
+                    ranked[p].activeSegments++;
+                    if (tally.expectancy() > 0) ranked[p].positiveSegments++;
+                }
+            }
+        }
+
+        // Walk-forward: choose on segments f-train .. f-1, apply to segment f
+        for (int f = trainSegments; f < segments; f++) {
+            int best = -1;
+            Tally bestTrain = null;
+            for (int p = 0; p < ranked.length; p++) {
+                Tally train = new Tally();
+                for (int k = f - trainSegments; k < f; k++) {
+                    train.add(tallies[p][k]);
+                }
+                if (train.trades < MIN_TRAIN_TRADES) continue;
+                if (best < 0 || train.expectancy() > bestTrain.expectancy()
+                    || train.expectancy() == bestTrain.expectancy() && train.hitRate() > bestTrain.hitRate()) {
+                    best = p;
+                    bestTrain = train;
+                }
+            }
+            if (best < 0) {
+                result.folds.add(new Fold(job.segmentStarts[f], job.segmentStarts[f + 1], null, new Tally(), new Tally()));
+                continue;
+            }
+            ranked[best].chosen++;
+            result.folds.add(new Fold(job.segmentStarts[f], job.segmentStarts[f + 1], job.grid.get(best),
+                bestTrain, tallies[best][f]));
+            result.inSample.add(bestTrain);
+            result.outOfSample.add(tallies[best][f]);
+        }
+
+        for (Ranked entry : ranked) {
+            result.ranked.add(entry);
+        }
+        result.ranked.sort((a, b) -> {
+            boolean aValid = a.total.trades >= MIN_TRAIN_TRADES;
+            boolean bValid = b.total.trades >= MIN_TRAIN_TRADES;
+            if (aValid != bValid) return aValid ? -1 : 1;
+            if (a.total.expectancy() != b.total.expectancy()) return Double.compare(b.total.expectancy(), a.total.expectancy());
+            return Double.compare(b.total.hitRate(), a.total.hitRate());
+        });
+    }
+
+    /**
+     * Console summary: the walk-forward steps, in-sample vs out-of-sample, and the best combinations overall
+     */
+    public static void printSummary(Result result, int limit) {
+        System.out.println("🧭 Walk-forward optimizasyonu: " + result.ranked.size() + " kombinasyon x " + result.symbols
+            + " hisse, " + result.tasks + " görev, " + result.workers + " işçi süreci (koordinatör "
+            + result.coordinatorTasks + " görev), " + result.elapsedMillis + " ms");
+        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
+        for (Fold fold : result.folds) {
+            String period = sdf.format(new Date(fold.testStart)) + " – " + sdf.format(new Date(fold.testEnd - 1));
+            if (fold.chosen == null) {
+                System.out.println("  " + period + " | eğitim penceresinde yeterli işlem yok");
+                continue;
+            }
+            System.out.println(String.format(Locale.US,
+                "  %s | %s | eğitim %5d işlem, beklenti %+6.2f%% | test %4d işlem, isabet %5.1f%%, beklenti %+6.2f%%",
+                period, fold.chosen, fold.train.trades, fold.train.expectancy() * 100, fold.test.trades,
+                fold.test.hitRate() * 100, fold.test.expectancy() * 100));
+        }
+        System.out.println(String.format(Locale.US,
+            "  Örneklem dışı toplam: %d işlem | isabet %5.1f%% | beklenti %+6.2f%% (eğitimde %+6.2f%%)",
+            result.outOfSample.trades, result.outOfSample.hitRate() * 100, result.outOfSample.expectancy() * 100,
+            result.inSample.expectancy() * 100));
+
+        for (int i = 0; i < Math.min(limit, result.ranked.size()); i++) {
+            Ranked entry = result.ranked.get(i);
+            System.out.println(String.format(Locale.US,
+                "  %3d. %s | işlem %5d | isabet %5.1f%% | beklenti %+6.2f%% | pozitif dilim %d/%d | seçildi %d",
+                i + 1, entry.thresholds, entry.total.trades, entry.total.hitRate() * 100,
+                entry.total.expectancy() * 100, entry.positiveSegments, entry.activeSegments, entry.chosen));
+        }
+    }
+
+    /**
+     * Full ranked table as CSV
+     */
+    public static void writeCsv(Result result, Path file) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            out.println("rank,strong_score,min_score,strong_confluence,min_confluence,min_adx,adx,volume_spike,strong_volume_spike,"
+                + "trades,hit_rate,expectancy,positive_segments,active_segments,chosen");
+            for (int i = 0; i < result.ranked.size(); i++) {
+                Ranked entry = result.ranked.get(i);
+                SignalThresholds t = entry.thresholds;
+                out.println(String.format(Locale.US, "%d,%d,%d,%d,%d,%.1f,%.1f,%.2f,%.2f,%d,%.4f,%.5f,%d,%d,%d",
+                    i + 1, t.strongScore, t.minScore, t.strongConfluence, t.minConfluence, t.minAdx, t.adxThreshold,
+                    t.volumeSpike, t.strongVolumeSpike, entry.total.trades, entry.total.hitRate(),
+                    entry.total.expectancy(), entry.positiveSegments, entry.activeSegments, entry.chosen));
+            }
+        }
+    }
+}
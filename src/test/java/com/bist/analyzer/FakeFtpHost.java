@@ -0,0 +1,133 @@
+package com.bist.analyzer;
+
+import org.apache.commons.net.ftp.FTP;
+import org.apache.commons.net.ftp.FTPClient;
+import org.mockftpserver.fake.FakeFtpServer;
+import org.mockftpserver.fake.UserAccount;
+import org.mockftpserver.fake.filesystem.DirectoryEntry;
+import org.mockftpserver.fake.filesystem.FileEntry;
+import org.mockftpserver.fake.filesystem.FileSystem;
+import org.mockftpserver.fake.filesystem.UnixFakeFileSystem;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local FTP stand-in: an in-memory MockFtpServer on a free port with the upload root ROOT
+ * Connections are opened like FtpReportUploader does (login, binary, cd ROOT); transfers of a given
+ * remote name can be rejected and connection attempts refused to drive the retry paths
+ */
+final class FakeFtpHost implements FtpConnectionFactory, AutoCloseable {
+
+    static final String ROOT = "/site";
+
+    private final FakeFtpServer server = new FakeFtpServer();
+    private final FileSystem fileSystem = new UnixFakeFileSystem();
+    private final Map<String, AtomicInteger> rejections = new ConcurrentHashMap<>();   // Reddedilecek STOR sayısı
+    private final Map<String, AtomicInteger> stores = new ConcurrentHashMap<>();       // Dosya başına STOR denemesi
+    private final AtomicInteger refusedConnects = new AtomicInteger();
+    final AtomicInteger connects = new AtomicInteger();
+
+    FakeFtpHost() {
+        fileSystem.add(new DirectoryEntry(ROOT));
+        server.setServerControlPort(0);
+        server.addUserAccount(new UserAccount("bist", "secret", ROOT));
+        server.setFileSystem(fileSystem);
+        server.start();
+    }
+
+    /**
+     * Reject the next 'times' transfers to remotePath (relative to ROOT), on any connection
+     */
+    void reject(String remotePath, int times) {
+        rejections.put(remotePath, new AtomicInteger(times));
+    }
+
+    /**
+     * Refuse the next 'count' connection attempts
+     */
+    void refuseConnects(int count) {
+        refusedConnects.set(count);
+    }
+
+    int storeAttempts(String remotePath) {
+        AtomicInteger attempts = stores.get(remotePath);
+        return attempts == null ? 0 : attempts.get();
+    }
+
+    @Override
+    public FTPClient connect() throws IOException {
+        connects.incrementAndGet();
+        if (refusedConnects.getAndDecrement() > 0) {
+            throw new IOException("Connection refused");
+        }
+        FTPClient client = new FTPClient() {
+            @Override
+            public boolean storeFile(String remote, InputStream local) throws IOException {
+                stores.computeIfAbsent(remote, name -> new AtomicInteger()).incrementAndGet();
+                AtomicInteger left = rejections.get(remote);
+                if (left != null && left.getAndDecrement() > 0) {
+                    return false;
+                }
+                return super.storeFile(remote, local);
+            }
+        };
+        client.connect("localhost", server.getServerControlPort());
+        if (!client.login("bist", "secret") || !client.setFileType(FTP.BINARY_FILE_TYPE)
+            || !client.changeWorkingDirectory(ROOT)) {
+            client.disconnect();
+            throw new IOException("Login failed: " + client.getReplyString());
+        }
+        return client;
+    }
+
+    void write(String path, String content) {
+        String absolute = ROOT + "/" + path;
+        String parent = fileSystem.getParent(absolute);
+        if (!fileSystem.exists(parent)) {
+            fileSystem.add(new DirectoryEntry(parent));
+        }
+        fileSystem.add(new FileEntry(absolute, content));
+    }
+
+    /**
+     * Content of path (relative to ROOT), null when it does not exist
+     */
+    String read(String path) throws IOException {
+        String absolute = ROOT + "/" + path;
+        if (!fileSystem.isFile(absolute)) {
+            return null;
+        }
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (InputStream in = ((FileEntry) fileSystem.getEntry(absolute)).createInputStream()) {
+            byte[] chunk = new byte[4096];
+            int read;
+            while ((read = in.read(chunk)) > 0) {
+                buffer.write(chunk, 0, read);
+            }
+        }
+        return new String(buffer.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Names in directory path (relative to ROOT, "" for the root itself)
+     */
+    List<String> list(String path) {
+        List<String> names = new ArrayList<>();
+        for (Object name : fileSystem.listNames(path.isEmpty() ? ROOT : ROOT + "/" + path)) {
+            names.add(name.toString());
+        }
+        return names;
+    }
+
+    @Override
+    public void close() {
+        server.stop();
+    }
+}
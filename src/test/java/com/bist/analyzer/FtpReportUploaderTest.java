@@ -0,0 +1,124 @@
+package com.bist.analyzer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FtpReportUploaderTest {
+
+    private final FakeFtpHost host = new FakeFtpHost();
+    private final FtpReportUploader uploader = new FtpReportUploader(host, FakeFtpHost.ROOT);
+
+    @TempDir
+    Path local;
+
+    @AfterEach
+    void stopHost() {
+        host.close();
+    }
+
+    private void writeLocal(String path, String content) throws IOException {
+        Path file = local.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void assertNoStagedCopies() {
+        for (String dir : new String[] {"", "charts"}) {
+            for (String name : host.list(dir)) {
+                assertFalse(name.endsWith(".uploading"), dir + "/" + name);
+            }
+        }
+    }
+
+    @Test
+    void publishesStagedFilesUnderTheirFinalNames() throws IOException {
+        writeLocal("report.html", "report v1");
+        writeLocal("charts/AKBNK.json", "akbnk v1");
+        writeLocal("charts/THYAO.json", "thyao v1");
+
+        uploader.uploadReports(local.toString());
+
+        assertEquals("report v1", host.read("report.html"));
+        assertEquals("akbnk v1", host.read("charts/AKBNK.json"));
+        assertEquals("thyao v1", host.read("charts/THYAO.json"));
+        assertEquals(1, host.storeAttempts("report.html.uploading"));
+        assertNotNull(host.read(FtpReportUploader.MANIFEST_FILE));
+        assertNoStagedCopies();
+    }
+
+    @Test
+    void replacesChangedFilesAndSkipsUnchangedOnes() throws IOException {
+        writeLocal("report.html", "report v1");
+        writeLocal("charts/AKBNK.json", "akbnk v1");
+        writeLocal("charts/THYAO.json", "thyao v1");
+        uploader.uploadReports(local.toString());
+
+        writeLocal("report.html", "report v2");
+        writeLocal("charts/AKBNK.json", "akbnk v2");
+        uploader.uploadReports(local.toString());
+
+        assertEquals("report v2", host.read("report.html"));
+        assertEquals("akbnk v2", host.read("charts/AKBNK.json"));
+        assertEquals(1, host.storeAttempts("charts/THYAO.json.uploading"));
+        assertNoStagedCopies();
+    }
+
+    @Test
+    void keepsThePreviousReportWhileAChartIsMissing() throws IOException {
+        writeLocal("report.html", "report v1");
+        writeLocal("charts/AKBNK.json", "akbnk v1");
+        uploader.uploadReports(local.toString());
+
+        writeLocal("report.html", "report v2");
+        writeLocal("charts/AKBNK.json", "akbnk v2");
+        host.reject("charts/AKBNK.json.uploading", Integer.MAX_VALUE);
+        uploader.uploadReports(local.toString());
+
+        assertEquals("report v1", host.read("report.html"));
+        assertEquals("akbnk v1", host.read("charts/AKBNK.json"));
+        assertNoStagedCopies();
+
+        // The failed chart stays pending in the manifest and goes out with the report on the next run
+        host.reject("charts/AKBNK.json.uploading", 0);
+        uploader.uploadReports(local.toString());
+
+        assertEquals("report v2", host.read("report.html"));
+        assertEquals("akbnk v2", host.read("charts/AKBNK.json"));
+        assertTrue(host.storeAttempts("report.html.uploading") >= 2);
+    }
+
+    @Test
+    void deletesRemovedChartsOnlyAfterTheNewReportIsLive() throws IOException {
+        writeLocal("report.html", "report v1");
+        writeLocal("charts/AKBNK.json", "akbnk v1");
+        writeLocal("charts/THYAO.json", "thyao v1");
+        uploader.uploadReports(local.toString());
+
+        // The previous report still links THYAO as long as the new one is held back
+        Files.delete(local.resolve("charts/THYAO.json"));
+        writeLocal("report.html", "report v2");
+        writeLocal("charts/AKBNK.json", "akbnk v2");
+        host.reject("charts/AKBNK.json.uploading", Integer.MAX_VALUE);
+        uploader.uploadReports(local.toString());
+
+        assertEquals("report v1", host.read("report.html"));
+        assertEquals("thyao v1", host.read("charts/THYAO.json"));
+
+        host.reject("charts/AKBNK.json.uploading", 0);
+        uploader.uploadReports(local.toString());
+
+        assertEquals("report v2", host.read("report.html"));
+        assertNull(host.read("charts/THYAO.json"));
+    }
+}
@@ -0,0 +1,107 @@
+package com.bist.analyzer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FtpUploadPoolTest {
+
+    private final FakeFtpHost host = new FakeFtpHost();
+
+    @TempDir
+    Path local;
+
+    @AfterEach
+    void stopHost() {
+        host.close();
+    }
+
+    // count local files file0.json .. (content "data i"), mapped to the same remote names
+    private Map<String, String> files(int count) throws IOException {
+        Map<String, String> files = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            Path path = local.resolve("file" + i + ".json");
+            Files.write(path, ("data " + i).getBytes(StandardCharsets.UTF_8));
+            files.put(path.toString(), "file" + i + ".json");
+        }
+        return files;
+    }
+
+    @Test
+    void uploadsEveryFileThroughTheSharedQueue() throws IOException {
+        FtpUploadPool.Result result = new FtpUploadPool(host, 4).upload(files(12));
+
+        assertEquals(12, result.uploaded.size());
+        assertTrue(result.failed.isEmpty());
+        assertEquals(4, host.connects.get());
+        long bytes = 0;
+        for (int i = 0; i < 12; i++) {
+            assertEquals("data " + i, host.read("file" + i + ".json"));
+            bytes += ("data " + i).length();
+        }
+        assertEquals(bytes, result.bytes.get());
+    }
+
+    @Test
+    void neverOpensMoreConnectionsThanFiles() throws IOException {
+        FtpUploadPool.Result result = new FtpUploadPool(host, 8).upload(files(3));
+
+        assertEquals(3, result.uploaded.size());
+        assertEquals(3, host.connects.get());
+    }
+
+    @Test
+    void retriesARejectedTransfer() throws IOException {
+        host.reject("file2.json", 2);
+
+        FtpUploadPool.Result result = new FtpUploadPool(host, 3).upload(files(6));
+
+        assertEquals(6, result.uploaded.size());
+        assertTrue(result.failed.isEmpty());
+        assertEquals(3, host.storeAttempts("file2.json"));
+        assertEquals("data 2", host.read("file2.json"));
+    }
+
+    @Test
+    void givesUpAfterThreeAttempts() throws IOException {
+        host.reject("file1.json", Integer.MAX_VALUE);
+
+        FtpUploadPool.Result result = new FtpUploadPool(host, 2).upload(files(4));
+
+        assertEquals(Collections.singletonList("file1.json"), result.failed);
+        assertEquals(3, result.uploaded.size());
+        assertEquals(3, host.storeAttempts("file1.json"));
+        assertNull(host.read("file1.json"));
+    }
+
+    @Test
+    void continuesWithTheConnectionsThatOpened() throws IOException {
+        host.refuseConnects(2);
+
+        FtpUploadPool.Result result = new FtpUploadPool(host, 3).upload(files(5));
+
+        assertEquals(5, result.uploaded.size());
+        assertTrue(result.failed.isEmpty());
+    }
+
+    @Test
+    void failsEverythingWithoutAnyConnection() throws IOException {
+        host.refuseConnects(Integer.MAX_VALUE);
+
+        FtpUploadPool.Result result = new FtpUploadPool(host, 2).upload(files(3));
+
+        assertTrue(result.uploaded.isEmpty());
+        assertEquals(3, result.failed.size());
+    }
+}